@@ -0,0 +1,63 @@
+package com.indentity.identity_app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool de threads plateforme borné pour le travail cryptographique CPU (vérification des signatures)
+ *
+ * Utilisé quand les requêtes s'exécutent sur des threads virtuels : le calcul
+ * ne monopolise pas les threads porteurs qui font avancer les I/O.
+ * Si la file est pleine, la vérification est refusée (429, comme le pool BCrypt)
+ * plutôt qu'exécutée sur le thread appelant, qui bloquerait un thread porteur.
+ *
+ * Les lots (authentification de flottes) ont leur propre ForkJoinPool : un lot
+ * de milliers de signatures ne passe pas devant les logins unitaires.
+ */
+@Configuration
+public class CryptoExecutorConfig {
+
+    @Bean(name = "cryptoExecutor", destroyMethod = "shutdown")
+    public ExecutorService cryptoExecutor(
+            @Value("${auth.crypto.threads:0}") int threads,
+            @Value("${auth.crypto.queue-capacity:256}") int queueCapacity
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "crypto-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Bean(name = "batchVerificationPool", destroyMethod = "shutdown")
+    public ForkJoinPool batchVerificationPool(@Value("${auth.batch.parallelism:0}") int parallelism) {
+        int poolSize = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(
+                poolSize,
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("batch-verify-" + thread.getPoolIndex());
+                    return thread;
+                },
+                null,
+                false
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package com.indentity.identity_app.config;
+
+import com.indentity.identity_app.store.EphemeralStoreMode;
+import com.indentity.identity_app.store.HybridOneTimeValueStore;
+import com.indentity.identity_app.store.LocalOneTimeValueStore;
+import com.indentity.identity_app.store.OneTimeValueStore;
+import com.indentity.identity_app.store.RedisOneTimeValueStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Stockage des tokens temporaires et des challenges, selon auth.ephemeral-store.mode
+ *
+ * Les stockages locaux ne sont créés que s'ils sont utilisés (thread d'expiration, métriques).
+ * Seules ces valeurs changent de stockage : RedisOneTimeValueStore est créé dans tous les modes
+ * et Redis reste requis (refresh tokens, révocation, limites de débit, pub/sub).
+ * Profil "reactive" : ReactiveTemporaryTokenStore et ReactiveChallengeStore utilisent Redis dans tous les modes.
+ */
+@Configuration
+public class EphemeralStoreConfig {
+
+    @Bean
+    @Primary
+    public OneTimeValueStore oneTimeValueStore(
+            RedisOneTimeValueStore redisStore,
+            MeterRegistry meterRegistry,
+            @Value("${auth.ephemeral-store.mode:REDIS}") EphemeralStoreMode mode,
+            @Value("${auth.ephemeral-store.local.max-entries:100000}") int maxEntries,
+            @Value("${auth.ephemeral-store.local.max-memory:64MB}") DataSize maxMemory,
+            @Value("${auth.ephemeral-store.local.tick:1s}") Duration tick,
+            @Value("${auth.ephemeral-store.hybrid.slow-call:50ms}") Duration slowCall,
+            @Value("${auth.ephemeral-store.hybrid.failure-threshold:3}") int failureThreshold,
+            @Value("${auth.ephemeral-store.hybrid.cooldown:30s}") Duration cooldown
+    ) {
+        return switch (mode) {
+            case REDIS -> redisStore;
+            case LOCAL -> new LocalOneTimeValueStore(meterRegistry, maxEntries, maxMemory.toBytes(), tick);
+            case HYBRID -> new HybridOneTimeValueStore(redisStore,
+                    new LocalOneTimeValueStore(meterRegistry, maxEntries, maxMemory.toBytes(), tick),
+                    meterRegistry, slowCall, failureThreshold, cooldown);
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.indentity.identity_app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * DataSource JDBC du profil "reactive"
+ *
+ * Spring Boot n'en crée pas dès qu'une ConnectionFactory R2DBC existe ; elle reste
+ * nécessaire à Flyway, à JPA et aux tâches de fond (filtre des emails connus,
+ * instantanés utilisateur). Le chemin des requêtes /auth passe par R2DBC.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveJdbcConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.indentity.identity_app.config;
+
+import com.indentity.identity_app.filter.PrincipalMode;
+import com.indentity.identity_app.filter.TokenAuthenticationWebFilter;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.repository.ReactiveUserRepository;
+import com.indentity.identity_app.service.JwtService;
+import com.indentity.identity_app.service.UserLookup;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * SecurityConfig pour la pile réactive (profil "reactive") : mêmes règles d'accès
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(
+            ServerHttpSecurity http,
+            JwtService jwtService,
+            ReactiveUserRepository userRepository,
+            UserLookup userLookup,
+            AuthMetrics authMetrics,
+            @Value("${auth.principal-mode:DATABASE}") PrincipalMode principalMode,
+            @Qualifier("cryptoScheduler") Scheduler cryptoScheduler
+    ) {
+        TokenAuthenticationWebFilter tokenFilter = new TokenAuthenticationWebFilter(
+                jwtService, userRepository, userLookup, authMetrics, principalMode, cryptoScheduler);
+
+        return http
+                .csrf(csrf -> csrf.disable())
+                .httpBasic(httpBasic -> httpBasic.disable())
+                .formLogin(formLogin -> formLogin.disable())
+                // Sans état : le principal vient du JWT de chaque requête, pas d'une session
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/auth/**", "/actuator/health").permitAll()
+                        .pathMatchers("/.well-known/jwks.json").permitAll() // clés publiques JWT
+                        .pathMatchers("/actuator/prometheus").permitAll() // scrape Prometheus : port de gestion uniquement
+                        .pathMatchers("/admin/**").hasRole("ADMIN") // servis par les instances servlet
+                        .anyExchange().authenticated()
+                )
+                .addFilterAt(tokenFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
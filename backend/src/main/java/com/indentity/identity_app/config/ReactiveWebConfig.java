@@ -0,0 +1,75 @@
+package com.indentity.identity_app.config;
+
+import com.indentity.identity_app.controller.ReactiveAuthHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Pile réactive (profil "reactive") : WebFlux sur Netty, quelques threads
+ * d'événements pour un grand nombre de connexions lentes (mobiles)
+ *
+ * Aucun calcul cryptographique ne s'exécute sur ces threads : BCrypt garde son
+ * pool (auth.hashing.*), signatures et JWT passent par le scheduler borné cryptoScheduler.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveWebConfig {
+
+    // Netty plutôt que Tomcat, présent pour la pile servlet et choisi sinon par Spring Boot
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Scheduler borné du travail CPU (vérification des signatures et des JWT, signature des JWT)
+     * File pleine : la tâche est refusée (429) plutôt que de bloquer une boucle d'événements
+     */
+    @Bean(name = "cryptoScheduler", destroyMethod = "dispose")
+    public Scheduler cryptoScheduler(
+            @Value("${auth.reactive.crypto.threads:0}") int threads,
+            @Value("${auth.reactive.crypto.queue-capacity:1024}") int queueCapacity
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return Schedulers.newBoundedElastic(poolSize, queueCapacity, "reactive-crypto", 60, true);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> authRoutes(ReactiveAuthHandler handler) {
+        return RouterFunctions.route()
+                .path("/auth", auth -> auth
+                        .POST("/register", handler::register)
+                        .POST("/login", handler::login)
+                        .POST("/challenge", handler::challenge)
+                        .POST("/authenticate", handler::authenticate)
+                        .POST("/refresh", handler::refresh)
+                        .POST("/logout", handler::logout)
+                        .GET("/me", handler::me))
+                .build();
+    }
+
+    // Même politique CORS que WebConfig
+    @Bean
+    public WebFluxConfigurer corsConfigurer() {
+        return new WebFluxConfigurer() {
+            @Override
+            public void addCorsMappings(CorsRegistry registry) {
+                registry.addMapping("/**")
+                        .allowedOrigins("http://localhost:3000")
+                        .allowedMethods("GET", "POST", "PUT", "DELETE")
+                        .allowedHeaders("*")
+                        .allowCredentials(true);
+            }
+        };
+    }
+}
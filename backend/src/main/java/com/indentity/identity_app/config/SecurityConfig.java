@@ -1,9 +1,12 @@
 package com.indentity.identity_app.config;
 
+import com.indentity.identity_app.filter.RateLimitFilter;
 import com.indentity.identity_app.filter.TokenAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -14,10 +17,12 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final TokenAuthenticationFilter tokenFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     // Constructor injection with @Lazy
-    public SecurityConfig(@Lazy TokenAuthenticationFilter tokenFilter) {
+    public SecurityConfig(@Lazy TokenAuthenticationFilter tokenFilter, @Lazy RateLimitFilter rateLimitFilter) {
         this.tokenFilter = tokenFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     @Bean
@@ -25,15 +30,23 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    // Profil "reactive" : ReactiveSecurityConfig (PasswordEncoder commun aux deux piles)
     @Bean
+    @Profile("!reactive")
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Réponses en streaming : la requête d'origine a déjà été autorisée
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/auth/**", "/actuator/health").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll() // clés publiques JWT
+                        .requestMatchers("/actuator/prometheus").permitAll() // scrape Prometheus : port de gestion uniquement
                         .requestMatchers("/admin/**").hasRole("ADMIN") // endpoints admin sécurisés
                         .anyRequest().authenticated()
                 )
+                // Même position, ordre d'ajout conservé : limites de débit avant la vérification du JWT
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(tokenFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
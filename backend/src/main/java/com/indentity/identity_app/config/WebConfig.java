@@ -2,10 +2,13 @@ package com.indentity.identity_app.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+// Pile servlet ; profil "reactive" : ReactiveWebConfig
 @Configuration
+@Profile("!reactive")
 public class WebConfig {
     @Bean
     public WebMvcConfigurer corsConfigurer() {
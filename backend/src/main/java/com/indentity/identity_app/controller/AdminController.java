@@ -0,0 +1,70 @@
+package com.indentity.identity_app.controller;
+
+import com.indentity.identity_app.jwt.JwtKeyRing;
+import com.indentity.identity_app.jwt.SigningKey;
+import com.indentity.identity_app.exception.InvalidTokenException;
+import com.indentity.identity_app.service.BulkRegistrationService;
+import com.indentity.identity_app.service.JwtService;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+
+// Pile servlet uniquement : les opérations d'administration restent sur les instances servlet
+@RestController
+@RequestMapping("/admin")
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final BulkRegistrationService bulkRegistrationService;
+    private final JwtKeyRing jwtKeyRing;
+    private final JwtService jwtService;
+
+    /**
+     * Inscription en masse (rôle ADMIN)
+     * Corps : une RegisterRequest JSON par ligne ; réponse : un résultat JSON par ligne,
+     * envoyé au fil de l'eau par lots
+     */
+    @PostMapping(value = "/users/bulk", consumes = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> bulkRegister(HttpServletRequest request) {
+        StreamingResponseBody body = out -> bulkRegistrationService.register(request.getInputStream(), out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * Rotation anticipée de la clé de signature JWT (rôle ADMIN)
+     * La nouvelle clé est publiée tout de suite et signe après jwt.jwks.max-age
+     */
+    @PostMapping("/jwt/rotate")
+    public Map<String, String> rotateJwtKey() {
+        SigningKey key = jwtKeyRing.rotate();
+        return Map.of(
+                "kid", key.kid(),
+                "activatesAt", key.createdAt().plus(jwtKeyRing.jwksMaxAge()).toString()
+        );
+    }
+
+    /**
+     * Révocation d'un JWT avant son expiration (rôle ADMIN), sur toutes les instances
+     * Corps : { "token": "<JWT>" }
+     */
+    @PostMapping("/jwt/revoke")
+    public String revokeJwt(@RequestBody Map<String, String> body) {
+        try {
+            jwtService.revoke(body.get("token"));
+        } catch (JWTVerificationException e) {
+            throw new InvalidTokenException(e.getMessage());
+        }
+        return "Token revoked";
+    }
+}
@@ -3,21 +3,35 @@ package com.indentity.identity_app.controller;
 import com.indentity.identity_app.dto.Request.*;
 import com.indentity.identity_app.dto.Response.*;
 import com.indentity.identity_app.entity.User;
+import com.indentity.identity_app.exception.InvalidTokenException;
 import com.indentity.identity_app.service.AuthService;
+import com.indentity.identity_app.service.BatchAuthService;
+import com.indentity.identity_app.service.LoginTicket;
+import com.indentity.identity_app.service.RefreshTokenService;
+import com.indentity.identity_app.service.TokenPair;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
+// Profil "reactive" : ReactiveAuthHandler (sans les endpoints /auth/batch, servis par les instances servlet)
 @RestController
 @RequestMapping("/auth")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class AuthController {
 
     private final AuthService authService;
+    private final BatchAuthService batchAuthService;
+    private final RefreshTokenService refreshTokenService;
 
     /**
-     * Enregistrement d'un nouvel utilisateur avec clé publique RSA
+     * Enregistrement d'un nouvel utilisateur avec clé publique (RSA, ECDSA P-256 ou Ed25519)
      */
     @PostMapping("/register")
     public String register(@RequestBody RegisterRequest req) {
@@ -28,11 +42,17 @@ public class AuthController {
     /**
      * STEP 1 du MFA : Validation du mot de passe
      * Retourne un token temporaire valide 5 minutes
+     * Avec withChallenge=true : retourne aussi le challenge (valide 2 minutes),
+     * le client passe directement au STEP 3
      */
     @PostMapping("/login")
-    public TempTokenResponse login(@RequestBody LoginFirstRequest req) {
-        String tempToken = authService.loginStep1(req.email, req.password);
-        return new TempTokenResponse(tempToken);
+    public TempTokenResponse login(@RequestBody LoginFirstRequest req, HttpServletRequest request) {
+        if (req.withChallenge) {
+            LoginTicket ticket = authService.loginStep1WithChallenge(req.email, req.password, request.getRemoteAddr());
+            return new TempTokenResponse(ticket.temporaryToken(), ticket.challenge());
+        }
+        String tempToken = authService.loginStep1(req.email, req.password, request.getRemoteAddr());
+        return new TempTokenResponse(tempToken, null);
     }
 
     /**
@@ -46,17 +66,59 @@ public class AuthController {
     }
 
     /**
-     * STEP 3 du MFA : Authentification par signature RSA
+     * STEP 3 du MFA : Authentification par signature du challenge
      * Le client envoie le temporaryToken + challenge + signature
      */
     @PostMapping("/authenticate")
     public JwtResponse authenticateWithSignature(@RequestBody AuthenticateRequest req) {
-        String jwt = authService.authenticateWithSignature(
+        TokenPair tokens = authService.authenticateWithSignature(
                 req.temporaryToken,
                 req.challenge,
                 req.signature
         );
-        return new JwtResponse(jwt);
+        return new JwtResponse(tokens.accessToken(), tokens.refreshToken());
+    }
+
+    /**
+     * Renouvellement du JWT sans refaire le MFA
+     * Le refresh token présenté est remplacé : le réutiliser révoque toute la session
+     */
+    @PostMapping("/refresh")
+    public JwtResponse refresh(@RequestBody RefreshRequest req) {
+        TokenPair tokens = refreshTokenService.refresh(req.refreshToken);
+        return new JwtResponse(tokens.accessToken(), tokens.refreshToken());
+    }
+
+    /**
+     * STEP 2 du MFA pour une flotte d'appareils : un challenge par temporaryToken
+     * Réponse : un résultat par token (challenge ou refus), dans l'ordre de la requête
+     */
+    @PostMapping("/batch/challenge")
+    public List<BatchChallengeResult> requestChallenges(@RequestBody BatchChallengeRequest req) {
+        return batchAuthService.requestChallenges(req.temporaryTokens);
+    }
+
+    /**
+     * STEP 3 du MFA pour une flotte d'appareils
+     * Réponse : un résultat par appareil (JWT ou refus), dans l'ordre de la requête
+     */
+    @PostMapping("/batch/authenticate")
+    public List<BatchAuthenticateResult> authenticateBatch(@RequestBody BatchAuthenticateRequest req) {
+        return batchAuthService.authenticate(req.items);
+    }
+
+    /**
+     * Déconnexion : le JWT présenté est refusé par toutes les instances jusqu'à son expiration
+     * Corps optionnel { refreshToken } : la session de refresh est révoquée aussi
+     */
+    @PostMapping("/logout")
+    public String logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                         @RequestBody(required = false) LogoutRequest req) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new InvalidTokenException("Missing bearer token");
+        }
+        authService.logout(authorization.substring(7), req != null ? req.refreshToken : null);
+        return "Logged out";
     }
 
     /**
@@ -0,0 +1,35 @@
+package com.indentity.identity_app.controller;
+
+import com.indentity.identity_app.jwt.JwtKeyRing;
+import com.indentity.identity_app.jwt.JwtKeyRing.JwkSet;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    /**
+     * Clés publiques de signature des JWT (RFC 7517)
+     * Les services en aval vérifient les tokens localement et mettent ce document
+     * en cache (Cache-Control) ; ETag : If-None-Match donne un 304 sans corps
+     */
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        JwkSet jwkSet = keyRing.jwkSet();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(keyRing.jwksMaxAge()).cachePublic())
+                .eTag(jwkSet.etag())
+                .body(Map.of("keys", jwkSet.keys()));
+    }
+}
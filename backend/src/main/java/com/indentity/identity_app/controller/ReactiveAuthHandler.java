@@ -0,0 +1,231 @@
+package com.indentity.identity_app.controller;
+
+import com.indentity.identity_app.dto.Request.*;
+import com.indentity.identity_app.dto.Response.*;
+import com.indentity.identity_app.entity.User;
+import com.indentity.identity_app.event.AuthEvent;
+import com.indentity.identity_app.event.AuthEventLogger;
+import com.indentity.identity_app.exception.InvalidCredentialsException;
+import com.indentity.identity_app.exception.InvalidTokenException;
+import com.indentity.identity_app.exception.TokenExpiredException;
+import com.indentity.identity_app.exception.TooManyRequestsException;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.ratelimit.LocalRateLimiter;
+import com.indentity.identity_app.ratelimit.RateLimitKey;
+import com.indentity.identity_app.ratelimit.RateLimitRejection;
+import com.indentity.identity_app.ratelimit.RateLimitScope;
+import com.indentity.identity_app.ratelimit.ReactiveSlidingWindowRateLimiter;
+import com.indentity.identity_app.service.ReactiveAuthService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Endpoints /auth de AuthController pour la pile réactive (profil "reactive")
+ * Routes déclarées dans ReactiveWebConfig
+ *
+ * Mêmes corps de requête et de réponse, mêmes codes d'erreur (GlobalExceptionHandler)
+ * et mêmes limites de débit (RateLimitFilter). Les endpoints /auth/batch et /admin
+ * ne sont servis que par les instances servlet.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveAuthHandler {
+
+    private final ReactiveAuthService authService;
+    private final LocalRateLimiter localRateLimiter;
+    private final ReactiveSlidingWindowRateLimiter slidingWindowRateLimiter;
+    private final AuthMetrics authMetrics;
+    private final AuthEventLogger authEvents;
+    private final boolean rateLimitEnabled;
+
+    public ReactiveAuthHandler(
+            ReactiveAuthService authService,
+            LocalRateLimiter localRateLimiter,
+            ReactiveSlidingWindowRateLimiter slidingWindowRateLimiter,
+            AuthMetrics authMetrics,
+            AuthEventLogger authEvents,
+            @Value("${auth.rate-limit.enabled:true}") boolean rateLimitEnabled
+    ) {
+        this.authService = authService;
+        this.localRateLimiter = localRateLimiter;
+        this.slidingWindowRateLimiter = slidingWindowRateLimiter;
+        this.authMetrics = authMetrics;
+        this.authEvents = authEvents;
+        this.rateLimitEnabled = rateLimitEnabled;
+    }
+
+    /**
+     * @see AuthController#register
+     */
+    public Mono<ServerResponse> register(ServerRequest request) {
+        return body(request, RegisterRequest.class, req -> respond(request, RateLimitScope.EMAIL, email(req.email),
+                () -> authService.register(req.email, req.password, req.publicKey).thenReturn("User registered")));
+    }
+
+    /**
+     * @see AuthController#login
+     */
+    public Mono<ServerResponse> login(ServerRequest request) {
+        return body(request, LoginFirstRequest.class, req -> respond(request, RateLimitScope.EMAIL, email(req.email),
+                () -> req.withChallenge
+                        ? authService.loginStep1WithChallenge(req.email, req.password, clientIp(request))
+                                .map(ticket -> new TempTokenResponse(ticket.temporaryToken(), ticket.challenge()))
+                        : authService.loginStep1(req.email, req.password, clientIp(request))
+                                .map(tempToken -> new TempTokenResponse(tempToken, null))));
+    }
+
+    /**
+     * @see AuthController#requestChallenge
+     */
+    public Mono<ServerResponse> challenge(ServerRequest request) {
+        return body(request, ChallengeTokenRequest.class, req -> respond(request,
+                RateLimitScope.TEMPORARY_TOKEN, req.temporaryToken,
+                () -> authService.requestChallengeWithToken(req.temporaryToken).map(ChallengeResponse::new)));
+    }
+
+    /**
+     * @see AuthController#authenticateWithSignature
+     */
+    public Mono<ServerResponse> authenticate(ServerRequest request) {
+        return body(request, AuthenticateRequest.class, req -> respond(request,
+                RateLimitScope.TEMPORARY_TOKEN, req.temporaryToken,
+                () -> authService.authenticateWithSignature(req.temporaryToken, req.challenge, req.signature)
+                        .map(tokens -> new JwtResponse(tokens.accessToken(), tokens.refreshToken()))));
+    }
+
+    /**
+     * @see AuthController#refresh
+     */
+    public Mono<ServerResponse> refresh(ServerRequest request) {
+        return body(request, RefreshRequest.class, req -> respond(request, null, null,
+                () -> authService.refresh(req.refreshToken)
+                        .map(tokens -> new JwtResponse(tokens.accessToken(), tokens.refreshToken()))));
+    }
+
+    /**
+     * @see AuthController#logout
+     */
+    public Mono<ServerResponse> logout(ServerRequest request) {
+        String authorization = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+        // Corps optionnel
+        return request.bodyToMono(LogoutRequest.class)
+                .map(req -> Optional.ofNullable(req.refreshToken))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(refreshToken -> respond(request, null, null, () -> {
+                    if (authorization == null || !authorization.startsWith("Bearer ")) {
+                        return Mono.error(new InvalidTokenException("Missing bearer token"));
+                    }
+                    return authService.logout(authorization.substring(7), refreshToken.orElse(null))
+                            .thenReturn("Logged out");
+                }))
+                .onErrorResume(this::error);
+    }
+
+    /**
+     * @see AuthController#me
+     */
+    public Mono<ServerResponse> me(ServerRequest request) {
+        return respond(request, null, null, () -> request.principal()
+                .map(principal -> (User) ((Authentication) principal).getPrincipal())
+                .map(user -> new UserInfoResponse(user.getEmail(), user.getRole().name()))
+                .switchIfEmpty(Mono.error(() -> new InvalidTokenException("Missing bearer token"))));
+    }
+
+    private <T> Mono<ServerResponse> body(ServerRequest request, Class<T> type,
+                                          Function<T, Mono<ServerResponse>> handler) {
+        return request.bodyToMono(type)
+                .flatMap(handler)
+                .switchIfEmpty(Mono.defer(() -> text(HttpStatus.BAD_REQUEST, "Required request body is missing")))
+                .onErrorResume(this::error);
+    }
+
+    /**
+     * Applique les limites de débit puis exécute l'action
+     *
+     * @param scope La limite portant sur une valeur du corps (null : limite par IP seule)
+     * @param value La valeur limitée (null : le service répondra 400 ou 401)
+     */
+    private Mono<ServerResponse> respond(ServerRequest request, RateLimitScope scope, String value,
+                                         Supplier<Mono<?>> action) {
+        String clientIp = clientIp(request);
+        return admit(clientIp, scope, value)
+                .flatMap(rejection -> rejection.isPresent()
+                        ? rejected(rejection.get(), clientIp)
+                        : Mono.defer(action).flatMap(body -> ServerResponse.ok().bodyValue(body)))
+                .onErrorResume(this::error);
+    }
+
+    // Pré-filtre local, puis limites partagées (même ordre que RateLimitFilter)
+    private Mono<Optional<RateLimitRejection>> admit(String clientIp, RateLimitScope scope, String value) {
+        if (!rateLimitEnabled) {
+            return Mono.just(Optional.empty());
+        }
+        long wait = localRateLimiter.tryAcquire(clientIp);
+        if (wait > 0) {
+            return Mono.just(Optional.of(new RateLimitRejection(RateLimitScope.LOCAL, wait)));
+        }
+        List<RateLimitKey> keys = new ArrayList<>(2);
+        keys.add(new RateLimitKey(RateLimitScope.IP, clientIp));
+        if (scope != null) {
+            keys.add(new RateLimitKey(scope, value));
+        }
+        return slidingWindowRateLimiter.tryAcquire(keys);
+    }
+
+    private Mono<ServerResponse> rejected(RateLimitRejection rejection, String clientIp) {
+        authMetrics.rateLimited(rejection.scope());
+        authEvents.record(AuthEvent.RATE_LIMITED, clientIp, rejection.scope().tag());
+        return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(rejection.retryAfterSeconds()))
+                .bodyValue("Too many requests, retry later");
+    }
+
+    // Même correspondance que GlobalExceptionHandler
+    private Mono<ServerResponse> error(Throwable e) {
+        if (e instanceof InvalidCredentialsException ex) {
+            authMetrics.failure(ex.getReason());
+            authEvents.record(AuthEvent.CREDENTIALS_REJECTED, null, ex.getReason().tag());
+            return text(HttpStatus.UNAUTHORIZED, ex.getMessage());
+        }
+        if (e instanceof InvalidTokenException || e instanceof TokenExpiredException) {
+            return text(HttpStatus.UNAUTHORIZED, e.getMessage());
+        }
+        if (e instanceof TooManyRequestsException || e instanceof RejectedExecutionException) {
+            // RejectedExecutionException : file du scheduler crypto pleine
+            return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .bodyValue(e instanceof TooManyRequestsException ? e.getMessage() : "Server busy, retry later");
+        }
+        return text(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    private static Mono<ServerResponse> text(HttpStatus status, String message) {
+        return message != null ? ServerResponse.status(status).bodyValue(message) : ServerResponse.status(status).build();
+    }
+
+    // Le login ne tient pas compte de la casse de l'email
+    private static String email(String email) {
+        return email != null ? email.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String clientIp(ServerRequest request) {
+        return request.remoteAddress()
+                .map(address -> address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString())
+                .orElse("unknown");
+    }
+}
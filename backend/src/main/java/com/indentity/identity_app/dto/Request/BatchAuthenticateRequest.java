@@ -0,0 +1,11 @@
+package com.indentity.identity_app.dto.Request;
+
+import lombok.Data;
+
+import java.util.List;
+
+// STEP 3 du MFA pour toute une flotte : un élément par appareil
+@Data
+public class BatchAuthenticateRequest {
+    public List<AuthenticateRequest> items;
+}
@@ -0,0 +1,11 @@
+package com.indentity.identity_app.dto.Request;
+
+import lombok.Data;
+
+import java.util.List;
+
+// Un challenge par appareil d'une flotte (un temporaryToken par appareil)
+@Data
+public class BatchChallengeRequest {
+    public List<String> temporaryTokens;
+}
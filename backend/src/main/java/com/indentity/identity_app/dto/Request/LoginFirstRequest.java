@@ -7,4 +7,5 @@ import lombok.Data;
 public class LoginFirstRequest {
     public String email;
     public String password;
+    public boolean withChallenge; // true : challenge renvoyé avec le token (pas d'appel à /challenge)
 }
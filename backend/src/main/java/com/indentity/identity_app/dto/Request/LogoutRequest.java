@@ -0,0 +1,8 @@
+package com.indentity.identity_app.dto.Request;
+
+import lombok.Data;
+
+@Data
+public class LogoutRequest {
+    public String refreshToken; // optionnel : révoque aussi la session de refresh
+}
@@ -0,0 +1,8 @@
+package com.indentity.identity_app.dto.Request;
+
+import lombok.Data;
+
+@Data
+public class RefreshRequest {
+    public String refreshToken;
+}
@@ -6,5 +6,5 @@ import lombok.Data;
 public class RegisterRequest {
     public String email;
     public String password;
-    public String publicKey; // Clé publique RSA au format Base64
+    public String publicKey; // Clé publique au format Base64 (SPKI : RSA, ECDSA P-256 ou Ed25519)
 }
\ No newline at end of file
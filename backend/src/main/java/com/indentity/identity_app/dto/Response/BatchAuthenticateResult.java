@@ -0,0 +1,22 @@
+package com.indentity.identity_app.dto.Response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Résultat d'un élément de /auth/batch/authenticate
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchAuthenticateResult {
+    private int index;        // position dans la requête (à partir de 0)
+    private Status status;
+    private String token;     // JWT si authentifié
+    private String refreshToken; // à échanger sur /auth/refresh (absent si désactivé)
+    private String message;   // raison du refus
+
+    public enum Status {
+        AUTHENTICATED,
+        REJECTED
+    }
+}
@@ -0,0 +1,21 @@
+package com.indentity.identity_app.dto.Response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Résultat d'un élément de /auth/batch/challenge
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchChallengeResult {
+    private int index;        // position dans la requête (à partir de 0)
+    private Status status;
+    private String challenge;
+    private String message;   // raison si aucun challenge n'a été émis
+
+    public enum Status {
+        ISSUED,
+        REJECTED
+    }
+}
@@ -0,0 +1,23 @@
+package com.indentity.identity_app.dto.Response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Une ligne du flux NDJSON renvoyé par l'inscription en masse
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkRegistrationResult {
+    private long line;      // numéro de ligne dans le flux reçu (à partir de 1)
+    private String email;
+    private Status status;
+    private String message; // raison si la ligne n'a pas été créée
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        ERROR
+    }
+}
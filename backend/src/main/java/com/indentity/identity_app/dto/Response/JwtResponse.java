@@ -1,11 +1,13 @@
 package com.indentity.identity_app.dto.Response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
 @Data
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class JwtResponse {
         private String token; // JWT
+        private String refreshToken; // à échanger sur /auth/refresh (absent si désactivé)
 }
-
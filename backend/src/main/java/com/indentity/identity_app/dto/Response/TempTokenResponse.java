@@ -1,10 +1,13 @@
 package com.indentity.identity_app.dto.Response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
 @Data
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class TempTokenResponse {
     private String temporaryToken;
+    private String challenge; // présent si demandé au login (withChallenge)
 }
@@ -1,11 +1,14 @@
 package com.indentity.identity_app.entity;
 
+import com.indentity.identity_app.signature.SignatureAlgorithm;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.GeneratedColumn;
 
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserEntityListener.class)
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor
 @Builder
@@ -24,8 +27,22 @@ public class User {
     @Enumerated(EnumType.STRING)
     private Role role;
 
-    // Clé publique RSA au format Base64 (SPKI)
+    // Clé publique au format Base64 (SPKI) : RSA, ECDSA P-256 ou Ed25519
     // Utilisée pour vérifier les signatures côté serveur
     @Column(columnDefinition = "TEXT")
     private String publicKey;
+
+    // Schéma de signature de publicKey (détecté à l'inscription, migration V3)
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private SignatureAlgorithm publicKeyAlgorithm;
+
+    // Calculée par la base (migration V2), incluse dans l'index du login : jamais écrite ici
+    @GeneratedColumn("public_key is not null and public_key <> ''")
+    private Boolean hasPublicKey;
+
+    // Email tel que lu en base (UserEntityListener) : invalide aussi l'ancien email après un changement
+    @Transient
+    @Getter(AccessLevel.PACKAGE) @Setter(AccessLevel.PACKAGE)
+    private String loadedEmail;
 }
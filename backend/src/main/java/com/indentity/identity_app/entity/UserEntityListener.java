@@ -0,0 +1,46 @@
+package com.indentity.identity_app.entity;
+
+import com.indentity.identity_app.service.PublicKeyCache;
+import com.indentity.identity_app.service.UserSnapshotCache;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA : invalide la clé publique décodée et l'instantané utilisateur
+ * en cache dès qu'un utilisateur est créé, modifié ou supprimé
+ * Après un changement d'email, l'instantané de l'ancien email est aussi invalidé.
+ */
+@Component
+public class UserEntityListener {
+
+    private final PublicKeyCache publicKeyCache;
+    private final UserSnapshotCache userSnapshotCache;
+
+    // @Lazy : le listener est créé avec l'EntityManagerFactory, avant les repositories
+    public UserEntityListener(@Lazy PublicKeyCache publicKeyCache, @Lazy UserSnapshotCache userSnapshotCache) {
+        this.publicKeyCache = publicKeyCache;
+        this.userSnapshotCache = userSnapshotCache;
+    }
+
+    @PostLoad
+    public void onUserLoaded(User user) {
+        user.setLoadedEmail(user.getEmail());
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        publicKeyCache.invalidate(user.getId());
+        userSnapshotCache.revoke(user.getEmail());
+        String loadedEmail = user.getLoadedEmail();
+        if (loadedEmail != null && !loadedEmail.equalsIgnoreCase(user.getEmail())) {
+            userSnapshotCache.revoke(loadedEmail);
+        }
+        user.setLoadedEmail(user.getEmail());
+    }
+}
@@ -0,0 +1,30 @@
+package com.indentity.identity_app.event;
+
+import java.util.Locale;
+
+/**
+ * Types d'événements d'authentification agrégés par AuthEventLogger
+ */
+public enum AuthEvent {
+    SIGNATURE_VALID(false),
+    SIGNATURE_INVALID(true),
+    SIGNATURE_ERROR(true),
+    PUBLIC_KEY_INVALID(true),
+    CREDENTIALS_REJECTED(true),
+    RATE_LIMITED(true);
+
+    private final boolean failure;
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    AuthEvent(boolean failure) {
+        this.failure = failure;
+    }
+
+    public boolean isFailure() {
+        return failure;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,96 @@
+package com.indentity.identity_app.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Journal des événements d'authentification, sans une ligne par appel
+ *
+ * Chaque événement incrémente un compteur (LongAdder, sans allocation) ;
+ * seul un échantillon (1 sur N, N par type succès / échec) produit une ligne
+ * structurée key=value sur le logger "auth.events". Un résumé des compteurs
+ * est écrit périodiquement.
+ */
+@Component
+public class AuthEventLogger {
+
+    private static final Logger log = LoggerFactory.getLogger("auth.events");
+
+    private final LongAdder[] counters;
+    private final int successSampleEvery;
+    private final int failureSampleEvery;
+
+    /**
+     * @param successSampleEvery 1 ligne pour N succès (0 : résumé uniquement)
+     * @param failureSampleEvery 1 ligne pour N échecs (0 : résumé uniquement)
+     */
+    public AuthEventLogger(
+            @Value("${auth.events.sample-every.success:1000}") int successSampleEvery,
+            @Value("${auth.events.sample-every.failure:10}") int failureSampleEvery
+    ) {
+        this.successSampleEvery = successSampleEvery;
+        this.failureSampleEvery = failureSampleEvery;
+        AuthEvent[] events = AuthEvent.values();
+        this.counters = new LongAdder[events.length];
+        for (AuthEvent event : events) {
+            counters[event.ordinal()] = new LongAdder();
+        }
+    }
+
+    public void record(AuthEvent event, Object subject) {
+        counters[event.ordinal()].increment();
+        if (sampled(event)) {
+            log(event, "event={} subject={}", event.tag(), subject);
+        }
+    }
+
+    /**
+     * @param detail Précision écrite seulement si l'événement est échantillonné
+     */
+    public void record(AuthEvent event, Object subject, String detail) {
+        counters[event.ordinal()].increment();
+        if (sampled(event)) {
+            log(event, "event={} subject={} detail=\"{}\"", event.tag(), subject, detail);
+        }
+    }
+
+    /**
+     * Écrit les compteurs depuis le dernier résumé (rien si aucun événement)
+     */
+    @Scheduled(fixedDelayString = "${auth.events.summary-interval-ms:60000}")
+    public void logSummary() {
+        StringBuilder summary = null;
+        for (AuthEvent event : AuthEvent.values()) {
+            long count = counters[event.ordinal()].sumThenReset();
+            if (count == 0) {
+                continue;
+            }
+            if (summary == null) {
+                summary = new StringBuilder("event=summary");
+            }
+            summary.append(' ').append(event.tag()).append('=').append(count);
+        }
+        if (summary != null) {
+            log.info(summary.toString());
+        }
+    }
+
+    private boolean sampled(AuthEvent event) {
+        int every = event.isFailure() ? failureSampleEvery : successSampleEvery;
+        return every > 0 && (every == 1 || ThreadLocalRandom.current().nextInt(every) == 0);
+    }
+
+    private static void log(AuthEvent event, String format, Object... arguments) {
+        if (event.isFailure()) {
+            log.warn(format, arguments);
+        } else {
+            log.info(format, arguments);
+        }
+    }
+}
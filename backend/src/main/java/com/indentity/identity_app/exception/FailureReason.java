@@ -0,0 +1,26 @@
+package com.indentity.identity_app.exception;
+
+import java.util.Locale;
+
+/**
+ * Cause d'un refus d'authentification (tag "reason" du compteur auth.failures)
+ * Le message HTTP reste générique : la cause exacte n'est visible que dans les métriques.
+ */
+public enum FailureReason {
+    USER_EXISTS,
+    UNKNOWN_USER,
+    BAD_PASSWORD,
+    NO_PUBLIC_KEY,
+    INVALID_TEMPORARY_TOKEN,
+    INVALID_CHALLENGE,
+    INVALID_SIGNATURE,
+    INVALID_PUBLIC_KEY,
+    INVALID_REFRESH_TOKEN,
+    REFRESH_TOKEN_REUSED;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    public String tag() {
+        return tag;
+    }
+}
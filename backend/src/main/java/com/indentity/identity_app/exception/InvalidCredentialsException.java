@@ -1,5 +1,12 @@
 package com.indentity.identity_app.exception;
 
 public class InvalidCredentialsException extends RuntimeException {
-    public InvalidCredentialsException(String message) { super(message); }
-}
\ No newline at end of file
+    private final FailureReason reason;
+
+    public InvalidCredentialsException(FailureReason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public FailureReason getReason() { return reason; }
+}
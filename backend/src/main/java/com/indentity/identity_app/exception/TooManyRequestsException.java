@@ -0,0 +1,5 @@
+package com.indentity.identity_app.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) { super(message); }
+}
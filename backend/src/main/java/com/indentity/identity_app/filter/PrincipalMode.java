@@ -0,0 +1,13 @@
+package com.indentity.identity_app.filter;
+
+/**
+ * Manière dont TokenAuthenticationFilter construit le principal authentifié
+ */
+public enum PrincipalMode {
+    // Vérifie l'utilisateur en base à chaque requête (projection id, email, rôle)
+    DATABASE,
+    // Construit le principal depuis les claims vérifiés du JWT, sans accès base
+    CLAIMS,
+    // Claims vérifiés + instantané utilisateur en cache (local, Redis, puis base)
+    SNAPSHOT
+}
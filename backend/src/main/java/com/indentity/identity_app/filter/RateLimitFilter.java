@@ -0,0 +1,212 @@
+package com.indentity.identity_app.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indentity.identity_app.event.AuthEvent;
+import com.indentity.identity_app.event.AuthEventLogger;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.ratelimit.LocalRateLimiter;
+import com.indentity.identity_app.ratelimit.RateLimitKey;
+import com.indentity.identity_app.ratelimit.RateLimitRejection;
+import com.indentity.identity_app.ratelimit.RateLimitScope;
+import com.indentity.identity_app.ratelimit.SlidingWindowRateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Limites de débit des endpoints /auth, avant tout calcul (BCrypt, signature)
+ *
+ * 1. Pré-filtre local par IP (seau à jetons) : une rafale est refusée sans appel Redis
+ * 2. Limites partagées (fenêtre glissante, un script Redis) : par IP, et par email
+ *    (login, inscription) ou par temporaryToken (challenge, authentification),
+ *    lus dans le corps JSON de la requête
+ *
+ * Réponse 429 avec Retry-After (secondes).
+ * Profil "reactive" : mêmes limites appliquées par ReactiveAuthHandler.
+ */
+@Component
+@Profile("!reactive")
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final LocalRateLimiter localRateLimiter;
+    private final SlidingWindowRateLimiter slidingWindowRateLimiter;
+    private final AuthMetrics authMetrics;
+    private final AuthEventLogger authEvents;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public RateLimitFilter(
+            LocalRateLimiter localRateLimiter,
+            SlidingWindowRateLimiter slidingWindowRateLimiter,
+            AuthMetrics authMetrics,
+            AuthEventLogger authEvents,
+            ObjectMapper objectMapper,
+            @Value("${auth.rate-limit.enabled:true}") boolean enabled
+    ) {
+        this.localRateLimiter = localRateLimiter;
+        this.slidingWindowRateLimiter = slidingWindowRateLimiter;
+        this.authMetrics = authMetrics;
+        this.authEvents = authEvents;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !path(request).startsWith("/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String clientIp = request.getRemoteAddr();
+
+        long wait = localRateLimiter.tryAcquire(clientIp);
+        if (wait > 0) {
+            reject(response, new RateLimitRejection(RateLimitScope.LOCAL, wait), clientIp);
+            return;
+        }
+
+        List<RateLimitKey> keys = new ArrayList<>(2);
+        keys.add(new RateLimitKey(RateLimitScope.IP, clientIp));
+
+        HttpServletRequest next = request;
+        RateLimitScope bodyScope = bodyScope(request);
+        if (bodyScope != null) {
+            // Corps lu une fois ici, relu par le contrôleur depuis la copie
+            CachedBodyRequest cached = new CachedBodyRequest(request);
+            keys.add(new RateLimitKey(bodyScope, bodyKey(cached.body, bodyScope)));
+            next = cached;
+        }
+
+        Optional<RateLimitRejection> rejection = slidingWindowRateLimiter.tryAcquire(keys);
+        if (rejection.isPresent()) {
+            reject(response, rejection.get(), clientIp);
+            return;
+        }
+
+        filterChain.doFilter(next, response);
+    }
+
+    // Limite portant sur une valeur du corps, selon l'endpoint
+    private static RateLimitScope bodyScope(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return null;
+        }
+        return switch (path(request)) {
+            case "/auth/login", "/auth/register" -> RateLimitScope.EMAIL;
+            case "/auth/challenge", "/auth/authenticate" -> RateLimitScope.TEMPORARY_TOKEN;
+            default -> null;
+        };
+    }
+
+    /**
+     * @return La valeur limitée, ou null si le corps ne la contient pas (le contrôleur répondra 400)
+     */
+    private String bodyKey(byte[] body, RateLimitScope scope) {
+        JsonNode value;
+        try {
+            value = objectMapper.readTree(body).get(scope == RateLimitScope.EMAIL ? "email" : "temporaryToken");
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+        if (value == null || !value.isTextual()) {
+            return null;
+        }
+        // Le login ne tient pas compte de la casse de l'email
+        return scope == RateLimitScope.EMAIL ? value.asText().toLowerCase(Locale.ROOT) : value.asText();
+    }
+
+    private void reject(HttpServletResponse response, RateLimitRejection rejection, String clientIp)
+            throws IOException {
+        authMetrics.rateLimited(rejection.scope());
+        authEvents.record(AuthEvent.RATE_LIMITED, clientIp, rejection.scope().tag());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(rejection.retryAfterSeconds()));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests, retry later");
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Requête dont le corps a été lu en mémoire et peut être relu
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset()));
+        }
+
+        private Charset charset() {
+            String encoding = getCharacterEncoding();
+            return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        }
+    }
+}
@@ -3,13 +3,19 @@ package com.indentity.identity_app.filter;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.indentity.identity_app.entity.Role;
 import com.indentity.identity_app.entity.User;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.AuthStage;
+import com.indentity.identity_app.repository.RoleView;
 import com.indentity.identity_app.repository.UserRepository;
 import com.indentity.identity_app.service.JwtService;
+import com.indentity.identity_app.service.UserLookup;
+import com.indentity.identity_app.service.VerifiedClaims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,12 +25,30 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.List;
 
+// Profil "reactive" : TokenAuthenticationWebFilter
 @Component
-@RequiredArgsConstructor
+@Profile("!reactive")
 public class TokenAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserRepository userRepository;
+    private final UserLookup userLookup;
+    private final PrincipalMode principalMode;
+    private final AuthMetrics authMetrics;
+
+    public TokenAuthenticationFilter(
+            JwtService jwtService,
+            UserRepository userRepository,
+            UserLookup userLookup,
+            AuthMetrics authMetrics,
+            @Value("${auth.principal-mode:DATABASE}") PrincipalMode principalMode
+    ) {
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+        this.userLookup = userLookup;
+        this.principalMode = principalMode;
+        this.authMetrics = authMetrics;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -36,13 +60,12 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             try {
-                // Valider et extraire les informations du JWT
-                String email = jwtService.getEmailFromToken(token);
-                Role role = jwtService.getRoleFromToken(token);
+                // Valider le JWT une seule fois et extraire ses claims
+                VerifiedClaims claims = jwtService.verify(token);
+                Role role = claims.getRole();
 
-                // Récupérer l'utilisateur depuis la base de données
-                User user = userRepository.findByEmail(email)
-                        .orElseThrow(() -> new RuntimeException("User not found"));
+                // Construire le principal selon le mode configuré
+                User user = resolvePrincipal(claims.getEmail(), role);
 
                 // Définir l'utilisateur dans le SecurityContext
                 UsernamePasswordAuthenticationToken authentication =
@@ -67,4 +90,43 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Construit le principal authentifié à partir des claims déjà vérifiés
+     *
+     * @param email Le subject du JWT
+     * @param role Le rôle porté par le JWT
+     * @return L'utilisateur à placer dans le SecurityContext
+     */
+    private User resolvePrincipal(String email, Role role) {
+        return switch (principalMode) {
+            // Aucun accès base : le JWT signé fait foi jusqu'à son expiration
+            case CLAIMS -> User.builder()
+                    .email(email)
+                    .role(role)
+                    .build();
+            case SNAPSHOT -> toPrincipal(userLookup.role(email)
+                    .orElseThrow(() -> new RuntimeException("User not found")));
+            case DATABASE -> findUser(email);
+        };
+    }
+
+    private User findUser(String email) {
+        long start = authMetrics.start();
+        try {
+            // Projection (id, email, role) : l'utilisateur existe toujours et son rôle est à jour
+            return toPrincipal(userRepository.findRoleByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User not found")));
+        } finally {
+            authMetrics.record(AuthStage.USER_LOOKUP, start);
+        }
+    }
+
+    private static User toPrincipal(RoleView view) {
+        return User.builder()
+                .id(view.id())
+                .email(view.email())
+                .role(view.role())
+                .build();
+    }
 }
@@ -0,0 +1,126 @@
+package com.indentity.identity_app.filter;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.entity.User;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.AuthStage;
+import com.indentity.identity_app.repository.ReactiveUserRepository;
+import com.indentity.identity_app.repository.RoleView;
+import com.indentity.identity_app.service.JwtService;
+import com.indentity.identity_app.service.UserLookup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * TokenAuthenticationFilter pour la pile réactive (profil "reactive")
+ *
+ * La vérification du JWT (signature RSA/ECDSA si absent du cache) s'exécute
+ * sur le scheduler crypto borné, jamais sur une boucle d'événements Netty.
+ * Le principal est construit selon le même PrincipalMode ; DATABASE passe par R2DBC.
+ *
+ * Pas un bean : ajouté une seule fois, dans la chaîne Spring Security
+ * (WebFlux ajouterait sinon tout WebFilter du contexte à chaque requête).
+ */
+public class TokenAuthenticationWebFilter implements WebFilter {
+
+    private final JwtService jwtService;
+    private final ReactiveUserRepository userRepository;
+    private final UserLookup userLookup;
+    private final AuthMetrics authMetrics;
+    private final PrincipalMode principalMode;
+    private final Scheduler cryptoScheduler;
+
+    public TokenAuthenticationWebFilter(
+            JwtService jwtService,
+            ReactiveUserRepository userRepository,
+            UserLookup userLookup,
+            AuthMetrics authMetrics,
+            PrincipalMode principalMode,
+            Scheduler cryptoScheduler
+    ) {
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+        this.userLookup = userLookup;
+        this.authMetrics = authMetrics;
+        this.principalMode = principalMode;
+        this.cryptoScheduler = cryptoScheduler;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+        String token = authHeader.substring(7);
+
+        // Erreurs de la vérification seulement : celles de la suite de la chaîne ne sont pas des 401
+        return authenticate(token)
+                .onErrorResume(e -> unauthorized(exchange.getResponse(),
+                        e instanceof JWTVerificationException ? "Invalid or expired token" : e.getMessage())
+                        .then(Mono.empty()))
+                .flatMap(authentication -> chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication)));
+    }
+
+    private Mono<Authentication> authenticate(String token) {
+        return Mono.fromCallable(() -> jwtService.verify(token))
+                .subscribeOn(cryptoScheduler)
+                .flatMap(claims -> resolvePrincipal(claims.getEmail(), claims.getRole())
+                        .switchIfEmpty(Mono.error(() -> new RuntimeException("User not found")))
+                        .map(user -> new UsernamePasswordAuthenticationToken(
+                                user,
+                                null,
+                                List.of(new SimpleGrantedAuthority("ROLE_" + claims.getRole().name()))
+                        )));
+    }
+
+    /**
+     * @see TokenAuthenticationFilter
+     * @return Le principal, ou vide si l'utilisateur n'existe plus
+     */
+    private Mono<User> resolvePrincipal(String email, Role role) {
+        return switch (principalMode) {
+            case CLAIMS -> Mono.just(User.builder()
+                    .email(email)
+                    .role(role)
+                    .build());
+            // Instantané en cache local le plus souvent ; un défaut peut lire Redis ou la base (bloquant)
+            case SNAPSHOT -> Mono.fromCallable(() -> userLookup.role(email).orElse(null))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .map(TokenAuthenticationWebFilter::toPrincipal);
+            case DATABASE -> authMetrics.timed(AuthStage.USER_LOOKUP, userRepository.findRoleByEmail(email))
+                    .map(TokenAuthenticationWebFilter::toPrincipal);
+        };
+    }
+
+    private static User toPrincipal(RoleView view) {
+        return User.builder()
+                .id(view.id())
+                .email(view.email())
+                .role(view.role())
+                .build();
+    }
+
+    private static Mono<Void> unauthorized(ServerHttpResponse response, String message) {
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        DataBuffer body = response.bufferFactory().wrap(String.valueOf(message).getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+}
@@ -0,0 +1,28 @@
+package com.indentity.identity_app.jwt;
+
+/**
+ * Algorithmes de signature des JWT émis
+ *
+ * HS256 : secret partagé (jwt.secret), aucune clé publiée dans le JWKS
+ * RS256 / ES256 : paires de clés tournantes, clés publiques publiées dans le JWKS
+ */
+public enum JwtAlgorithm {
+    HS256(null),
+    RS256("RSA"),
+    ES256("EC");
+
+    // Algorithme JCA des clés (null : HMAC)
+    private final String keyAlgorithm;
+
+    JwtAlgorithm(String keyAlgorithm) {
+        this.keyAlgorithm = keyAlgorithm;
+    }
+
+    public String keyAlgorithm() {
+        return keyAlgorithm;
+    }
+
+    public boolean isAsymmetric() {
+        return keyAlgorithm != null;
+    }
+}
@@ -0,0 +1,449 @@
+package com.indentity.identity_app.jwt;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.ECDSAKeyProvider;
+import com.auth0.jwt.interfaces.RSAKeyProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Trousseau des clés de signature des JWT, avec rotation sans interruption
+ *
+ * Cycle de vie d'une clé (RS256 / ES256) :
+ * 1. générée quand la plus récente dépasse jwt.keys.rotation-period, et
+ *    publiée aussitôt dans le JWKS
+ * 2. active (signe les nouveaux tokens) après jwt.jwks.max-age : les caches
+ *    JWKS des services en aval la connaissent avant de voir un token signé avec
+ * 3. retirée quand tous les tokens qu'elle a signés ont expiré
+ * Les clés publiées restent en mémoire : la vérification choisit la clé par kid.
+ *
+ * Les clés sont écrites dans jwt.keys.dir (PKCS#8 + SPKI en PEM) et relues à
+ * chaque vérification périodique : les instances qui partagent le répertoire
+ * signent et publient les mêmes clés. Un kid inconnu provoque une relecture
+ * immédiate (au plus une par seconde). Le répertoire est obligatoire en
+ * RS256 / ES256 : des clés propres à chaque instance rejetteraient les tokens
+ * signés par les autres.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    private static final String FILE_PREFIX = "jwt-";
+    private static final String FILE_SUFFIX = ".pem";
+    private static final long UNKNOWN_KID_RELOAD_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final Pattern PEM_BLOCK =
+            Pattern.compile("-----BEGIN ([A-Z ]+)-----([A-Za-z0-9+/=\\s]+)-----END \\1-----");
+
+    private final JwtAlgorithm type;
+    private final Algorithm verificationAlgorithm;
+    // null en HS256 seulement
+    private final Path keysDir;
+    private final Duration rotationPeriod;
+    private final int rsaKeySize;
+    private final Duration jwksMaxAge;
+    // Durée pendant laquelle une clé remplacée reste publiée
+    private final Duration retention;
+
+    private volatile KeySet keySet;
+    // Dernière relecture provoquée par un kid inconnu (System.nanoTime)
+    private final AtomicLong lastUnknownKidReload = new AtomicLong(System.nanoTime() - UNKNOWN_KID_RELOAD_INTERVAL_NANOS);
+
+    public JwtKeyRing(
+            @Value("${jwt.algorithm:RS256}") JwtAlgorithm type,
+            @Value("${jwt.secret:}") String secret,
+            @Value("${jwt.keys.dir:}") String keysDir,
+            @Value("${jwt.keys.rotation-period:7d}") Duration rotationPeriod,
+            @Value("${jwt.keys.rsa-size:2048}") int rsaKeySize,
+            @Value("${jwt.jwks.max-age:15m}") Duration jwksMaxAge,
+            @Value("${jwt.expiration-ms}") long tokenLifetimeMs
+    ) {
+        this.type = type;
+        this.keysDir = keysDir == null || keysDir.isBlank() ? null : Path.of(keysDir);
+        this.rotationPeriod = rotationPeriod;
+        this.rsaKeySize = rsaKeySize;
+        this.jwksMaxAge = jwksMaxAge;
+        this.retention = Duration.ofMillis(tokenLifetimeMs).plus(jwksMaxAge);
+        if (type.isAsymmetric() && this.keysDir == null) {
+            throw new IllegalStateException("jwt.keys.dir is required when jwt.algorithm=" + type
+                    + " (keys must be shared by all instances)");
+        }
+
+        switch (type) {
+            case HS256 -> {
+                if (secret == null || secret.isBlank()) {
+                    throw new IllegalStateException("jwt.secret is required when jwt.algorithm=HS256");
+                }
+                SigningKey key = SigningKey.hmac(secret);
+                this.verificationAlgorithm = key.algorithm();
+                this.keySet = new KeySet(List.of(), key, Map.of(), new JwkSet(List.of(), "\"hs256\""));
+            }
+            case RS256 -> {
+                this.verificationAlgorithm = Algorithm.RSA256(new RsaVerificationKeys());
+                this.keySet = KeySet.EMPTY;
+                refresh();
+            }
+            case ES256 -> {
+                this.verificationAlgorithm = Algorithm.ECDSA256(new EcVerificationKeys());
+                this.keySet = KeySet.EMPTY;
+                refresh();
+            }
+            default -> throw new IllegalStateException("Unsupported JWT algorithm: " + type);
+        }
+    }
+
+    /**
+     * Clé qui signe les nouveaux tokens (kid et signature toujours cohérents)
+     */
+    public SigningKey signingKey() {
+        return keySet.active();
+    }
+
+    /**
+     * Algorithme de vérification : résout la clé publique d'après le kid du token
+     */
+    public Algorithm verificationAlgorithm() {
+        return verificationAlgorithm;
+    }
+
+    /**
+     * Clés publiques publiées (actives, à venir et en retrait), avec leur ETag
+     */
+    public JwkSet jwkSet() {
+        return keySet.jwkSet();
+    }
+
+    public Duration jwksMaxAge() {
+        return jwksMaxAge;
+    }
+
+    /**
+     * Relit le répertoire partagé, génère une clé si la rotation est due,
+     * retire les clés expirées et choisit la clé active
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.check-interval-ms:60000}")
+    public synchronized void refresh() {
+        if (!type.isAsymmetric()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<SigningKey> keys = new ArrayList<>(keySet.keys());
+        if (keysDir != null) {
+            // Clés créées par les autres instances (celles connues ici sont gardées même si
+            // leur écriture a échoué : pas de nouvelle clé à chaque passage)
+            for (SigningKey key : load()) {
+                if (keySet.find(key.kid()) == null) {
+                    keys.add(key);
+                }
+            }
+        }
+
+        SigningKey newest = keys.stream().max(KEY_ORDER).orElse(null);
+        if (newest == null || !newest.createdAt().plus(rotationPeriod).isAfter(now)) {
+            keys.add(create(now));
+        }
+        install(keys, now);
+    }
+
+    /**
+     * Rotation manuelle : publie une nouvelle clé, qui signera après jwt.jwks.max-age
+     *
+     * @return La nouvelle clé
+     */
+    public synchronized SigningKey rotate() {
+        if (!type.isAsymmetric()) {
+            throw new IllegalStateException("Key rotation requires RS256 or ES256");
+        }
+        Instant now = Instant.now();
+        List<SigningKey> keys = new ArrayList<>(keySet.keys());
+        SigningKey key = create(now);
+        keys.add(key);
+        install(keys, now);
+        return key;
+    }
+
+    /**
+     * Clé de vérification d'un kid, après une relecture du répertoire s'il est inconnu
+     * (clé créée par une autre instance depuis la dernière vérification périodique)
+     */
+    private SigningKey verificationKey(String kid) {
+        SigningKey key = keySet.find(kid);
+        if (key != null || kid == null || keysDir == null) {
+            return key;
+        }
+        // Au plus une relecture par intervalle : des kids forgés ne font pas lire le disque à chaque requête
+        long now = System.nanoTime();
+        long last = lastUnknownKidReload.get();
+        if (now - last < UNKNOWN_KID_RELOAD_INTERVAL_NANOS || !lastUnknownKidReload.compareAndSet(last, now)) {
+            return null;
+        }
+        refresh();
+        return keySet.find(kid);
+    }
+
+    private void install(List<SigningKey> keys, Instant now) {
+        keys.sort(KEY_ORDER);
+
+        // Active : la plus récente déjà publiée depuis max-age (la première clé signe tout de suite)
+        int activeIndex = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (!keys.get(i).createdAt().plus(jwksMaxAge).isAfter(now)) {
+                activeIndex = i;
+            }
+        }
+
+        // Une clé remplacée reste publiée le temps que ses tokens expirent
+        List<SigningKey> kept = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            SigningKey key = keys.get(i);
+            if (i < activeIndex) {
+                Instant replacedAt = keys.get(i + 1).createdAt().plus(jwksMaxAge);
+                if (replacedAt.plus(retention).isBefore(now)) {
+                    log.info("Clé de signature JWT {} retirée", key.kid());
+                    delete(key);
+                    continue;
+                }
+            }
+            kept.add(key);
+        }
+
+        SigningKey active = keys.get(activeIndex);
+        KeySet previous = keySet;
+        keySet = KeySet.of(kept, active);
+        if (previous.active() == null || !active.kid().equals(previous.active().kid())) {
+            log.info("Clé de signature JWT active : {} ({})", active.kid(), type);
+        }
+    }
+
+    private SigningKey create(Instant now) {
+        // Précision du nom de fichier : la clé relue sur disque est identique
+        SigningKey key = SigningKey.of(type, now.truncatedTo(ChronoUnit.MILLIS), generate());
+        log.info("Nouvelle clé de signature JWT {} publiée ({})", key.kid(), type);
+        if (keysDir != null) {
+            try {
+                write(key);
+            } catch (IOException e) {
+                // La clé reste utilisable, mais ne survivra pas à un redémarrage
+                log.error("Écriture de la clé JWT {} dans {} impossible: {}", key.kid(), keysDir, e.getMessage());
+            }
+        }
+        return key;
+    }
+
+    private KeyPair generate() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(type.keyAlgorithm());
+            if (type == JwtAlgorithm.ES256) {
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            } else {
+                generator.initialize(rsaKeySize);
+            }
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot generate " + type + " key", e);
+        }
+    }
+
+    private List<SigningKey> load() {
+        List<SigningKey> keys = new ArrayList<>();
+        if (!Files.isDirectory(keysDir)) {
+            return keys;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(keysDir, filePrefix() + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    keys.add(read(file));
+                } catch (IOException | GeneralSecurityException | RuntimeException e) {
+                    log.warn("Clé JWT illisible {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            // Répertoire momentanément inaccessible : on garde les clés connues
+            log.warn("Lecture des clés JWT dans {} impossible: {}", keysDir, e.getMessage());
+        }
+        return keys;
+    }
+
+    // Nom : jwt-<alg>-<création en millisecondes epoch>-<kid>.pem
+    private SigningKey read(Path file) throws IOException, GeneralSecurityException {
+        String name = file.getFileName().toString();
+        String rest = name.substring(filePrefix().length(), name.length() - FILE_SUFFIX.length());
+        Instant createdAt = Instant.ofEpochMilli(Long.parseLong(rest.substring(0, rest.indexOf('-'))));
+
+        Map<String, byte[]> blocks = new HashMap<>();
+        Matcher matcher = PEM_BLOCK.matcher(Files.readString(file, StandardCharsets.US_ASCII));
+        while (matcher.find()) {
+            blocks.put(matcher.group(1), Base64.getMimeDecoder().decode(matcher.group(2)));
+        }
+        if (!blocks.containsKey("PRIVATE KEY") || !blocks.containsKey("PUBLIC KEY")) {
+            throw new IllegalArgumentException("expected PRIVATE KEY and PUBLIC KEY blocks");
+        }
+
+        KeyFactory keyFactory = KeyFactory.getInstance(type.keyAlgorithm());
+        KeyPair keyPair = new KeyPair(
+                keyFactory.generatePublic(new X509EncodedKeySpec(blocks.get("PUBLIC KEY"))),
+                keyFactory.generatePrivate(new PKCS8EncodedKeySpec(blocks.get("PRIVATE KEY")))
+        );
+        return SigningKey.of(type, createdAt, keyPair);
+    }
+
+    private void write(SigningKey key) throws IOException {
+        Files.createDirectories(keysDir);
+        String pem = pem("PRIVATE KEY", key.privateKey().getEncoded())
+                + pem("PUBLIC KEY", key.publicKey().getEncoded());
+
+        // Fichier temporaire lisible par le seul propriétaire, puis renommage atomique
+        Path tmp = FileSystems.getDefault().supportedFileAttributeViews().contains("posix")
+                ? Files.createTempFile(keysDir, ".jwt-", ".tmp",
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")))
+                : Files.createTempFile(keysDir, ".jwt-", ".tmp");
+        try {
+            Files.writeString(tmp, pem, StandardCharsets.US_ASCII);
+            Files.move(tmp, file(key), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void delete(SigningKey key) {
+        if (keysDir == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException e) {
+            log.warn("Suppression de la clé JWT {} impossible: {}", key.kid(), e.getMessage());
+        }
+    }
+
+    private Path file(SigningKey key) {
+        return keysDir.resolve(filePrefix() + key.createdAt().toEpochMilli() + "-" + key.kid() + FILE_SUFFIX);
+    }
+
+    private String filePrefix() {
+        return FILE_PREFIX + type.name().toLowerCase(Locale.ROOT) + "-";
+    }
+
+    private static String pem(String label, byte[] der) {
+        return "-----BEGIN " + label + "-----\n"
+                + Base64.getMimeEncoder(64, new byte[]{'\n'}).encodeToString(der)
+                + "\n-----END " + label + "-----\n";
+    }
+
+    private static final Comparator<SigningKey> KEY_ORDER =
+            Comparator.comparing(SigningKey::createdAt).thenComparing(SigningKey::kid);
+
+    /**
+     * Clés publiques au format JWK et ETag du jeu de clés
+     */
+    public record JwkSet(List<Map<String, Object>> keys, String etag) {
+    }
+
+    /**
+     * État immuable du trousseau, remplacé en bloc à chaque changement
+     */
+    private record KeySet(List<SigningKey> keys, SigningKey active, Map<String, SigningKey> byKid, JwkSet jwkSet) {
+
+        static final KeySet EMPTY = new KeySet(List.of(), null, Map.of(), new JwkSet(List.of(), "\"empty\""));
+
+        static KeySet of(List<SigningKey> keys, SigningKey active) {
+            Map<String, SigningKey> byKid = new HashMap<>();
+            List<Map<String, Object>> jwks = new ArrayList<>(keys.size());
+            StringBuilder kids = new StringBuilder();
+            for (SigningKey key : keys) {
+                byKid.put(key.kid(), key);
+                jwks.add(key.jwk());
+                kids.append(key.kid()).append(',');
+            }
+            return new KeySet(List.copyOf(keys), active, Map.copyOf(byKid), new JwkSet(List.copyOf(jwks), etag(kids)));
+        }
+
+        private static String etag(CharSequence kids) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256")
+                        .digest(kids.toString().getBytes(StandardCharsets.US_ASCII));
+                return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("SHA-256 unavailable", e);
+            }
+        }
+
+        SigningKey find(String kid) {
+            return kid != null ? byKid.get(kid) : null;
+        }
+    }
+
+    // Vérification seulement : la signature passe par SigningKey.algorithm()
+    private final class RsaVerificationKeys implements RSAKeyProvider {
+
+        @Override
+        public RSAPublicKey getPublicKeyById(String keyId) {
+            SigningKey key = verificationKey(keyId);
+            return key != null ? (RSAPublicKey) key.publicKey() : null;
+        }
+
+        @Override
+        public RSAPrivateKey getPrivateKey() {
+            return null;
+        }
+
+        @Override
+        public String getPrivateKeyId() {
+            return null;
+        }
+    }
+
+    private final class EcVerificationKeys implements ECDSAKeyProvider {
+
+        @Override
+        public ECPublicKey getPublicKeyById(String keyId) {
+            SigningKey key = verificationKey(keyId);
+            return key != null ? (ECPublicKey) key.publicKey() : null;
+        }
+
+        @Override
+        public ECPrivateKey getPrivateKey() {
+            return null;
+        }
+
+        @Override
+        public String getPrivateKeyId() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.indentity.identity_app.jwt;
+
+import com.auth0.jwt.algorithms.Algorithm;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Clé de signature des JWT, immuable
+ *
+ * kid = empreinte JWK (RFC 7638) de la clé publique : stable, identique sur
+ * toutes les instances qui partagent la clé. "algorithm" signe avec cette clé
+ * uniquement, ce qui garantit que le kid du header correspond à la signature.
+ */
+public record SigningKey(
+        String kid,
+        Instant createdAt,
+        PublicKey publicKey,
+        PrivateKey privateKey,
+        Algorithm algorithm,
+        Map<String, Object> jwk
+) {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    // Taille des coordonnées d'un point P-256
+    private static final int P256_COORDINATE_SIZE = 32;
+
+    /**
+     * Clé HMAC : pas de kid, rien à publier
+     */
+    public static SigningKey hmac(String secret) {
+        return new SigningKey(null, null, null, null, Algorithm.HMAC256(secret), null);
+    }
+
+    /**
+     * Clé asymétrique, avec son kid et sa représentation JWK
+     *
+     * @param type RS256 ou ES256
+     * @param createdAt Date de création (détermine activation et retrait)
+     * @param keyPair La paire de clés
+     */
+    public static SigningKey of(JwtAlgorithm type, Instant createdAt, KeyPair keyPair) {
+        Map<String, Object> members = new LinkedHashMap<>();
+        Algorithm algorithm;
+        switch (type) {
+            case RS256 -> {
+                RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+                // Ordre lexicographique exigé par le calcul d'empreinte
+                members.put("e", base64Url(publicKey.getPublicExponent()));
+                members.put("kty", "RSA");
+                members.put("n", base64Url(publicKey.getModulus()));
+                algorithm = Algorithm.RSA256(publicKey, (RSAPrivateKey) keyPair.getPrivate());
+            }
+            case ES256 -> {
+                ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+                members.put("crv", "P-256");
+                members.put("kty", "EC");
+                members.put("x", base64Url(publicKey.getW().getAffineX(), P256_COORDINATE_SIZE));
+                members.put("y", base64Url(publicKey.getW().getAffineY(), P256_COORDINATE_SIZE));
+                algorithm = Algorithm.ECDSA256(publicKey, (ECPrivateKey) keyPair.getPrivate());
+            }
+            default -> throw new IllegalArgumentException("Not an asymmetric algorithm: " + type);
+        }
+
+        String kid = thumbprint(members);
+        Map<String, Object> jwk = new LinkedHashMap<>(members);
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", type.name());
+
+        return new SigningKey(kid, createdAt, keyPair.getPublic(), keyPair.getPrivate(), algorithm,
+                Collections.unmodifiableMap(jwk));
+    }
+
+    private static String thumbprint(Map<String, Object> members) {
+        StringBuilder json = new StringBuilder("{");
+        members.forEach((name, value) -> {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(name).append("\":\"").append(value).append('"');
+        });
+        json.append('}');
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(json.toString().getBytes(StandardCharsets.UTF_8));
+            return BASE64URL.encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // Entier non signé : retirer l'octet de signe éventuel
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return BASE64URL.encodeToString(bytes);
+    }
+
+    private static String base64Url(BigInteger value, int size) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[size];
+        // Coordonnée sur exactement "size" octets (zéros à gauche, sans octet de signe)
+        int length = Math.min(bytes.length, size);
+        System.arraycopy(bytes, bytes.length - length, fixed, size - length, length);
+        return BASE64URL.encodeToString(fixed);
+    }
+}
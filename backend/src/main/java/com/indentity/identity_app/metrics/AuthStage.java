@@ -0,0 +1,24 @@
+package com.indentity.identity_app.metrics;
+
+import java.util.Locale;
+
+/**
+ * Étapes chronométrées du parcours d'authentification (tag "stage" de auth.stage.duration)
+ */
+public enum AuthStage {
+    PASSWORD_CHECK,
+    CHALLENGE_ISSUE,
+    SIGNATURE_VERIFY,
+    JWT_SIGN,
+    JWT_VERIFY,
+    USER_LOOKUP,
+    BATCH_CHALLENGE_ISSUE,
+    BATCH_AUTHENTICATE,
+    TOKEN_REFRESH;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,31 @@
+package com.indentity.identity_app.metrics;
+
+import java.util.Locale;
+
+/**
+ * Opérations Redis chronométrées (tag "op" de auth.redis.duration)
+ */
+public enum RedisOperation {
+    PUT,
+    GET,
+    CONSUME,
+    CONSUME_IF_MATCHES,
+    CONSUME_WITH_LINKED,
+    PUT_ALL,
+    GET_ALL,
+    CONSUME_ALL_PAIR_OR_LINKED,
+    PUT_PAIR,
+    CONSUME_PAIR_OR_LINKED,
+    REFRESH_CREATE,
+    REFRESH_CREATE_ALL,
+    REFRESH_ROTATE,
+    REFRESH_REVOKE,
+    RATE_LIMIT,
+    RECENT_EMAIL;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,75 @@
+package com.indentity.identity_app.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Pré-filtre de l'instance : un seau à jetons par IP, en mémoire
+ *
+ * Réglé bien au-dessus des limites Redis, il ne sert qu'à écarter les rafales
+ * manifestes sans aller-retour réseau. Le nombre d'IP suivies est borné ;
+ * un seau inactif est oublié (il serait plein de toute façon).
+ */
+@Component
+public class LocalRateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+    private final double capacity;
+    private final double tokensPerNano;
+
+    public LocalRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${auth.rate-limit.local.capacity:50}") int capacity,
+            @Value("${auth.rate-limit.local.refill-per-second:20}") int refillPerSecond,
+            @Value("${auth.rate-limit.local.max-clients:100000}") long maxClients
+    ) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1e9;
+        // Temps de remplissage complet : au-delà, un seau oublié équivaut à un seau plein
+        Duration idle = Duration.ofSeconds(Math.max(1, (capacity + refillPerSecond - 1) / Math.max(1, refillPerSecond)));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idle)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets");
+    }
+
+    /**
+     * Prend un jeton dans le seau du client
+     *
+     * @param clientIp L'IP du client
+     * @return 0 si la requête est admise, sinon l'attente en ms avant le prochain jeton
+     */
+    public long tryAcquire(String clientIp) {
+        return buckets.get(clientIp, ip -> new TokenBucket(capacity)).tryConsume(capacity, tokensPerNano);
+    }
+
+    private static final class TokenBucket {
+
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private TokenBucket(double tokens) {
+            this.tokens = tokens;
+        }
+
+        // Verrou par IP : pas de contention entre clients différents
+        synchronized long tryConsume(double capacity, double tokensPerNano) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano / 1_000_000));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.indentity.identity_app.ratelimit;
+
+/**
+ * Compteur à incrémenter pour une requête : une portée et sa valeur (IP, email, token)
+ */
+public record RateLimitKey(RateLimitScope scope, String value) {
+}
@@ -0,0 +1,14 @@
+package com.indentity.identity_app.ratelimit;
+
+/**
+ * Requête refusée : la limite dépassée et l'attente avant qu'elle soit admise
+ */
+public record RateLimitRejection(RateLimitScope scope, long retryAfterMs) {
+
+    /**
+     * @return La valeur du header Retry-After (secondes, arrondi au-dessus)
+     */
+    public long retryAfterSeconds() {
+        return Math.max(1, (retryAfterMs + 999) / 1000);
+    }
+}
@@ -0,0 +1,20 @@
+package com.indentity.identity_app.ratelimit;
+
+import java.util.Locale;
+
+/**
+ * Portée d'une limite de débit (tag "scope" du compteur auth.rate-limit.rejected)
+ * LOCAL : pré-filtre de l'instance ; les autres limites sont partagées dans Redis.
+ */
+public enum RateLimitScope {
+    LOCAL,
+    IP,
+    EMAIL,
+    TEMPORARY_TOKEN;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    public String tag() {
+        return tag;
+    }
+}
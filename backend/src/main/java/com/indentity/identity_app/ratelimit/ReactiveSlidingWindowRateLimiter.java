@@ -0,0 +1,58 @@
+package com.indentity.identity_app.ratelimit;
+
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.RedisOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * SlidingWindowRateLimiter pour la pile réactive (profil "reactive")
+ *
+ * Mêmes clés, même script et même comportement si Redis est indisponible
+ * (requête admise) : instances servlet et réactives partagent les compteurs.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveSlidingWindowRateLimiter {
+
+    private final SlidingWindowRateLimiter limits;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final AuthMetrics authMetrics;
+
+    public ReactiveSlidingWindowRateLimiter(
+            SlidingWindowRateLimiter limits,
+            ReactiveStringRedisTemplate redisTemplate,
+            AuthMetrics authMetrics
+    ) {
+        this.limits = limits;
+        this.redisTemplate = redisTemplate;
+        this.authMetrics = authMetrics;
+    }
+
+    /**
+     * @see SlidingWindowRateLimiter#tryAcquire(List)
+     * @return La première limite dépassée, ou Optional vide si la requête est admise
+     */
+    public Mono<Optional<RateLimitRejection>> tryAcquire(List<RateLimitKey> keys) {
+        SlidingWindowRateLimiter.Invocation invocation = limits.prepare(keys);
+        if (invocation == null) {
+            return Mono.just(Optional.empty());
+        }
+        Mono<List<?>> result = redisTemplate
+                .execute(SlidingWindowRateLimiter.SLIDING_WINDOW, invocation.keys(), Arrays.asList(invocation.args()))
+                .<List<?>>map(list -> list)
+                .next();
+        return authMetrics.timed(RedisOperation.RATE_LIMIT, result)
+                .map(list -> limits.interpret(invocation, list))
+                .onErrorResume(RuntimeException.class, e -> {
+                    limits.failed(e);
+                    return Mono.just(Optional.empty());
+                });
+    }
+}
@@ -0,0 +1,136 @@
+package com.indentity.identity_app.ratelimit;
+
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.RedisOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Limites de débit partagées par toutes les instances (fenêtre glissante dans Redis)
+ *
+ * Toutes les limites d'une requête (IP, email, token) sont vérifiées et comptées
+ * par un seul script Lua : un aller-retour Redis, et une requête refusée par une
+ * limite n'est comptée dans aucune autre. Deux compteurs par clé et par fenêtre,
+ * quelle que soit la charge (pas de journal des requêtes).
+ *
+ * Redis indisponible : la requête est admise (le pré-filtre local protège encore
+ * l'instance), l'erreur est comptée dans auth.rate-limit.errors.
+ */
+@Component
+@Slf4j
+public class SlidingWindowRateLimiter {
+
+    private static final String KEY_PREFIX = "rate:";
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> SLIDING_WINDOW =
+            RedisScript.of(new ClassPathResource("scripts/sliding_window.lua"), List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final AuthMetrics authMetrics;
+    private final long windowMs;
+    // Maximum par fenêtre, indexé par ordinal de RateLimitScope (0 : pas de limite)
+    private final long[] maxima = new long[RateLimitScope.values().length];
+    private final Counter errors;
+
+    public SlidingWindowRateLimiter(
+            RedisTemplate<String, String> redisTemplate,
+            AuthMetrics authMetrics,
+            MeterRegistry meterRegistry,
+            @Value("${auth.rate-limit.window:1m}") Duration window,
+            @Value("${auth.rate-limit.per-ip:120}") long perIp,
+            @Value("${auth.rate-limit.per-email:10}") long perEmail,
+            @Value("${auth.rate-limit.per-temporary-token:5}") long perTemporaryToken
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.authMetrics = authMetrics;
+        this.windowMs = window.toMillis();
+        maxima[RateLimitScope.IP.ordinal()] = perIp;
+        maxima[RateLimitScope.EMAIL.ordinal()] = perEmail;
+        maxima[RateLimitScope.TEMPORARY_TOKEN.ordinal()] = perTemporaryToken;
+        this.errors = Counter.builder("auth.rate-limit.errors")
+                .description("Vérifications de limite impossibles (Redis), requêtes admises")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Compte une requête dans chacune de ses limites, si aucune n'est atteinte
+     *
+     * @param keys Les compteurs de la requête
+     * @return La première limite dépassée, ou vide si la requête est admise
+     */
+    public Optional<RateLimitRejection> tryAcquire(List<RateLimitKey> keys) {
+        Invocation invocation = prepare(keys);
+        if (invocation == null) {
+            return Optional.empty();
+        }
+
+        List<?> result;
+        long start = authMetrics.start();
+        try {
+            result = redisTemplate.execute(SLIDING_WINDOW, invocation.keys(), invocation.args());
+        } catch (RuntimeException e) {
+            failed(e);
+            return Optional.empty();
+        } finally {
+            authMetrics.record(RedisOperation.RATE_LIMIT, start);
+        }
+        return interpret(invocation, result);
+    }
+
+    // Étapes partagées avec ReactiveSlidingWindowRateLimiter (même script, mêmes clés)
+
+    /**
+     * @return Les clés et arguments du script, ou null si aucune limite ne s'applique
+     */
+    Invocation prepare(List<RateLimitKey> keys) {
+        long now = System.currentTimeMillis();
+        long window = now / windowMs;
+
+        List<RateLimitScope> scopes = new ArrayList<>(keys.size());
+        List<String> redisKeys = new ArrayList<>(2 * keys.size());
+        List<String> args = new ArrayList<>(1 + 2 * keys.size());
+        args.add(String.valueOf(now));
+        for (RateLimitKey key : keys) {
+            long max = maxima[key.scope().ordinal()];
+            if (max <= 0 || key.value() == null) {
+                continue;
+            }
+            String prefix = KEY_PREFIX + key.scope().tag() + ":" + key.value() + ":";
+            scopes.add(key.scope());
+            redisKeys.add(prefix + window);
+            redisKeys.add(prefix + (window - 1));
+            args.add(String.valueOf(max));
+            args.add(String.valueOf(windowMs));
+        }
+        return scopes.isEmpty() ? null : new Invocation(scopes, redisKeys, args.toArray());
+    }
+
+    Optional<RateLimitRejection> interpret(Invocation invocation, List<?> result) {
+        int exceeded = ((Number) result.get(0)).intValue();
+        if (exceeded == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new RateLimitRejection(invocation.scopes().get(exceeded - 1),
+                ((Number) result.get(1)).longValue()));
+    }
+
+    void failed(RuntimeException e) {
+        errors.increment();
+        log.debug("Limite de débit non vérifiée: {}", e.getMessage());
+    }
+
+    record Invocation(List<RateLimitScope> scopes, List<String> keys, Object[] args) {
+    }
+}
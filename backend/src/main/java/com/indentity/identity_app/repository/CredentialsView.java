@@ -0,0 +1,7 @@
+package com.indentity.identity_app.repository;
+
+/**
+ * Projection du STEP 1 du login : hash du mot de passe, sans la clé publique
+ */
+public record CredentialsView(Long id, String passwordHash, boolean hasPublicKey) {
+}
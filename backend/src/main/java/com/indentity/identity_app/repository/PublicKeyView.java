@@ -0,0 +1,10 @@
+package com.indentity.identity_app.repository;
+
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.signature.SignatureAlgorithm;
+
+/**
+ * Projection du STEP 3 du login : clé publique et de quoi émettre le JWT
+ */
+public record PublicKeyView(Long id, String email, Role role, String publicKey, SignatureAlgorithm publicKeyAlgorithm) {
+}
@@ -0,0 +1,87 @@
+package com.indentity.identity_app.repository;
+
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.signature.SignatureAlgorithm;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lectures et inscription de la pile réactive (profil "reactive"), en R2DBC
+ *
+ * Mêmes requêtes que les projections de UserRepository : recherche par
+ * lower(email), servie par l'index couvrant users_email_lower_idx.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Boolean> existsByEmail(String email) {
+        return databaseClient.sql("select exists(select 1 from users where lower(email) = lower(:email))")
+                .bind("email", email)
+                .map(row -> Boolean.TRUE.equals(row.get(0, Boolean.class)))
+                .one();
+    }
+
+    public Mono<CredentialsView> findCredentialsByEmail(String email) {
+        return databaseClient.sql("select id, password, has_public_key from users where lower(email) = lower(:email)")
+                .bind("email", email)
+                .map(row -> new CredentialsView(
+                        row.get("id", Long.class),
+                        row.get("password", String.class),
+                        Boolean.TRUE.equals(row.get("has_public_key", Boolean.class))))
+                .one();
+    }
+
+    public Mono<RoleView> findRoleByEmail(String email) {
+        return databaseClient.sql("select id, email, role from users where lower(email) = lower(:email)")
+                .bind("email", email)
+                .map(row -> new RoleView(row.get("id", Long.class), row.get("email", String.class), role(row)))
+                .one();
+    }
+
+    public Mono<PublicKeyView> findPublicKeyByEmail(String email) {
+        return databaseClient.sql("select id, email, role, public_key, public_key_algorithm from users "
+                        + "where lower(email) = lower(:email)")
+                .bind("email", email)
+                .map(row -> new PublicKeyView(
+                        row.get("id", Long.class),
+                        row.get("email", String.class),
+                        role(row),
+                        row.get("public_key", String.class),
+                        enumValue(row.get("public_key_algorithm", String.class), SignatureAlgorithm.class)))
+                .one();
+    }
+
+    /**
+     * Insère un utilisateur (has_public_key est calculée par la base)
+     *
+     * @return L'identifiant attribué
+     */
+    public Mono<Long> insert(String email, String passwordHash, String publicKey, SignatureAlgorithm algorithm,
+                             Role role) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                        "insert into users (email, password, public_key, public_key_algorithm, role) "
+                                + "values (:email, :password, :publicKey, :algorithm, :role) returning id")
+                .bind("email", email)
+                .bind("password", passwordHash)
+                .bind("role", role.name());
+        spec = publicKey != null ? spec.bind("publicKey", publicKey) : spec.bindNull("publicKey", String.class);
+        spec = algorithm != null ? spec.bind("algorithm", algorithm.name()) : spec.bindNull("algorithm", String.class);
+        return spec.map(row -> row.get("id", Long.class)).one();
+    }
+
+    private static Role role(Readable row) {
+        return enumValue(row.get("role", String.class), Role.class);
+    }
+
+    private static <E extends Enum<E>> E enumValue(String name, Class<E> type) {
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+}
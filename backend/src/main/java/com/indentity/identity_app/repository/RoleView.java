@@ -0,0 +1,9 @@
+package com.indentity.identity_app.repository;
+
+import com.indentity.identity_app.entity.Role;
+
+/**
+ * Projection du filtre JWT : l'utilisateur existe toujours et son rôle courant
+ */
+public record RoleView(Long id, String email, Role role) {
+}
@@ -3,10 +3,51 @@ package com.indentity.identity_app.repository;
 
 import com.indentity.identity_app.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+// Les recherches par email passent par lower(email) : index unique users_email_lower_idx
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
-    boolean existsByEmail(String email);
+    @Query("select u from User u where lower(u.email) = lower(:email)")
+    Optional<User> findByEmail(@Param("email") String email);
+
+    @Query("select count(u) > 0 from User u where lower(u.email) = lower(:email)")
+    boolean existsByEmail(@Param("email") String email);
+
+    // Projections du login : colonnes couvertes par l'index, sans hydrater l'entité
+    @Query("select new com.indentity.identity_app.repository.CredentialsView(u.id, u.password, u.hasPublicKey) "
+            + "from User u where lower(u.email) = lower(:email)")
+    Optional<CredentialsView> findCredentialsByEmail(@Param("email") String email);
+
+    @Query("select new com.indentity.identity_app.repository.RoleView(u.id, u.email, u.role) "
+            + "from User u where lower(u.email) = lower(:email)")
+    Optional<RoleView> findRoleByEmail(@Param("email") String email);
+
+    @Query("select new com.indentity.identity_app.repository.PublicKeyView(u.id, u.email, u.role, u.publicKey, u.publicKeyAlgorithm) "
+            + "from User u where lower(u.email) = lower(:email)")
+    Optional<PublicKeyView> findPublicKeyByEmail(@Param("email") String email);
+
+    // Clés publiques de tout un lot en une requête (emails en minuscules)
+    @Query("select new com.indentity.identity_app.repository.PublicKeyView(u.id, u.email, u.role, u.publicKey, u.publicKeyAlgorithm) "
+            + "from User u where lower(u.email) in :emails")
+    List<PublicKeyView> findPublicKeysByEmails(@Param("emails") Collection<String> emails);
+
+    // Chargement d'un instantané complet (absence dans UserSnapshotCache)
+    @Query("select new com.indentity.identity_app.repository.UserSnapshot("
+            + "u.id, u.email, u.role, u.password, u.publicKey, u.publicKeyAlgorithm) from User u where lower(u.email) = lower(:email)")
+    Optional<UserSnapshot> findSnapshotByEmail(@Param("email") String email);
+
+    // Doit être consommé dans une transaction
+    @Query("select u.email from User u")
+    Stream<String> streamAllEmails();
+
+    // Dédoublonnage ensembliste : une seule requête pour tout un lot (emails en minuscules)
+    @Query("select lower(u.email) from User u where lower(u.email) in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
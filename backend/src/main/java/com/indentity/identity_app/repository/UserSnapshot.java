@@ -0,0 +1,30 @@
+package com.indentity.identity_app.repository;
+
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.signature.SignatureAlgorithm;
+
+/**
+ * Instantané complet d'un utilisateur, mis en cache par UserSnapshotCache
+ * Les projections du login en sont dérivées sans nouvelle requête.
+ */
+public record UserSnapshot(
+        Long id,
+        String email,
+        Role role,
+        String passwordHash,
+        String publicKey,
+        SignatureAlgorithm publicKeyAlgorithm
+) {
+
+    public CredentialsView credentials() {
+        return new CredentialsView(id, passwordHash, publicKey != null && !publicKey.isEmpty());
+    }
+
+    public RoleView roleView() {
+        return new RoleView(id, email, role);
+    }
+
+    public PublicKeyView publicKeyView() {
+        return new PublicKeyView(id, email, role, publicKey, publicKeyAlgorithm);
+    }
+}
@@ -1,11 +1,17 @@
 package com.indentity.identity_app.service;
 
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.indentity.identity_app.entity.Role;
 import com.indentity.identity_app.entity.User;
+import com.indentity.identity_app.exception.FailureReason;
 import com.indentity.identity_app.exception.InvalidCredentialsException;
+import com.indentity.identity_app.exception.InvalidTokenException;
+import com.indentity.identity_app.repository.CredentialsView;
+import com.indentity.identity_app.repository.PublicKeyView;
 import com.indentity.identity_app.repository.UserRepository;
+import com.indentity.identity_app.signature.SignatureAlgorithm;
+import com.indentity.identity_app.store.LinkedConsumption;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 
@@ -14,26 +20,38 @@ import org.springframework.stereotype.Service;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final ChallengeService challengeService;
     private final SignatureService signatureService;
     private final TemporaryTokenService temporaryTokenService;
     private final JwtService jwtService;
+    private final KnownEmailFilter knownEmailFilter;
+    private final UserLookup userLookup;
+    private final RefreshTokenService refreshTokenService;
 
     public void register(String email, String rawPassword, String publicKey) {
         if (userRepository.existsByEmail(email))
-            throw new InvalidCredentialsException("User already exists with email: " + email);
+            throw new InvalidCredentialsException(FailureReason.USER_EXISTS, "User already exists with email: " + email);
 
-        String hashed = passwordEncoder.encode(rawPassword);
+        // Schéma de la clé (RSA, ECDSA P-256, Ed25519) détecté avant le hachage du mot de passe
+        SignatureAlgorithm algorithm = null;
+        if (publicKey != null && !publicKey.isBlank()) {
+            algorithm = signatureService.detectAlgorithm(publicKey)
+                    .orElseThrow(() -> new InvalidCredentialsException(FailureReason.INVALID_PUBLIC_KEY, "Unsupported public key"));
+        }
+
+        String hashed = passwordHashingService.encode(rawPassword);
 
         User user = User.builder()
                 .email(email)
                 .password(hashed)
                 .publicKey(publicKey) // Stocker la clé publique (peut être null)
+                .publicKeyAlgorithm(algorithm)
                 .role(Role.USER)
                 .build();
 
         userRepository.save(user);
+        knownEmailFilter.add(email);
     }
 
     // ========== MÉTHODES MFA AVEC JWT ==========
@@ -44,25 +62,56 @@ public class AuthService {
      * 
      * @param email L'email de l'utilisateur
      * @param rawPassword Le mot de passe en clair
+     * @param clientIp L'IP du client (limite de vérifications simultanées)
      * @return Un token temporaire à utiliser pour la suite du MFA
      */
-    public String loginStep1(String email, String rawPassword) {
-        // Vérifier que l'utilisateur existe
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new InvalidCredentialsException("Invalid credentials"));
-
-        // Vérifier le mot de passe
-        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
-            throw new InvalidCredentialsException("Invalid credentials");
+    public String loginStep1(String email, String rawPassword, String clientIp) {
+        checkPassword(email, rawPassword, clientIp);
+
+        // Générer et retourner un token temporaire
+        return temporaryTokenService.generateTemporaryToken(email);
+    }
+
+    /**
+     * STEP 1 et STEP 2 du MFA en un seul appel
+     * Valide email + password et retourne le token temporaire avec le challenge à signer,
+     * stockés ensemble dans Redis (une écriture, durée de vie du challenge)
+     *
+     * @param email L'email de l'utilisateur
+     * @param rawPassword Le mot de passe en clair
+     * @param clientIp L'IP du client (limite de vérifications simultanées)
+     * @return Le token temporaire et le challenge (challenge null si l'option est désactivée)
+     */
+    public LoginTicket loginStep1WithChallenge(String email, String rawPassword, String clientIp) {
+        checkPassword(email, rawPassword, clientIp);
+        return temporaryTokenService.generateTemporaryTokenWithChallenge(email);
+    }
+
+    private void checkPassword(String email, String rawPassword, String clientIp) {
+        // Email certainement inconnu : pas de requête base, mais un BCrypt factice
+        // pour que le temps de réponse ne révèle pas l'existence du compte
+        if (!knownEmailFilter.mightExist(email)) {
+            passwordHashingService.matchesDummy(rawPassword, email, clientIp);
+            throw new InvalidCredentialsException(FailureReason.UNKNOWN_USER, "Invalid credentials");
         }
 
-        // Vérifier que l'utilisateur a une clé publique (sinon pas de MFA possible)
-        if (user.getPublicKey() == null || user.getPublicKey().isEmpty()) {
-            throw new InvalidCredentialsException("User does not have RSA keys configured");
+        // Vérifier que l'utilisateur existe (faux positif du filtre possible)
+        // Instantané en cache ou projection couverte par l'index : pas d'entité chargée
+        CredentialsView user = userLookup.credentials(email).orElse(null);
+        if (user == null) {
+            passwordHashingService.matchesDummy(rawPassword, email, clientIp);
+            throw new InvalidCredentialsException(FailureReason.UNKNOWN_USER, "Invalid credentials");
         }
 
-        // Générer et retourner un token temporaire
-        return temporaryTokenService.generateTemporaryToken(email);
+        // Vérifier le mot de passe (pool BCrypt dédié, 429 si saturé)
+        if (!passwordHashingService.matches(rawPassword, user.passwordHash(), email, clientIp)) {
+            throw new InvalidCredentialsException(FailureReason.BAD_PASSWORD, "Invalid credentials");
+        }
+
+        // Vérifier que l'utilisateur a une clé publique (sinon pas de MFA possible)
+        if (!user.hasPublicKey()) {
+            throw new InvalidCredentialsException(FailureReason.NO_PUBLIC_KEY, "User does not have RSA keys configured");
+        }
     }
 
     /**
@@ -77,7 +126,7 @@ public class AuthService {
         String email = temporaryTokenService.validateTemporaryToken(temporaryToken);
         
         if (email == null) {
-            throw new InvalidCredentialsException("Invalid or expired temporary token");
+            throw new InvalidCredentialsException(FailureReason.INVALID_TEMPORARY_TOKEN, "Invalid or expired temporary token");
         }
 
         // Générer et retourner le challenge
@@ -85,38 +134,61 @@ public class AuthService {
     }
 
     /**
-     * Authentifie un utilisateur en vérifiant sa signature RSA
+     * Authentifie un utilisateur en vérifiant sa signature (schéma de sa clé publique)
      * STEP 3 du MFA : Validation finale avec temporaryToken + signature
      * 
      * @param temporaryToken Token temporaire obtenu au step1
      * @param challenge Le challenge reçu précédemment
      * @param signature La signature du challenge (signée avec la clé privée)
-     * @return Un JWT si l'authentification réussit
+     * @return Un JWT et un refresh token si l'authentification réussit
      */
-    public String authenticateWithSignature(String temporaryToken, String challenge, String signature) {
-        // 1. Consommer le token temporaire et récupérer l'email
-        String email = temporaryTokenService.consumeTemporaryToken(temporaryToken);
+    public TokenPair authenticateWithSignature(String temporaryToken, String challenge, String signature) {
+        // 1. Consommer le token temporaire et le challenge en un seul aller-retour Redis
+        LinkedConsumption consumed = temporaryTokenService.consumeTemporaryTokenAndChallenge(temporaryToken, challenge);
+        String email = consumed.getValue();
         
         if (email == null) {
-            throw new InvalidCredentialsException("Invalid or expired temporary token");
+            throw new InvalidCredentialsException(FailureReason.INVALID_TEMPORARY_TOKEN, "Invalid or expired temporary token");
         }
 
-        // 2. Récupérer l'utilisateur
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new InvalidCredentialsException("Invalid credentials"));
-
-        // 3. Vérifier que le challenge est valide et le consommer (usage unique)
-        if (!challengeService.validateAndConsumeChallenge(email, challenge)) {
-            throw new InvalidCredentialsException("Invalid or expired challenge");
+        // 2. Vérifier que le challenge était valide (consommé atomiquement avec le token)
+        if (!consumed.isLinkedMatched()) {
+            throw new InvalidCredentialsException(FailureReason.INVALID_CHALLENGE, "Invalid or expired challenge");
         }
 
+        // 3. Récupérer la clé publique de l'utilisateur (même instantané qu'au step 1)
+        PublicKeyView user = userLookup.publicKey(email)
+                .orElseThrow(() -> new InvalidCredentialsException(FailureReason.UNKNOWN_USER, "Invalid credentials"));
+
         // 4. Vérifier la signature avec la clé publique de l'utilisateur
-        if (!signatureService.verifySignature(challenge, signature, user.getPublicKey())) {
-            throw new InvalidCredentialsException("Invalid signature");
+        if (!signatureService.verifySignature(challenge, signature, user.id(), user.publicKey(), user.publicKeyAlgorithm())) {
+            throw new InvalidCredentialsException(FailureReason.INVALID_SIGNATURE, "Invalid signature");
         }
 
         // 5. Générer et retourner un JWT (authentification MFA complète)
-        return jwtService.generateToken(user.getEmail(), user.getRole());
+        // et le refresh token qui évitera de refaire le MFA à son expiration
+        // Email tel qu'enregistré (le login ne tient pas compte de la casse)
+        return new TokenPair(
+                jwtService.generateToken(user.email(), user.role()),
+                refreshTokenService.issue(user.email(), user.role())
+        );
     }
 
+    /**
+     * Déconnexion : révoque le JWT sur toutes les instances jusqu'à son expiration
+     * et, si fourni, la famille du refresh token
+     *
+     * @param accessToken Le JWT à révoquer
+     * @param refreshToken Le refresh token de la session (peut être null)
+     */
+    public void logout(String accessToken, String refreshToken) {
+        try {
+            jwtService.revoke(accessToken);
+        } catch (JWTVerificationException e) {
+            throw new InvalidTokenException("Invalid or expired token");
+        }
+        if (refreshToken != null) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
 }
@@ -0,0 +1,206 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.dto.Request.AuthenticateRequest;
+import com.indentity.identity_app.dto.Response.BatchAuthenticateResult;
+import com.indentity.identity_app.dto.Response.BatchChallengeResult;
+import com.indentity.identity_app.event.AuthEvent;
+import com.indentity.identity_app.event.AuthEventLogger;
+import com.indentity.identity_app.exception.FailureReason;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.AuthStage;
+import com.indentity.identity_app.repository.PublicKeyView;
+import com.indentity.identity_app.store.LinkedConsumption;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * STEP 2 et STEP 3 du MFA pour toute une flotte d'appareils (IoT, agents)
+ *
+ * Chaque appareil a fait son STEP 1 (mot de passe) et détient un temporaryToken.
+ * Un lot coûte un aller-retour Redis par étape (MGET + pipeline pour les challenges,
+ * pipeline de consommations atomiques pour l'authentification) et une seule requête
+ * Postgres pour les clés publiques ; les signatures
+ * sont vérifiées et les JWT signés en parallèle sur le pool batchVerificationPool.
+ * Un élément refusé n'affecte pas les autres : le résultat est donné par élément.
+ */
+@Service
+public class BatchAuthService {
+
+    private final TemporaryTokenService temporaryTokenService;
+    private final ChallengeService challengeService;
+    private final UserLookup userLookup;
+    private final SignatureService signatureService;
+    private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final AuthMetrics authMetrics;
+    private final AuthEventLogger authEvents;
+    private final ForkJoinPool pool;
+    private final int maxSize;
+
+    public BatchAuthService(
+            TemporaryTokenService temporaryTokenService,
+            ChallengeService challengeService,
+            UserLookup userLookup,
+            SignatureService signatureService,
+            JwtService jwtService,
+            RefreshTokenService refreshTokenService,
+            AuthMetrics authMetrics,
+            AuthEventLogger authEvents,
+            @Qualifier("batchVerificationPool") ForkJoinPool pool,
+            @Value("${auth.batch.max-size:1000}") int maxSize
+    ) {
+        this.temporaryTokenService = temporaryTokenService;
+        this.challengeService = challengeService;
+        this.userLookup = userLookup;
+        this.signatureService = signatureService;
+        this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
+        this.authMetrics = authMetrics;
+        this.authEvents = authEvents;
+        this.pool = pool;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Émet un challenge par temporaryToken valide
+     *
+     * @param temporaryTokens Les tokens temporaires des appareils
+     * @return Un résultat par token, dans l'ordre de la requête
+     */
+    public List<BatchChallengeResult> requestChallenges(List<String> temporaryTokens) {
+        checkSize(temporaryTokens);
+        long start = authMetrics.start();
+        try {
+            List<String> emails = temporaryTokenService.validateTemporaryTokens(temporaryTokens);
+            Map<String, String> challenges = challengeService.generateChallenges(
+                    emails.stream().filter(Objects::nonNull).toList());
+
+            List<BatchChallengeResult> results = new ArrayList<>(emails.size());
+            for (int i = 0; i < emails.size(); i++) {
+                String email = emails.get(i);
+                if (email == null) {
+                    reject(FailureReason.INVALID_TEMPORARY_TOKEN);
+                    results.add(new BatchChallengeResult(i, BatchChallengeResult.Status.REJECTED, null,
+                            "Invalid or expired temporary token"));
+                } else {
+                    // Deux tokens du même appareil reçoivent le même challenge (un seul par email)
+                    results.add(new BatchChallengeResult(i, BatchChallengeResult.Status.ISSUED,
+                            challenges.get(email), null));
+                }
+            }
+            return results;
+        } finally {
+            authMetrics.record(AuthStage.BATCH_CHALLENGE_ISSUE, start);
+        }
+    }
+
+    /**
+     * Authentifie chaque appareil par la signature de son challenge
+     * Le temporaryToken de chaque élément est consommé, que l'élément réussisse ou non
+     *
+     * @param items temporaryToken + challenge + signature de chaque appareil
+     * @return Un résultat par élément (JWT et refresh token, ou raison du refus), dans l'ordre de la requête
+     */
+    public List<BatchAuthenticateResult> authenticate(List<AuthenticateRequest> items) {
+        checkSize(items);
+        long start = authMetrics.start();
+        try {
+            BatchAuthenticateResult[] results = new BatchAuthenticateResult[items.size()];
+
+            // 1. Tokens temporaires et challenges consommés en un seul aller-retour Redis
+            List<LinkedConsumption> consumed = temporaryTokenService.consumeTemporaryTokensAndChallenges(
+                    items.stream().map(item -> item.temporaryToken).toList(),
+                    items.stream().map(item -> item.challenge).toList());
+
+            // 2. Clé publique de chaque appareil dont le token et le challenge étaient valides (une requête)
+            List<String> emails = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                LinkedConsumption consumption = consumed.get(i);
+                if (consumption.getValue() == null) {
+                    results[i] = rejected(i, FailureReason.INVALID_TEMPORARY_TOKEN, "Invalid or expired temporary token");
+                } else if (!consumption.isLinkedMatched()) {
+                    results[i] = rejected(i, FailureReason.INVALID_CHALLENGE, "Invalid or expired challenge");
+                } else {
+                    emails.add(consumption.getValue());
+                }
+            }
+            Map<String, PublicKeyView> usersByEmail = userLookup.publicKeys(emails);
+
+            List<Integer> indexes = new ArrayList<>();
+            List<PublicKeyView> users = new ArrayList<>();
+            List<SignatureCheck> checks = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                if (results[i] != null) {
+                    continue;
+                }
+                PublicKeyView user = usersByEmail.get(consumed.get(i).getValue().toLowerCase(Locale.ROOT));
+                if (user == null) {
+                    results[i] = rejected(i, FailureReason.UNKNOWN_USER, "Invalid credentials");
+                    continue;
+                }
+                indexes.add(i);
+                users.add(user);
+                checks.add(new SignatureCheck(items.get(i).challenge, items.get(i).signature,
+                        user.id(), user.publicKey(), user.publicKeyAlgorithm()));
+            }
+
+            // 3. Vérifications et signatures JWT en parallèle sur le pool dédié
+            List<Boolean> valid = pool.submit(() -> signatureService.verifySignatures(checks)).join();
+            List<TokenSubject> subjects = new ArrayList<>();
+            for (int j = 0; j < checks.size(); j++) {
+                if (valid.get(j)) {
+                    // Email tel qu'enregistré (le login ne tient pas compte de la casse)
+                    subjects.add(new TokenSubject(users.get(j).email(), users.get(j).role()));
+                } else {
+                    int i = indexes.get(j);
+                    results[i] = rejected(i, FailureReason.INVALID_SIGNATURE, "Invalid signature");
+                }
+            }
+            List<String> tokens = pool.submit(() -> jwtService.generateTokens(subjects)).join();
+            // 4. Une famille de refresh tokens par appareil authentifié, en un aller-retour Redis
+            List<String> refreshTokens = refreshTokenService.issueAll(subjects);
+
+            int next = 0;
+            for (int j = 0; j < checks.size(); j++) {
+                if (valid.get(j)) {
+                    int i = indexes.get(j);
+                    results[i] = new BatchAuthenticateResult(i, BatchAuthenticateResult.Status.AUTHENTICATED,
+                            tokens.get(next), refreshTokens.get(next), null);
+                    next++;
+                }
+            }
+            return Arrays.asList(results);
+        } finally {
+            authMetrics.record(AuthStage.BATCH_AUTHENTICATE, start);
+        }
+    }
+
+    private void checkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Empty batch");
+        }
+        if (items.size() > maxSize) {
+            throw new IllegalArgumentException("Batch too large (max " + maxSize + " items)");
+        }
+    }
+
+    private BatchAuthenticateResult rejected(int index, FailureReason reason, String message) {
+        reject(reason);
+        return new BatchAuthenticateResult(index, BatchAuthenticateResult.Status.REJECTED, null, null, message);
+    }
+
+    // Mêmes métriques et événements qu'un refus unitaire (GlobalExceptionHandler)
+    private void reject(FailureReason reason) {
+        authMetrics.failure(reason);
+        authEvents.record(AuthEvent.CREDENTIALS_REJECTED, null, reason.tag());
+    }
+}
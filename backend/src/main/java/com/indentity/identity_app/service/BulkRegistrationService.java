@@ -0,0 +1,340 @@
+package com.indentity.identity_app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indentity.identity_app.dto.Request.RegisterRequest;
+import com.indentity.identity_app.dto.Response.BulkRegistrationResult;
+import com.indentity.identity_app.dto.Response.BulkRegistrationResult.Status;
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.repository.UserRepository;
+import com.indentity.identity_app.signature.SignatureAlgorithm;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inscription en masse depuis un flux NDJSON (une RegisterRequest par ligne)
+ *
+ * Les lignes sont traitées par lots :
+ * 1. une seule requête ensembliste pour écarter les emails déjà enregistrés
+ * 2. BCrypt en parallèle sur un pool borné, distinct de celui du login
+ * 3. ids réservés en une requête sur la séquence de users.id, puis insertion
+ *    par batch JDBC (User est en IDENTITY : Hibernate ne batche pas ces insertions)
+ * Le résultat de chaque ligne est écrit en NDJSON dès que son lot est terminé.
+ */
+@Service
+@Slf4j
+public class BulkRegistrationService {
+
+    private static final String ALLOCATE_IDS_SQL =
+            "select nextval(pg_get_serial_sequence('users', 'id')) from generate_series(1, ?)";
+
+    // ON CONFLICT : une inscription concurrente entre le dédoublonnage et l'insertion donne 0 ligne
+    // (sans cible : couvre aussi l'index unique sur lower(email))
+    private static final String INSERT_SQL =
+            "insert into users (id, email, password, role, public_key, public_key_algorithm) values (?, ?, ?, ?, ?, ?) "
+                    + "on conflict do nothing";
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final KnownEmailFilter knownEmailFilter;
+    private final SignatureService signatureService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final ThreadPoolExecutor hashingExecutor;
+    private final Map<Status, Counter> rowCounters = new EnumMap<>(Status.class);
+
+    public BulkRegistrationService(
+            UserRepository userRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            PasswordEncoder passwordEncoder,
+            KnownEmailFilter knownEmailFilter,
+            SignatureService signatureService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${auth.bulk.chunk-size:500}") int chunkSize,
+            @Value("${auth.bulk.hashing-threads:0}") int hashingThreads
+    ) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.knownEmailFilter = knownEmailFilter;
+        this.signatureService = signatureService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+
+        // Par défaut la moitié des CPU : le login garde de la capacité pendant un import
+        int poolSize = hashingThreads > 0
+                ? hashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        // File bornée + CallerRunsPolicy : le thread d'import ralentit au lieu d'empiler les lots
+        this.hashingExecutor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(chunkSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+
+        for (Status status : Status.values()) {
+            rowCounters.put(status, Counter.builder("auth.bulk.rows")
+                    .description("Lignes traitées par l'inscription en masse")
+                    .tag("status", status.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Lit un flux NDJSON de RegisterRequest et écrit un BulkRegistrationResult par ligne
+     *
+     * @param in Le flux NDJSON reçu
+     * @param out Le flux NDJSON de résultats (vidé après chaque lot)
+     */
+    public void register(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        // Emails créés ou déjà enregistrés dans tout le flux : doublons internes détectés sans requête
+        Set<String> seen = new HashSet<>();
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(parse(lineNumber, line));
+            if (chunk.size() >= chunkSize) {
+                write(processChunk(chunk, seen), out);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            write(processChunk(chunk, seen), out);
+        }
+    }
+
+    private List<BulkRegistrationResult> processChunk(List<PendingRow> chunk, Set<String> seen) {
+        List<BulkRegistrationResult> results = new ArrayList<>(chunk.size());
+
+        // 1. Validation et doublons dans le flux ; un email répété dans le lot attend le sort du premier
+        List<PendingRow> candidates = new ArrayList<>(chunk.size());
+        List<PendingRow> repeated = new ArrayList<>();
+        Set<String> inChunk = new HashSet<>();
+        for (PendingRow row : chunk) {
+            if (row.error != null) {
+                results.add(result(row, Status.INVALID, row.error));
+            } else if (seen.contains(row.normalizedEmail())) {
+                results.add(result(row, Status.DUPLICATE, "Duplicate email in request"));
+            } else if (!inChunk.add(row.normalizedEmail())) {
+                repeated.add(row);
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (!candidates.isEmpty()) {
+            registerDistinct(candidates, seen, results);
+        }
+
+        // Premier en erreur (hachage, insertion) : aucun compte, la ligne suivante est retentée
+        List<PendingRow> retry = new ArrayList<>();
+        for (PendingRow row : repeated) {
+            if (seen.contains(row.normalizedEmail())) {
+                results.add(result(row, Status.DUPLICATE, "Duplicate email in request"));
+            } else {
+                retry.add(row);
+            }
+        }
+        if (!retry.isEmpty()) {
+            results.addAll(processChunk(retry, seen));
+        }
+        return results;
+    }
+
+    /**
+     * Enregistre des lignes valides d'emails distincts ; seen reçoit les emails créés ou déjà enregistrés
+     */
+    private void registerDistinct(List<PendingRow> candidates, Set<String> seen,
+                                  List<BulkRegistrationResult> results) {
+        // 2. Emails déjà enregistrés : une requête pour tout le lot
+        Set<String> existing = userRepository.findExistingEmails(
+                candidates.stream().map(PendingRow::normalizedEmail).toList());
+        List<PendingRow> toInsert = new ArrayList<>(candidates.size());
+        for (PendingRow row : candidates) {
+            if (existing.contains(row.normalizedEmail())) {
+                seen.add(row.normalizedEmail());
+                results.add(result(row, Status.DUPLICATE, "User already exists"));
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        // 3. BCrypt en parallèle sur le pool dédié
+        List<CompletableFuture<String>> hashes = new ArrayList<>(toInsert.size());
+        for (PendingRow row : toInsert) {
+            hashes.add(CompletableFuture.supplyAsync(() -> passwordEncoder.encode(row.password), hashingExecutor));
+        }
+        List<PendingRow> hashed = new ArrayList<>(toInsert.size());
+        for (int i = 0; i < toInsert.size(); i++) {
+            PendingRow row = toInsert.get(i);
+            try {
+                row.hash = hashes.get(i).join();
+                hashed.add(row);
+            } catch (CompletionException e) {
+                log.warn("Hachage impossible pour la ligne {}: {}", row.line, e.getCause().getMessage());
+                results.add(result(row, Status.ERROR, "Password hashing failed"));
+            }
+        }
+        if (hashed.isEmpty()) {
+            return;
+        }
+
+        // 4. Réservation des ids puis insertion par batch, dans une transaction par lot
+        int[] updateCounts;
+        try {
+            updateCounts = transactionTemplate.execute(status -> insert(hashed));
+        } catch (RuntimeException e) {
+            log.error("Insertion du lot impossible: {}", e.getMessage());
+            for (PendingRow row : hashed) {
+                results.add(result(row, Status.ERROR, "Insert failed"));
+            }
+            return;
+        }
+
+        List<String> created = new ArrayList<>(hashed.size());
+        for (int i = 0; i < hashed.size(); i++) {
+            PendingRow row = hashed.get(i);
+            seen.add(row.normalizedEmail());
+            if (updateCounts[i] == 0) {
+                results.add(result(row, Status.DUPLICATE, "User already exists"));
+            } else {
+                results.add(result(row, Status.CREATED, null));
+                created.add(row.email);
+            }
+        }
+        knownEmailFilter.addAll(created);
+    }
+
+    private int[] insert(List<PendingRow> rows) {
+        List<Long> ids = jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, rows.size());
+        List<Object[]> batch = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            PendingRow row = rows.get(i);
+            batch.add(new Object[]{ids.get(i), row.email, row.hash, Role.USER.name(), row.publicKey,
+                    row.publicKeyAlgorithm != null ? row.publicKeyAlgorithm.name() : null});
+        }
+        // Pas de reWriteBatchedInserts : le pilote enchaîne déjà le batch sans aller-retour
+        // par ligne, et les compteurs par ligne restent exacts (0 = conflit sur l'email)
+        return jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+    }
+
+    private PendingRow parse(long lineNumber, String line) {
+        RegisterRequest request;
+        try {
+            request = objectMapper.readValue(line, RegisterRequest.class);
+        } catch (JsonProcessingException e) {
+            return PendingRow.invalid(lineNumber, null, "Malformed JSON");
+        }
+        if (request.email == null || request.email.isBlank() || !request.email.contains("@")) {
+            return PendingRow.invalid(lineNumber, request.email, "Invalid email");
+        }
+        if (request.password == null || request.password.isEmpty()) {
+            return PendingRow.invalid(lineNumber, request.email, "Missing password");
+        }
+        SignatureAlgorithm algorithm = null;
+        if (request.publicKey != null && !request.publicKey.isBlank()) {
+            algorithm = signatureService.detectAlgorithm(request.publicKey).orElse(null);
+            if (algorithm == null) {
+                return PendingRow.invalid(lineNumber, request.email, "Unsupported public key");
+            }
+        }
+        return new PendingRow(lineNumber, request.email, request.password, request.publicKey, algorithm, null);
+    }
+
+    private BulkRegistrationResult result(PendingRow row, Status status, String message) {
+        rowCounters.get(status).increment();
+        return new BulkRegistrationResult(row.line, row.email, status, message);
+    }
+
+    private void write(List<BulkRegistrationResult> results, OutputStream out) throws IOException {
+        // Résultats dans l'ordre des lignes reçues
+        results.sort(Comparator.comparingLong(BulkRegistrationResult::getLine));
+        for (BulkRegistrationResult result : results) {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    private static final class PendingRow {
+        private final long line;
+        private final String email;
+        private final String password;
+        private final String publicKey;
+        private final SignatureAlgorithm publicKeyAlgorithm;
+        private final String error;
+        private String hash;
+
+        private PendingRow(long line, String email, String password, String publicKey,
+                           SignatureAlgorithm publicKeyAlgorithm, String error) {
+            this.line = line;
+            this.email = email;
+            this.password = password;
+            this.publicKey = publicKey;
+            this.publicKeyAlgorithm = publicKeyAlgorithm;
+            this.error = error;
+        }
+
+        private String normalizedEmail() {
+            return email.toLowerCase(Locale.ROOT);
+        }
+
+        private static PendingRow invalid(long line, String email, String error) {
+            return new PendingRow(line, email, null, null, null, error);
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.indentity.identity_app.service;
 
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.AuthStage;
+import com.indentity.identity_app.store.OneTimeValueStore;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.security.SecureRandom;
 import java.time.Duration;
-import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Service de gestion des challenges d'authentification
@@ -17,13 +20,15 @@ import java.util.Base64;
 @RequiredArgsConstructor
 public class ChallengeService {
 
-    private final RedisTemplate<String, String> redisTemplate;
+    private final OneTimeValueStore oneTimeValueStore;
+    private final RandomTokenSource randomTokenSource;
+    private final AuthMetrics authMetrics;
     
     // Préfixe pour les clés Redis
-    private static final String CHALLENGE_PREFIX = "challenge:";
+    static final String CHALLENGE_PREFIX = "challenge:";
     
     // Durée de vie du challenge : 2 minutes
-    private static final Duration CHALLENGE_TTL = Duration.ofMinutes(2);
+    static final Duration CHALLENGE_TTL = Duration.ofMinutes(2);
 
     /**
      * Génère un nouveau challenge pour un utilisateur
@@ -32,47 +37,56 @@ public class ChallengeService {
      * @return Le challenge généré (chaîne Base64)
      */
     public String generateChallenge(String email) {
-        String challenge = generateRandomString();
+        long start = authMetrics.start();
+        String challenge = randomTokenSource.nextToken(); // 32 octets, Base64 URL-safe
         
         // Stocker dans Redis avec TTL (Time To Live)
         String redisKey = CHALLENGE_PREFIX + email;
-        redisTemplate.opsForValue().set(redisKey, challenge, CHALLENGE_TTL);
+        try {
+            oneTimeValueStore.put(redisKey, challenge, CHALLENGE_TTL);
+        } finally {
+            authMetrics.record(AuthStage.CHALLENGE_ISSUE, start);
+        }
         
         return challenge;
     }
 
+    /**
+     * Génère un challenge pour chaque utilisateur d'un lot (authentification de flottes)
+     * Tous les challenges sont stockés en un seul aller-retour Redis (pipeline)
+     *
+     * @param emails Les emails des utilisateurs
+     * @return Le challenge de chaque email (un seul par email distinct)
+     */
+    public Map<String, String> generateChallenges(Collection<String> emails) {
+        Map<String, String> challenges = new HashMap<>();
+        Map<String, String> redisValues = new HashMap<>();
+        for (String email : emails) {
+            if (!challenges.containsKey(email)) {
+                String challenge = randomTokenSource.nextToken();
+                challenges.put(email, challenge);
+                redisValues.put(CHALLENGE_PREFIX + email, challenge);
+            }
+        }
+        oneTimeValueStore.putAll(redisValues, CHALLENGE_TTL);
+        return challenges;
+    }
+
     /**
      * Valide un challenge et le supprime (usage unique)
+     * Comparaison et suppression sont atomiques : deux requêtes concurrentes
+     * ne peuvent pas consommer le même challenge
      * 
      * @param email L'email de l'utilisateur
      * @param challenge Le challenge à valider
      * @return true si le challenge est valide, false sinon
      */
     public boolean validateAndConsumeChallenge(String email, String challenge) {
-        String redisKey = CHALLENGE_PREFIX + email;
-        
-        // Récupérer le challenge stocké
-        String storedChallenge = redisTemplate.opsForValue().get(redisKey);
-        
-        // Vérifier qu'il existe et correspond
-        if (storedChallenge != null && storedChallenge.equals(challenge)) {
-            // Supprimer le challenge (usage unique)
-            redisTemplate.delete(redisKey);
-            return true;
+        if (challenge == null) {
+            return false;
         }
-        
-        return false;
-    }
 
-    /**
-     * Génère une chaîne aléatoire sécurisée de 32 octets
-     * 
-     * @return Chaîne Base64 URL-safe
-     */
-    private String generateRandomString() {
-        SecureRandom random = new SecureRandom();
-        byte[] bytes = new byte[32]; // 32 octets = 256 bits
-        random.nextBytes(bytes);
-        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        String redisKey = CHALLENGE_PREFIX + email;
+        return oneTimeValueStore.consumeIfMatches(redisKey, challenge);
     }
 }
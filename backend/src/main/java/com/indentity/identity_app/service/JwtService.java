@@ -1,33 +1,80 @@
 package com.indentity.identity_app.service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.jwt.JwtKeyRing;
+import com.indentity.identity_app.jwt.SigningKey;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.AuthStage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.List;
 
+/**
+ * Émission et vérification des JWT de session
+ *
+ * Les clés viennent de JwtKeyRing : en RS256 / ES256 chaque token porte le kid
+ * de sa clé, et les services en aval le vérifient eux-mêmes via le JWKS publié.
+ * Chaque token porte un jti : il peut être révoqué avant son expiration
+ * (TokenRevocationList, consultée à chaque vérification, cache compris).
+ */
 @Service
 public class JwtService {
 
-    private final Algorithm algorithm;
+    private final JwtKeyRing keyRing;
+    private final RandomTokenSource randomTokenSource;
+    private final TokenRevocationList revocationList;
     private final JWTVerifier verifier;
     private final long expirationMs;
+    private final AuthMetrics authMetrics;
+
+    // Tokens déjà vérifiés, indexés par empreinte SHA-256 : évite de refaire le HMAC
+    // ou la vérification asymétrique sur les tokens chauds. Une entrée ne survit
+    // jamais à l'expiration du token.
+    private final Cache<ByteBuffer, VerifiedClaims> verifiedTokens;
 
     public JwtService(
-            @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration-ms}") long expirationMs
+            JwtKeyRing keyRing,
+            RandomTokenSource randomTokenSource,
+            TokenRevocationList revocationList,
+            @Value("${jwt.expiration-ms}") long expirationMs,
+            @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize,
+            @Value("${jwt.verified-cache.max-ttl:5m}") Duration verifiedCacheMaxTtl,
+            MeterRegistry meterRegistry,
+            AuthMetrics authMetrics
     ) {
-        this.algorithm = Algorithm.HMAC256(secret);
-        this.verifier = JWT.require(algorithm)
+        this.keyRing = keyRing;
+        this.randomTokenSource = randomTokenSource;
+        this.revocationList = revocationList;
+        // Une seule instance : la clé publique est résolue par kid à chaque vérification
+        this.verifier = JWT.require(keyRing.verificationAlgorithm())
                 .withIssuer("identity-app")
                 .build();
         this.expirationMs = expirationMs;
+        this.authMetrics = authMetrics;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new UntilTokenExpiry(verifiedCacheMaxTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verifiedTokens");
     }
 
     /**
@@ -38,16 +85,46 @@ public class JwtService {
      * @return Le token JWT signé
      */
     public String generateToken(String email, Role role) {
+        Instant now = Instant.now();
+        // Clé lue une fois : une rotation concurrente ne peut pas dissocier kid et signature
+        return sign(keyRing.signingKey(), email, role, now, now.plusMillis(expirationMs));
+    }
+
+    /**
+     * Génère les JWT d'un lot d'utilisateurs authentifiés (authentification de flottes)
+     * Même clé et mêmes dates pour tout le lot ; les signatures sont calculées en
+     * parallèle dans le ForkJoinPool appelant (pool commun hors d'une tâche ForkJoin)
+     *
+     * @param subjects Les utilisateurs
+     * @return Les tokens, dans l'ordre des utilisateurs
+     */
+    public List<String> generateTokens(List<TokenSubject> subjects) {
         Instant now = Instant.now();
         Instant expiresAt = now.plusMillis(expirationMs);
+        SigningKey key = keyRing.signingKey();
+        return subjects.parallelStream()
+                .map(subject -> sign(key, subject.email(), subject.role(), now, expiresAt))
+                .toList();
+    }
 
-        return JWT.create()
-                .withIssuer("identity-app")
-                .withSubject(email) // Subject = email de l'utilisateur
-                .withClaim("role", role.name()) // Claim custom pour le rôle
-                .withIssuedAt(Date.from(now))
-                .withExpiresAt(Date.from(expiresAt))
-                .sign(algorithm);
+    private String sign(SigningKey key, String email, Role role, Instant issuedAt, Instant expiresAt) {
+        long start = authMetrics.start();
+        try {
+            JWTCreator.Builder builder = JWT.create();
+            if (key.kid() != null) {
+                builder.withKeyId(key.kid()); // absent en HS256
+            }
+            return builder
+                    .withIssuer("identity-app")
+                    .withSubject(email) // Subject = email de l'utilisateur
+                    .withJWTId(randomTokenSource.nextToken()) // identifiant de révocation
+                    .withClaim("role", role.name()) // Claim custom pour le rôle
+                    .withIssuedAt(Date.from(issuedAt))
+                    .withExpiresAt(Date.from(expiresAt))
+                    .sign(key.algorithm());
+        } finally {
+            authMetrics.record(AuthStage.JWT_SIGN, start);
+        }
     }
 
     /**
@@ -61,6 +138,64 @@ public class JwtService {
         return verifier.verify(token);
     }
 
+    /**
+     * Vérifie un JWT une seule fois et retourne ses claims
+     * Les tokens déjà vérifiés sont servis depuis le cache jusqu'à leur expiration ;
+     * la révocation est vérifiée à chaque appel (lecture locale, sans réseau)
+     *
+     * @param token Le token JWT à valider
+     * @return Les claims vérifiés (immuables)
+     * @throws JWTVerificationException Si le token est invalide, expiré ou révoqué
+     */
+    public VerifiedClaims verify(String token) throws JWTVerificationException {
+        // Cache compris : la durée mesurée est celle vue par la requête
+        long start = authMetrics.start();
+        try {
+            VerifiedClaims claims = verifyCached(token);
+            if (revocationList.isRevoked(claims.getTokenId())) {
+                throw new JWTVerificationException("Token revoked");
+            }
+            return claims;
+        } finally {
+            authMetrics.record(AuthStage.JWT_VERIFY, start);
+        }
+    }
+
+    private VerifiedClaims verifyCached(String token) {
+        ByteBuffer digest = digest(token);
+
+        VerifiedClaims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && cached.getExpiresAt().isAfter(Instant.now())) {
+            return cached;
+        }
+
+        DecodedJWT jwt = verifier.verify(token);
+        VerifiedClaims claims = new VerifiedClaims(
+                jwt.getSubject(),
+                jwt.getId(),
+                Role.valueOf(jwt.getClaim("role").asString()),
+                jwt.getIssuedAtAsInstant(),
+                jwt.getExpiresAtAsInstant()
+        );
+        verifiedTokens.put(digest, claims);
+        return claims;
+    }
+
+    /**
+     * Révoque un JWT jusqu'à son expiration, sur toutes les instances
+     *
+     * @param token Le token JWT à révoquer
+     * @throws JWTVerificationException Si le token est invalide, expiré ou déjà révoqué
+     */
+    public void revoke(String token) throws JWTVerificationException {
+        VerifiedClaims claims = verify(token);
+        if (claims.getTokenId() == null) {
+            // Émis avant l'ajout du jti : expire de lui-même
+            throw new JWTVerificationException("Token without jti cannot be revoked");
+        }
+        revocationList.revoke(claims.getTokenId(), claims.getExpiresAt());
+    }
+
     /**
      * Extrait l'email depuis un JWT
      * 
@@ -68,8 +203,7 @@ public class JwtService {
      * @return L'email de l'utilisateur
      */
     public String getEmailFromToken(String token) {
-        DecodedJWT jwt = verifyToken(token);
-        return jwt.getSubject();
+        return verify(token).getEmail();
     }
 
     /**
@@ -79,9 +213,7 @@ public class JwtService {
      * @return Le rôle de l'utilisateur
      */
     public Role getRoleFromToken(String token) {
-        DecodedJWT jwt = verifyToken(token);
-        String roleName = jwt.getClaim("role").asString();
-        return Role.valueOf(roleName);
+        return verify(token).getRole();
     }
 
     /**
@@ -92,10 +224,48 @@ public class JwtService {
      */
     public boolean isTokenValid(String token) {
         try {
-            verifyToken(token);
+            verify(token);
             return true;
         } catch (JWTVerificationException e) {
             return false;
         }
     }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return ByteBuffer.wrap(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * Une entrée expire à l'expiration du token, sans dépasser maxTtl
+     */
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, VerifiedClaims> {
+
+        private final long maxTtlNanos;
+
+        private UntilTokenExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedClaims claims, long currentTime) {
+            long untilExpiry = Duration.between(Instant.now(), claims.getExpiresAt()).toNanos();
+            return Math.max(0, Math.min(maxTtlNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
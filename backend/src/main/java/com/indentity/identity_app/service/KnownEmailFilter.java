@@ -0,0 +1,237 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.RedisOperation;
+import com.indentity.identity_app.repository.UserRepository;
+import com.indentity.identity_app.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Filtre de Bloom des emails enregistrés
+ *
+ * Permet au login de rejeter un email inconnu sans requête Postgres.
+ * Reconstruit périodiquement depuis UserRepository, complété à chaque
+ * inscription et propagé aux autres instances via pub/sub Redis.
+ *
+ * Une publication perdue (reconnexion, instance qui démarre) ne doit pas faire
+ * refuser un utilisateur qui vient de s'inscrire : chaque inscription est aussi
+ * écrite dans un ensemble trié Redis (score = date d'inscription), conservé deux
+ * périodes de reconstruction. Un email absent du filtre local y est cherché
+ * (un ZSCORE, toujours sans requête base) ; l'ensemble est fusionné au filtre à
+ * chaque reconstruction.
+ *
+ * Le filtre n'est pas utilisé (tout email est considéré comme possiblement connu) :
+ * - tant que la première construction n'est pas terminée
+ * - si la dernière reconstruction réussie est plus ancienne que l'ensemble Redis
+ * - si Redis ne répond pas
+ * Les emails sont normalisés en minuscules, comme l'index du login.
+ */
+@Component
+@Slf4j
+public class KnownEmailFilter implements MessageListener {
+
+    private static final ChannelTopic CHANNEL = new ChannelTopic("known-emails");
+    static final String RECENT_KEY = "known_emails:recent";
+
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ReactiveStringRedisTemplate reactiveRedisTemplate;
+    private final AuthMetrics authMetrics;
+    private final double falsePositiveRate;
+    // Durée de conservation des inscriptions récentes dans Redis
+    private final long retentionMs;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+    // Début de la dernière reconstruction réussie (ms)
+    private volatile long builtAt;
+
+    public KnownEmailFilter(
+            UserRepository userRepository,
+            RedisTemplate<String, String> redisTemplate,
+            ReactiveStringRedisTemplate reactiveRedisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            AuthMetrics authMetrics,
+            @Value("${auth.known-emails.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${auth.known-emails.rebuild-interval-ms:300000}") long rebuildIntervalMs
+    ) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.authMetrics = authMetrics;
+        this.falsePositiveRate = falsePositiveRate;
+        this.retentionMs = 2 * rebuildIntervalMs;
+        listenerContainer.addMessageListener(this, CHANNEL);
+    }
+
+    /**
+     * @param email L'email à tester
+     * @return false si l'email n'est certainement pas enregistré
+     */
+    public boolean mightExist(String email) {
+        if (email == null || !isAuthoritative()) {
+            return true;
+        }
+        String normalized = normalize(email);
+        if (current.mightContain(normalized)) {
+            return true;
+        }
+        long start = authMetrics.start();
+        try {
+            return foundInRecent(normalized, redisTemplate.opsForZSet().score(RECENT_KEY, normalized));
+        } catch (RuntimeException e) {
+            // Inscriptions récentes inconnues : la base décide
+            log.debug("Inscriptions récentes illisibles: {}", e.getMessage());
+            return true;
+        } finally {
+            authMetrics.record(RedisOperation.RECENT_EMAIL, start);
+        }
+    }
+
+    /**
+     * mightExist() sans bloquer l'appelant (pile réactive)
+     */
+    public Mono<Boolean> mightExistAsync(String email) {
+        if (email == null || !isAuthoritative()) {
+            return Mono.just(true);
+        }
+        String normalized = normalize(email);
+        if (current.mightContain(normalized)) {
+            return Mono.just(true);
+        }
+        return authMetrics.timed(RedisOperation.RECENT_EMAIL,
+                        reactiveRedisTemplate.opsForZSet().score(RECENT_KEY, normalized))
+                .map(score -> foundInRecent(normalized, score))
+                .defaultIfEmpty(false)
+                .onErrorResume(e -> {
+                    log.debug("Inscriptions récentes illisibles: {}", e.getMessage());
+                    return Mono.just(true);
+                });
+    }
+
+    /**
+     * Ajoute un email nouvellement enregistré et le propage aux autres instances
+     *
+     * @param email L'email enregistré
+     */
+    public void add(String email) {
+        addAll(Set.of(email));
+    }
+
+    /**
+     * Ajoute un lot d'emails enregistrés ; écritures et publications partent dans un seul pipeline Redis
+     *
+     * @param emails Les emails enregistrés
+     */
+    public void addAll(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        emails.forEach(this::addLocally);
+        byte[] channel = CHANNEL.getTopic().getBytes(StandardCharsets.UTF_8);
+        byte[] recentKey = RECENT_KEY.getBytes(StandardCharsets.UTF_8);
+        long now = System.currentTimeMillis();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String email : emails) {
+                    byte[] normalized = normalize(email).getBytes(StandardCharsets.UTF_8);
+                    connection.zSetCommands().zAdd(recentKey, now, normalized);
+                    connection.publish(channel, normalized);
+                }
+                connection.zSetCommands().zRemRangeByScore(recentKey, Double.NEGATIVE_INFINITY, now - retentionMs);
+                connection.keyCommands().pExpire(recentKey, retentionMs);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // Les autres instances le verront à la prochaine reconstruction
+            log.warn("Publication des emails enregistrés impossible: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        addLocally(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reconstruit le filtre depuis la base (au démarrage puis périodiquement)
+     * et y fusionne les inscriptions récentes gardées dans Redis
+     */
+    @Scheduled(fixedDelayString = "${auth.known-emails.rebuild-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        long count = userRepository.count();
+        BloomFilter next = new BloomFilter(Math.max(1024, count * 2), falsePositiveRate);
+        building = next;
+        try (Stream<String> emails = userRepository.streamAllEmails()) {
+            emails.forEach(email -> next.put(normalize(email)));
+        } catch (RuntimeException e) {
+            building = null;
+            throw e;
+        }
+        try {
+            Set<String> recent = redisTemplate.opsForZSet().rangeByScore(RECENT_KEY,
+                    startedAt - retentionMs, Double.POSITIVE_INFINITY);
+            if (recent != null) {
+                recent.forEach(next::put);
+            }
+        } catch (RuntimeException e) {
+            // Sans fusion, un email récent absent du filtre reste cherché dans Redis au login
+            log.warn("Fusion des inscriptions récentes impossible: {}", e.getMessage());
+        }
+        current = next;
+        builtAt = startedAt;
+        building = null;
+        log.info("Filtre des emails connus reconstruit ({} utilisateurs)", count);
+    }
+
+    // Le filtre local ne répond "inconnu" que s'il couvre tout ce que l'ensemble Redis a oublié
+    private boolean isAuthoritative() {
+        return current != null && System.currentTimeMillis() - builtAt < retentionMs;
+    }
+
+    private boolean foundInRecent(String normalized, Double score) {
+        if (score == null) {
+            return false;
+        }
+        // Publication manquée : l'email est connu localement pour les prochains logins
+        addLocally(normalized);
+        return true;
+    }
+
+    private void addLocally(String email) {
+        email = normalize(email);
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(email);
+        }
+        // Inscription pendant une reconstruction : l'ajouter aussi au futur filtre
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(email);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,9 @@
+package com.indentity.identity_app.service;
+
+/**
+ * Résultat du STEP 1 du MFA : token temporaire et, si demandé, le challenge à signer
+ *
+ * @param challenge null si le challenge doit être demandé à /auth/challenge
+ */
+public record LoginTicket(String temporaryToken, String challenge) {
+}
@@ -0,0 +1,296 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.exception.TooManyRequestsException;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.AuthStage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécution BCrypt sur un pool dédié, dimensionné sur le nombre de CPU
+ *
+ * Le pool a une file bornée : quand elle est pleine, la requête est rejetée
+ * immédiatement (429) au lieu d'occuper un thread Tomcat. Le nombre de
+ * vérifications simultanées est aussi limité par email et par IP.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final AuthMetrics authMetrics;
+
+    // Hash de référence pour les emails inconnus : même coût CPU qu'un vrai contrôle
+    private final String dummyHash;
+    private final int maxInFlightPerEmail;
+    private final int maxInFlightPerIp;
+
+    // Vérifications en cours par email / par IP
+    private final ConcurrentHashMap<String, Integer> inFlightByEmail = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> inFlightByIp = new ConcurrentHashMap<>();
+
+    private final Timer hashTimer;
+    private final Counter rejectedSaturated;
+    private final Counter rejectedEmail;
+    private final Counter rejectedIp;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            AuthMetrics authMetrics,
+            @Value("${auth.hashing.threads:0}") int threads,
+            @Value("${auth.hashing.queue-capacity:32}") int queueCapacity,
+            @Value("${auth.hashing.max-in-flight-per-email:2}") int maxInFlightPerEmail,
+            @Value("${auth.hashing.max-in-flight-per-ip:8}") int maxInFlightPerIp
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.authMetrics = authMetrics;
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+        this.maxInFlightPerEmail = maxInFlightPerEmail;
+        this.maxInFlightPerIp = maxInFlightPerIp;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.hashTimer = Timer.builder("auth.hashing.duration")
+                .description("Durée d'un calcul BCrypt (hors attente en file)")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedSaturated = rejectedCounter(meterRegistry, "saturated");
+        this.rejectedEmail = rejectedCounter(meterRegistry, "email");
+        this.rejectedIp = rejectedCounter(meterRegistry, "ip");
+        Gauge.builder("auth.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Calculs BCrypt en attente")
+                .register(meterRegistry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Calculs BCrypt en cours")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Vérifie un mot de passe sur le pool dédié
+     *
+     * @param rawPassword Le mot de passe en clair
+     * @param encodedPassword Le hash BCrypt stocké
+     * @param email L'email concerné (limite par email)
+     * @param clientIp L'IP du client (limite par IP), peut être null
+     * @return true si le mot de passe correspond
+     * @throws TooManyRequestsException Si le pool ou une limite est saturé
+     */
+    public boolean matches(String rawPassword, String encodedPassword, String email, String clientIp) {
+        // Étape complète (admission, attente en file, BCrypt) ; auth.hashing.duration ne mesure que le calcul
+        long start = authMetrics.start();
+        try {
+            return admitAndMatch(rawPassword, encodedPassword, email, clientIp);
+        } finally {
+            authMetrics.record(AuthStage.PASSWORD_CHECK, start);
+        }
+    }
+
+    private boolean admitAndMatch(String rawPassword, String encodedPassword, String email, String clientIp) {
+        admit(email, clientIp);
+        try {
+            return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+        } finally {
+            release(email, clientIp);
+        }
+    }
+
+    /**
+     * matches() sans bloquer l'appelant (pile réactive) : même admission, même pool
+     *
+     * @return Le résultat, complété sur un thread du pool BCrypt
+     * @throws TooManyRequestsException Si le pool ou une limite est saturé (levée immédiatement)
+     */
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String encodedPassword, String email,
+                                                   String clientIp) {
+        long start = authMetrics.start();
+        CompletableFuture<Boolean> result;
+        try {
+            admit(email, clientIp);
+        } catch (TooManyRequestsException e) {
+            authMetrics.record(AuthStage.PASSWORD_CHECK, start);
+            throw e;
+        }
+        try {
+            result = submitAsync(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+        } catch (TooManyRequestsException e) {
+            release(email, clientIp);
+            authMetrics.record(AuthStage.PASSWORD_CHECK, start);
+            throw e;
+        }
+        return result.whenComplete((matched, error) -> {
+            release(email, clientIp);
+            authMetrics.record(AuthStage.PASSWORD_CHECK, start);
+        });
+    }
+
+    /**
+     * matchesDummy() sans bloquer l'appelant
+     *
+     * @return Toujours false, une fois le calcul factice terminé
+     */
+    public CompletableFuture<Boolean> matchesDummyAsync(String rawPassword, String email, String clientIp) {
+        return matchesAsync(rawPassword, dummyHash, email, clientIp).thenApply(matched -> false);
+    }
+
+    // Les deux limites sont prises, ou aucune
+    private void admit(String email, String clientIp) {
+        String emailKey = emailKey(email);
+        if (!tryAcquire(inFlightByEmail, emailKey, maxInFlightPerEmail)) {
+            rejectedEmail.increment();
+            throw new TooManyRequestsException("Too many concurrent login attempts");
+        }
+        if (!tryAcquire(inFlightByIp, clientIp, maxInFlightPerIp)) {
+            release(inFlightByEmail, emailKey);
+            rejectedIp.increment();
+            throw new TooManyRequestsException("Too many concurrent login attempts");
+        }
+    }
+
+    private void release(String email, String clientIp) {
+        release(inFlightByIp, clientIp);
+        release(inFlightByEmail, emailKey(email));
+    }
+
+    // Le login ne tient pas compte de la casse : une seule limite pour toutes les casses d'un email
+    private static String emailKey(String email) {
+        return email != null ? email.toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Effectue une vérification factice contre un hash précalculé
+     * Utilisé quand l'email est inconnu, pour que la réponse prenne le même
+     * temps qu'un mauvais mot de passe (pas d'énumération des comptes)
+     *
+     * @return toujours false
+     */
+    public boolean matchesDummy(String rawPassword, String email, String clientIp) {
+        matches(rawPassword, dummyHash, email, clientIp);
+        return false;
+    }
+
+    /**
+     * Calcule le hash BCrypt d'un mot de passe sur le pool dédié
+     *
+     * @param rawPassword Le mot de passe en clair
+     * @return Le hash BCrypt
+     * @throws TooManyRequestsException Si le pool est saturé
+     */
+    public String encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * encode() sans bloquer l'appelant (pile réactive)
+     *
+     * @throws TooManyRequestsException Si le pool est saturé (levée immédiatement)
+     */
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        return submitAsync(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejectedSaturated.increment();
+            throw new TooManyRequestsException("Server busy, retry later");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private <T> CompletableFuture<T> submitAsync(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(hashTimer.recordCallable(task));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedSaturated.increment();
+            throw new TooManyRequestsException("Server busy, retry later");
+        }
+        return future;
+    }
+
+    private static boolean tryAcquire(ConcurrentHashMap<String, Integer> inFlight, String key, int max) {
+        if (key == null) {
+            return true;
+        }
+        boolean[] acquired = {false};
+        inFlight.compute(key, (k, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= max) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private static void release(ConcurrentHashMap<String, Integer> inFlight, String key) {
+        if (key != null) {
+            inFlight.computeIfPresent(key, (k, count) -> count <= 1 ? null : count - 1);
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("auth.hashing.rejected")
+                .description("Vérifications refusées faute de capacité")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
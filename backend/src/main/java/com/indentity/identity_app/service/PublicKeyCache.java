@@ -0,0 +1,88 @@
+package com.indentity.identity_app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Cache borné des clés publiques déjà décodées (SPKI → PublicKey)
+ *
+ * Une entrée est indexée par l'id de l'utilisateur et porte l'empreinte
+ * SHA-256 de la clé Base64 : si la clé stockée change, l'empreinte ne
+ * correspond plus et la clé est décodée à nouveau.
+ * Les statistiques (hit/miss/eviction) sont exposées via l'actuator.
+ */
+@Component
+public class PublicKeyCache {
+
+    private final Cache<Long, CachedKey> cache;
+
+    public PublicKeyCache(
+            MeterRegistry meterRegistry,
+            @Value("${signature.key-cache.max-size:10000}") long maxSize,
+            @Value("${signature.key-cache.ttl:30m}") Duration ttl
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "publicKeys");
+    }
+
+    /**
+     * Retourne la clé décodée pour un utilisateur, en la décodant si besoin
+     *
+     * @param userId L'id de l'utilisateur
+     * @param publicKeyBase64 La clé publique actuellement stockée (Base64, SPKI)
+     * @param decoder Fonction de décodage utilisée en cas d'absence ou de changement
+     * @return La clé publique
+     */
+    public PublicKey get(Long userId, String publicKeyBase64, Function<String, PublicKey> decoder) {
+        byte[] fingerprint = fingerprint(publicKeyBase64);
+
+        CachedKey cached = cache.getIfPresent(userId);
+        if (cached != null && Arrays.equals(cached.fingerprint(), fingerprint)) {
+            return cached.publicKey();
+        }
+
+        // Absente ou clé modifiée depuis la mise en cache : on décode et on remplace
+        PublicKey publicKey = decoder.apply(publicKeyBase64);
+        cache.put(userId, new CachedKey(fingerprint, publicKey));
+        return publicKey;
+    }
+
+    /**
+     * Invalide la clé d'un utilisateur (appelé quand User.publicKey change)
+     *
+     * @param userId L'id de l'utilisateur
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            cache.invalidate(userId);
+        }
+    }
+
+    private static byte[] fingerprint(String publicKeyBase64) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest(publicKeyBase64.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private record CachedKey(byte[] fingerprint, PublicKey publicKey) {
+    }
+}
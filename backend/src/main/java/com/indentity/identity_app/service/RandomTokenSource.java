@@ -0,0 +1,136 @@
+package com.indentity.identity_app.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Source de tokens aléatoires de 32 octets (challenges, tokens temporaires)
+ *
+ * Les octets viennent de plusieurs instances DRBG indépendantes (stripes),
+ * choisies au hasard à chaque appel, pour limiter la contention.
+ * Optionnellement, un pool sans verrou de tokens prêts à l'emploi est
+ * rempli en tâche de fond ; s'il est vide, le token est généré à la demande.
+ * Le remplissage a son propre thread : les tâches @Scheduled longues (génération
+ * de clés RSA, reconstruction du filtre des emails) ne le retardent pas.
+ */
+@Component
+public class RandomTokenSource {
+
+    private static final int TOKEN_BYTES = 32; // 256 bits
+
+    private final SecureRandom[] stripes;
+    private final boolean poolEnabled;
+    private final int poolCapacity;
+
+    private final ConcurrentLinkedQueue<String> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger poolSize = new AtomicInteger();
+
+    private final Counter refilled;
+    private final Counter underflow;
+    // null si le pool est désactivé
+    private final ScheduledExecutorService refillThread;
+
+    public RandomTokenSource(
+            MeterRegistry meterRegistry,
+            @Value("${auth.random.stripes:0}") int stripeCount,
+            @Value("${auth.random.pool.enabled:false}") boolean poolEnabled,
+            @Value("${auth.random.pool.capacity:1024}") int poolCapacity,
+            @Value("${auth.random.pool.refill-interval-ms:50}") long refillIntervalMs
+    ) {
+        int count = stripeCount > 0 ? stripeCount : Runtime.getRuntime().availableProcessors() * 2;
+        this.stripes = new SecureRandom[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = newDrbg();
+        }
+        this.poolEnabled = poolEnabled;
+        this.poolCapacity = poolCapacity;
+
+        this.refilled = Counter.builder("auth.random.pool.refilled")
+                .description("Tokens ajoutés au pool par le remplissage de fond")
+                .register(meterRegistry);
+        this.underflow = Counter.builder("auth.random.pool.underflow")
+                .description("Tokens générés à la demande faute de stock dans le pool")
+                .register(meterRegistry);
+        Gauge.builder("auth.random.pool.size", poolSize, AtomicInteger::get)
+                .register(meterRegistry);
+
+        if (poolEnabled) {
+            this.refillThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "random-pool-refill");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refillThread.scheduleWithFixedDelay(this::refill, 0, refillIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.refillThread = null;
+        }
+    }
+
+    /**
+     * @return Un token aléatoire de 32 octets, encodé en Base64 URL-safe sans padding
+     */
+    public String nextToken() {
+        if (poolEnabled) {
+            String token = pool.poll();
+            if (token != null) {
+                poolSize.decrementAndGet();
+                return token;
+            }
+            underflow.increment();
+        }
+        return generate();
+    }
+
+    /**
+     * Complète le pool jusqu'à sa capacité (thread de remplissage)
+     */
+    public void refill() {
+        if (!poolEnabled) {
+            return;
+        }
+        int added = 0;
+        while (poolSize.get() < poolCapacity) {
+            pool.offer(generate());
+            poolSize.incrementAndGet();
+            added++;
+        }
+        if (added > 0) {
+            refilled.increment(added);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refillThread != null) {
+            refillThread.shutdownNow();
+        }
+    }
+
+    private String generate() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        stripes[ThreadLocalRandom.current().nextInt(stripes.length)].nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static SecureRandom newDrbg() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.indentity.identity_app.service;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.exception.FailureReason;
+import com.indentity.identity_app.exception.InvalidCredentialsException;
+import com.indentity.identity_app.exception.InvalidTokenException;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.AuthStage;
+import com.indentity.identity_app.repository.CredentialsView;
+import com.indentity.identity_app.repository.PublicKeyView;
+import com.indentity.identity_app.repository.ReactiveUserRepository;
+import com.indentity.identity_app.signature.SignatureAlgorithm;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+
+/**
+ * AuthService pour la pile réactive (profil "reactive") : mêmes étapes, mêmes refus
+ *
+ * Aucun appel ne bloque une boucle d'événements Netty :
+ * - Redis (tokens temporaires, challenges) et Postgres (R2DBC) sont non bloquants
+ * - BCrypt reste sur son pool dédié (mêmes limites par email et par IP)
+ * - signature, détection de la clé et signature du JWT sur le scheduler crypto borné
+ * - refresh tokens, révocation et propagation d'une inscription (appels Redis
+ *   bloquants, rares) sur Schedulers.boundedElastic()
+ */
+@Service
+@Profile("reactive")
+public class ReactiveAuthService {
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveTemporaryTokenStore temporaryTokenStore;
+    private final ReactiveChallengeStore challengeStore;
+    private final PasswordHashingService passwordHashingService;
+    private final SignatureService signatureService;
+    private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final KnownEmailFilter knownEmailFilter;
+    private final UserSnapshotCache userSnapshotCache;
+    private final AuthMetrics authMetrics;
+    private final Scheduler cryptoScheduler;
+
+    public ReactiveAuthService(
+            ReactiveUserRepository userRepository,
+            ReactiveTemporaryTokenStore temporaryTokenStore,
+            ReactiveChallengeStore challengeStore,
+            PasswordHashingService passwordHashingService,
+            SignatureService signatureService,
+            JwtService jwtService,
+            RefreshTokenService refreshTokenService,
+            KnownEmailFilter knownEmailFilter,
+            UserSnapshotCache userSnapshotCache,
+            AuthMetrics authMetrics,
+            @Qualifier("cryptoScheduler") Scheduler cryptoScheduler
+    ) {
+        this.userRepository = userRepository;
+        this.temporaryTokenStore = temporaryTokenStore;
+        this.challengeStore = challengeStore;
+        this.passwordHashingService = passwordHashingService;
+        this.signatureService = signatureService;
+        this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
+        this.knownEmailFilter = knownEmailFilter;
+        this.userSnapshotCache = userSnapshotCache;
+        this.authMetrics = authMetrics;
+        this.cryptoScheduler = cryptoScheduler;
+    }
+
+    /**
+     * @see AuthService#register(String, String, String)
+     */
+    public Mono<Void> register(String email, String rawPassword, String publicKey) {
+        Mono<Optional<SignatureAlgorithm>> algorithm = publicKey == null || publicKey.isBlank()
+                ? Mono.just(Optional.empty())
+                : Mono.fromCallable(() -> Optional.of(signatureService.detectAlgorithm(publicKey)
+                                .orElseThrow(() -> new InvalidCredentialsException(FailureReason.INVALID_PUBLIC_KEY,
+                                        "Unsupported public key"))))
+                        .subscribeOn(cryptoScheduler);
+
+        return userRepository.existsByEmail(email)
+                .flatMap(exists -> exists
+                        ? Mono.error(new InvalidCredentialsException(FailureReason.USER_EXISTS,
+                                "User already exists with email: " + email))
+                        : algorithm)
+                .flatMap(detected -> Mono.fromFuture(() -> passwordHashingService.encodeAsync(rawPassword), true)
+                        .flatMap(hashed -> userRepository.insert(email, hashed, publicKey, detected.orElse(null),
+                                Role.USER)))
+                // Ce que fait UserEntityListener pour une inscription JPA, et le filtre des emails connus
+                .flatMap(id -> Mono.fromRunnable(() -> {
+                            userSnapshotCache.revoke(email);
+                            knownEmailFilter.add(email);
+                        })
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .then();
+    }
+
+    /**
+     * @see AuthService#loginStep1(String, String, String)
+     */
+    public Mono<String> loginStep1(String email, String rawPassword, String clientIp) {
+        return checkPassword(email, rawPassword, clientIp)
+                .then(temporaryTokenStore.generateTemporaryToken(email));
+    }
+
+    /**
+     * @see AuthService#loginStep1WithChallenge(String, String, String)
+     */
+    public Mono<LoginTicket> loginStep1WithChallenge(String email, String rawPassword, String clientIp) {
+        return checkPassword(email, rawPassword, clientIp)
+                .then(temporaryTokenStore.generateTemporaryTokenWithChallenge(email));
+    }
+
+    private Mono<Void> checkPassword(String email, String rawPassword, String clientIp) {
+        // Email certainement inconnu : BCrypt factice, sans requête base
+        return knownEmailFilter.mightExistAsync(email)
+                .flatMap(known -> known
+                        ? checkKnownPassword(email, rawPassword, clientIp)
+                        : unknownUser(rawPassword, email, clientIp));
+    }
+
+    private Mono<Void> checkKnownPassword(String email, String rawPassword, String clientIp) {
+        return authMetrics.timed(AuthStage.USER_LOOKUP, userRepository.findCredentialsByEmail(email))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(found -> {
+                    if (found.isEmpty()) {
+                        return unknownUser(rawPassword, email, clientIp);
+                    }
+                    CredentialsView user = found.get();
+                    // Pool BCrypt dédié (429 si saturé) ; le slot est gardé jusqu'à la fin du calcul
+                    return Mono.fromFuture(() -> passwordHashingService.matchesAsync(
+                                    rawPassword, user.passwordHash(), email, clientIp), true)
+                            .flatMap(matched -> {
+                                if (!matched) {
+                                    return Mono.error(new InvalidCredentialsException(FailureReason.BAD_PASSWORD,
+                                            "Invalid credentials"));
+                                }
+                                if (!user.hasPublicKey()) {
+                                    return Mono.error(new InvalidCredentialsException(FailureReason.NO_PUBLIC_KEY,
+                                            "User does not have RSA keys configured"));
+                                }
+                                return Mono.<Void>empty();
+                            });
+                });
+    }
+
+    private Mono<Void> unknownUser(String rawPassword, String email, String clientIp) {
+        return Mono.fromFuture(() -> passwordHashingService.matchesDummyAsync(rawPassword, email, clientIp), true)
+                .then(Mono.error(new InvalidCredentialsException(FailureReason.UNKNOWN_USER, "Invalid credentials")));
+    }
+
+    /**
+     * @see AuthService#requestChallengeWithToken(String)
+     */
+    public Mono<String> requestChallengeWithToken(String temporaryToken) {
+        return temporaryTokenStore.validateTemporaryToken(temporaryToken)
+                .switchIfEmpty(Mono.error(() -> new InvalidCredentialsException(
+                        FailureReason.INVALID_TEMPORARY_TOKEN, "Invalid or expired temporary token")))
+                .flatMap(challengeStore::generateChallenge);
+    }
+
+    /**
+     * @see AuthService#authenticateWithSignature(String, String, String)
+     */
+    public Mono<TokenPair> authenticateWithSignature(String temporaryToken, String challenge, String signature) {
+        return temporaryTokenStore.consumeTemporaryTokenAndChallenge(temporaryToken, challenge)
+                .flatMap(consumed -> {
+                    if (consumed.getValue() == null) {
+                        return Mono.error(new InvalidCredentialsException(FailureReason.INVALID_TEMPORARY_TOKEN,
+                                "Invalid or expired temporary token"));
+                    }
+                    if (!consumed.isLinkedMatched()) {
+                        return Mono.error(new InvalidCredentialsException(FailureReason.INVALID_CHALLENGE,
+                                "Invalid or expired challenge"));
+                    }
+                    return authMetrics.timed(AuthStage.USER_LOOKUP,
+                            userRepository.findPublicKeyByEmail(consumed.getValue()));
+                })
+                .switchIfEmpty(Mono.error(() -> new InvalidCredentialsException(FailureReason.UNKNOWN_USER,
+                        "Invalid credentials")))
+                .flatMap(user -> verifySignature(user, challenge, signature))
+                // Email tel qu'enregistré (le login ne tient pas compte de la casse)
+                .flatMap(user -> Mono.fromCallable(() -> jwtService.generateToken(user.email(), user.role()))
+                        .subscribeOn(cryptoScheduler)
+                        .flatMap(accessToken -> Mono.fromCallable(() -> new TokenPair(
+                                        accessToken, refreshTokenService.issue(user.email(), user.role())))
+                                .subscribeOn(Schedulers.boundedElastic())));
+    }
+
+    private Mono<PublicKeyView> verifySignature(PublicKeyView user, String challenge, String signature) {
+        SignatureCheck check = new SignatureCheck(challenge, signature, user.id(), user.publicKey(),
+                user.publicKeyAlgorithm());
+        return Mono.fromCallable(() -> signatureService.verifySignature(check))
+                .subscribeOn(cryptoScheduler)
+                .flatMap(valid -> valid
+                        ? Mono.just(user)
+                        : Mono.error(new InvalidCredentialsException(FailureReason.INVALID_SIGNATURE,
+                                "Invalid signature")));
+    }
+
+    /**
+     * @see RefreshTokenService#refresh(String)
+     * Script Redis bloquant sur boundedElastic, rôle courant lu en R2DBC, puis signature du JWT
+     * (et révocation si l'utilisateur n'existe plus) sur boundedElastic
+     */
+    public Mono<TokenPair> refresh(String refreshToken) {
+        return authMetrics.timed(AuthStage.TOKEN_REFRESH, Mono.fromCallable(() -> refreshTokenService.rotate(refreshToken))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(rotation -> authMetrics.timed(AuthStage.USER_LOOKUP, userRepository.findRoleByEmail(rotation.email()))
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .publishOn(Schedulers.boundedElastic())
+                        .map(user -> refreshTokenService.complete(rotation, user.orElse(null)))));
+    }
+
+    /**
+     * @see AuthService#logout(String, String)
+     */
+    public Mono<Void> logout(String accessToken, String refreshToken) {
+        return Mono.<Void>fromRunnable(() -> {
+                    try {
+                        jwtService.revoke(accessToken);
+                    } catch (JWTVerificationException e) {
+                        throw new InvalidTokenException("Invalid or expired token");
+                    }
+                    if (refreshToken != null) {
+                        refreshTokenService.revoke(refreshToken);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,39 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.RedisOperation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * ChallengeService pour la pile réactive (profil "reactive")
+ * Mêmes clés et même durée de vie : le challenge est consommé au STEP 3
+ * par ReactiveTemporaryTokenStore ou par une instance servlet
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveChallengeStore {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RandomTokenSource randomTokenSource;
+    private final AuthMetrics authMetrics;
+
+    /**
+     * Génère un nouveau challenge pour un utilisateur
+     *
+     * @param email L'email de l'utilisateur
+     * @return Le challenge, une fois stocké dans Redis
+     */
+    public Mono<String> generateChallenge(String email) {
+        return Mono.defer(() -> {
+            String challenge = randomTokenSource.nextToken();
+            Mono<Boolean> stored = redisTemplate.opsForValue()
+                    .set(ChallengeService.CHALLENGE_PREFIX + email, challenge, ChallengeService.CHALLENGE_TTL);
+            return authMetrics.timed(RedisOperation.PUT, stored).thenReturn(challenge);
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.RedisOperation;
+import com.indentity.identity_app.store.LinkedConsumption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * TemporaryTokenService pour la pile réactive (profil "reactive")
+ *
+ * Mêmes clés, mêmes scripts Lua et mêmes durées de vie que TemporaryTokenService :
+ * un token émis par une instance réactive est accepté par une instance servlet
+ * et inversement. Chaque opération reste un seul aller-retour Redis.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveTemporaryTokenStore {
+
+    private static final RedisScript<Long> PUT_PAIR =
+            RedisScript.of(new ClassPathResource("scripts/put_pair.lua"), Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CONSUME_PAIR_OR_LINKED =
+            RedisScript.of(new ClassPathResource("scripts/consume_pair_or_linked.lua"), List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RandomTokenSource randomTokenSource;
+    private final AuthMetrics authMetrics;
+    private final boolean loginChallengeEnabled;
+
+    public ReactiveTemporaryTokenStore(
+            ReactiveStringRedisTemplate redisTemplate,
+            RandomTokenSource randomTokenSource,
+            AuthMetrics authMetrics,
+            @Value("${auth.mfa.login-challenge.enabled:true}") boolean loginChallengeEnabled
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.randomTokenSource = randomTokenSource;
+        this.authMetrics = authMetrics;
+        this.loginChallengeEnabled = loginChallengeEnabled;
+    }
+
+    /**
+     * @see TemporaryTokenService#generateTemporaryToken(String)
+     */
+    public Mono<String> generateTemporaryToken(String email) {
+        return Mono.defer(() -> {
+            String token = randomTokenSource.nextToken();
+            Mono<Boolean> stored = redisTemplate.opsForValue()
+                    .set(TemporaryTokenService.TEMP_TOKEN_PREFIX + token, email, TemporaryTokenService.TOKEN_VALIDITY);
+            return authMetrics.timed(RedisOperation.PUT, stored).thenReturn(token);
+        });
+    }
+
+    /**
+     * @see TemporaryTokenService#generateTemporaryTokenWithChallenge(String)
+     */
+    public Mono<LoginTicket> generateTemporaryTokenWithChallenge(String email) {
+        if (!loginChallengeEnabled) {
+            return generateTemporaryToken(email).map(token -> new LoginTicket(token, null));
+        }
+        return Mono.defer(() -> {
+            String token = randomTokenSource.nextToken();
+            String challenge = randomTokenSource.nextToken();
+            Mono<Long> stored = redisTemplate.execute(PUT_PAIR,
+                            List.of(TemporaryTokenService.LOGIN_CHALLENGE_PREFIX + token),
+                            List.of(email, challenge, String.valueOf(ChallengeService.CHALLENGE_TTL.toMillis())))
+                    .next();
+            return authMetrics.timed(RedisOperation.PUT_PAIR, stored).thenReturn(new LoginTicket(token, challenge));
+        });
+    }
+
+    /**
+     * @return L'email associé au token, ou vide si le token est invalide ou expiré
+     */
+    public Mono<String> validateTemporaryToken(String token) {
+        return authMetrics.timed(RedisOperation.GET,
+                redisTemplate.opsForValue().get(TemporaryTokenService.TEMP_TOKEN_PREFIX + token));
+    }
+
+    /**
+     * @see TemporaryTokenService#consumeTemporaryTokenAndChallenge(String, String)
+     */
+    public Mono<LinkedConsumption> consumeTemporaryTokenAndChallenge(String token, String challenge) {
+        Mono<List<?>> result = redisTemplate.execute(CONSUME_PAIR_OR_LINKED,
+                        List.of(TemporaryTokenService.LOGIN_CHALLENGE_PREFIX + token,
+                                TemporaryTokenService.TEMP_TOKEN_PREFIX + token),
+                        List.of(ChallengeService.CHALLENGE_PREFIX, challenge != null ? challenge : ""))
+                .<List<?>>map(list -> list)
+                .next();
+        return authMetrics.timed(RedisOperation.CONSUME_PAIR_OR_LINKED, result)
+                .map(list -> list.size() < 2
+                        ? new LinkedConsumption(null, false)
+                        : new LinkedConsumption((String) list.get(0), "1".equals(list.get(1))))
+                .defaultIfEmpty(new LinkedConsumption(null, false));
+    }
+}
@@ -0,0 +1,189 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.exception.FailureReason;
+import com.indentity.identity_app.exception.InvalidCredentialsException;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.AuthStage;
+import com.indentity.identity_app.repository.RoleView;
+import com.indentity.identity_app.store.RefreshRotation;
+import com.indentity.identity_app.store.RefreshTokenStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Refresh tokens opaques : renouvellement du JWT sans refaire BCrypt ni le challenge
+ *
+ * Format : "<famille>.<secret>", deux tokens aléatoires de 256 bits. Chaque
+ * utilisation remplace le secret (rotation) ; un secret déjà remplacé révoque
+ * la famille. Un renouvellement coûte un script Redis, une lecture du rôle
+ * courant (un rôle changé depuis le MFA s'applique au JWT suivant) et une
+ * signature JWT ; un utilisateur supprimé ne peut plus renouveler.
+ */
+@Service
+public class RefreshTokenService {
+
+    private final RefreshTokenStore refreshTokenStore;
+    private final RandomTokenSource randomTokenSource;
+    private final JwtService jwtService;
+    private final UserLookup userLookup;
+    private final AuthMetrics authMetrics;
+    private final boolean enabled;
+    private final Duration idleTtl;
+    private final Duration maxLifetime;
+
+    public RefreshTokenService(
+            RefreshTokenStore refreshTokenStore,
+            RandomTokenSource randomTokenSource,
+            JwtService jwtService,
+            UserLookup userLookup,
+            AuthMetrics authMetrics,
+            @Value("${auth.refresh.enabled:true}") boolean enabled,
+            @Value("${auth.refresh.idle-ttl:7d}") Duration idleTtl,
+            @Value("${auth.refresh.max-lifetime:30d}") Duration maxLifetime
+    ) {
+        this.refreshTokenStore = refreshTokenStore;
+        this.randomTokenSource = randomTokenSource;
+        this.jwtService = jwtService;
+        this.userLookup = userLookup;
+        this.authMetrics = authMetrics;
+        this.enabled = enabled;
+        this.idleTtl = idleTtl;
+        this.maxLifetime = maxLifetime;
+    }
+
+    /**
+     * Ouvre une famille après une authentification MFA complète
+     *
+     * @param email Email de l'utilisateur (tel qu'enregistré)
+     * @param role Rôle de l'utilisateur, repris dans les JWT renouvelés
+     * @return Le premier refresh token, ou null si les refresh tokens sont désactivés
+     */
+    public String issue(String email, Role role) {
+        if (!enabled) {
+            return null;
+        }
+        String familyId = randomTokenSource.nextToken();
+        String secret = randomTokenSource.nextToken();
+        refreshTokenStore.create(familyId, hash(secret), email, role.name(), idleTtl,
+                Instant.now().plus(maxLifetime));
+        return familyId + "." + secret;
+    }
+
+    /**
+     * Ouvre une famille par utilisateur authentifié d'un lot, en un aller-retour Redis
+     *
+     * @param subjects Les utilisateurs authentifiés (email tel qu'enregistré et rôle)
+     * @return Le premier refresh token de chaque famille, dans l'ordre ; des null si désactivés
+     */
+    public List<String> issueAll(List<TokenSubject> subjects) {
+        if (!enabled) {
+            return Collections.nCopies(subjects.size(), null);
+        }
+        List<RefreshTokenStore.NewFamily> families = new ArrayList<>(subjects.size());
+        List<String> tokens = new ArrayList<>(subjects.size());
+        for (TokenSubject subject : subjects) {
+            String familyId = randomTokenSource.nextToken();
+            String secret = randomTokenSource.nextToken();
+            families.add(new RefreshTokenStore.NewFamily(familyId, hash(secret), subject.email(), subject.role().name()));
+            tokens.add(familyId + "." + secret);
+        }
+        refreshTokenStore.createAll(families, idleTtl, Instant.now().plus(maxLifetime));
+        return tokens;
+    }
+
+    /**
+     * Échange un refresh token contre un nouveau JWT et un nouveau refresh token
+     *
+     * @param refreshToken Le refresh token courant
+     * @return Le JWT et le refresh token suivant (le token présenté n'est plus valide)
+     * @throws InvalidCredentialsException Si le token est inconnu, expiré ou déjà utilisé,
+     *                                     ou si l'utilisateur n'existe plus
+     */
+    public TokenPair refresh(String refreshToken) {
+        long start = authMetrics.start();
+        try {
+            Rotation rotation = rotate(refreshToken);
+            return complete(rotation, userLookup.role(rotation.email()).orElse(null));
+        } finally {
+            authMetrics.record(AuthStage.TOKEN_REFRESH, start);
+        }
+    }
+
+    /**
+     * Première moitié de refresh() : rotation dans Redis (pile réactive : rôle lu en R2DBC entre les deux)
+     *
+     * @throws InvalidCredentialsException Si le token est inconnu, expiré ou déjà utilisé
+     */
+    Rotation rotate(String refreshToken) {
+        int separator = refreshToken != null ? refreshToken.indexOf('.') : -1;
+        if (!enabled || separator <= 0 || separator == refreshToken.length() - 1) {
+            throw new InvalidCredentialsException(FailureReason.INVALID_REFRESH_TOKEN, "Invalid or expired refresh token");
+        }
+        String familyId = refreshToken.substring(0, separator);
+        String secret = randomTokenSource.nextToken();
+
+        RefreshRotation rotation = refreshTokenStore.rotate(familyId, hash(refreshToken.substring(separator + 1)),
+                hash(secret), idleTtl, Instant.now());
+        return switch (rotation.getStatus()) {
+            case REUSED -> throw new InvalidCredentialsException(FailureReason.REFRESH_TOKEN_REUSED,
+                    "Invalid or expired refresh token");
+            case UNKNOWN -> throw new InvalidCredentialsException(FailureReason.INVALID_REFRESH_TOKEN,
+                    "Invalid or expired refresh token");
+            case ROTATED -> new Rotation(familyId, rotation.getEmail(), familyId + "." + secret);
+        };
+    }
+
+    /**
+     * Seconde moitié de refresh() : JWT signé avec le rôle courant de l'utilisateur
+     *
+     * @param user L'utilisateur relu en base, null s'il n'existe plus (la famille est alors révoquée)
+     * @throws InvalidCredentialsException Si l'utilisateur n'existe plus
+     */
+    TokenPair complete(Rotation rotation, RoleView user) {
+        if (user == null) {
+            refreshTokenStore.revoke(rotation.familyId());
+            throw new InvalidCredentialsException(FailureReason.INVALID_REFRESH_TOKEN, "Invalid or expired refresh token");
+        }
+        return new TokenPair(jwtService.generateToken(user.email(), user.role()), rotation.nextRefreshToken());
+    }
+
+    /**
+     * Révoque la famille d'un refresh token (déconnexion)
+     * Présenter un token de la famille suffit, même déjà remplacé
+     *
+     * @param refreshToken Un refresh token de la famille
+     */
+    public void revoke(String refreshToken) {
+        int separator = refreshToken != null ? refreshToken.indexOf('.') : -1;
+        if (enabled && separator > 0) {
+            refreshTokenStore.revoke(refreshToken.substring(0, separator));
+        }
+    }
+
+    /**
+     * Famille dont le token vient d'être remplacé, avant la lecture du rôle
+     */
+    record Rotation(String familyId, String email, String nextRefreshToken) {
+    }
+
+    // Empreinte stockée à la place du secret : une copie de Redis ne donne aucun token utilisable
+    private static String hash(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
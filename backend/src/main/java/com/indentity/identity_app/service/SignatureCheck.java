@@ -0,0 +1,12 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.signature.SignatureAlgorithm;
+
+/**
+ * Une signature de challenge à vérifier (SignatureService.verifySignatures, pile réactive)
+ *
+ * @param algorithm Le schéma stocké avec la clé (null : détecté depuis la clé)
+ */
+public record SignatureCheck(String challenge, String signature, Long userId, String publicKey,
+                             SignatureAlgorithm algorithm) {
+}
@@ -1,25 +1,138 @@
 package com.indentity.identity_app.service;
 
+import com.indentity.identity_app.event.AuthEvent;
+import com.indentity.identity_app.event.AuthEventLogger;
+import com.indentity.identity_app.exception.FailureReason;
 import com.indentity.identity_app.exception.InvalidCredentialsException;
-import lombok.extern.slf4j.Slf4j;
+import com.indentity.identity_app.exception.TooManyRequestsException;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.AuthStage;
+import com.indentity.identity_app.signature.SignatureAlgorithm;
+import com.indentity.identity_app.signature.SignatureVerifier;
+import com.indentity.identity_app.signature.SignatureVerifierRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.security.KeyFactory;
+import java.nio.charset.StandardCharsets;
 import java.security.PublicKey;
-import java.security.Signature;
-import java.security.spec.X509EncodedKeySpec;
 import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
- * Service de vérification des signatures RSA
+ * Service de vérification des signatures de challenge
  * 
  * Vérifie qu'une signature a bien été créée avec la clé privée
- * correspondant à la clé publique stockée
+ * correspondant à la clé publique stockée, avec le vérificateur du schéma
+ * de cette clé (RSA, ECDSA P-256 ou Ed25519, cf. SignatureVerifierRegistry)
+ * Les résultats sont agrégés et échantillonnés par AuthEventLogger
+ * (pas de ligne de log par vérification).
  */
 @Service
-@Slf4j
 public class SignatureService {
 
+    private final PublicKeyCache publicKeyCache;
+    private final SignatureVerifierRegistry verifiers;
+    private final ExecutorService cryptoExecutor;
+    // true : la vérification s'exécute sur le pool plateforme borné (threads virtuels)
+    private final boolean offload;
+    private final AuthMetrics authMetrics;
+    private final AuthEventLogger authEvents;
+
+    public SignatureService(
+            PublicKeyCache publicKeyCache,
+            SignatureVerifierRegistry verifiers,
+            AuthMetrics authMetrics,
+            AuthEventLogger authEvents,
+            @Qualifier("cryptoExecutor") ExecutorService cryptoExecutor,
+            @Value("${auth.crypto.offload:false}") boolean offload
+    ) {
+        this.publicKeyCache = publicKeyCache;
+        this.verifiers = verifiers;
+        this.authMetrics = authMetrics;
+        this.authEvents = authEvents;
+        this.cryptoExecutor = cryptoExecutor;
+        this.offload = offload;
+    }
+
+    /**
+     * Vérifie qu'une signature est valide en réutilisant la clé décodée
+     * de l'utilisateur si elle est en cache
+     *
+     * @param challenge Le challenge original (texte)
+     * @param signatureBase64 La signature encodée en Base64
+     * @param userId L'id de l'utilisateur propriétaire de la clé
+     * @param publicKeyBase64 La clé publique encodée en Base64 (format SPKI)
+     * @param algorithm Le schéma stocké avec la clé (null : détecté depuis la clé)
+     * @return true si la signature est valide, false sinon
+     * @throws TooManyRequestsException Si la vérification doit passer par le pool crypto et que sa file est pleine
+     */
+    public boolean verifySignature(String challenge, String signatureBase64, Long userId, String publicKeyBase64,
+                                   SignatureAlgorithm algorithm) {
+        return verifySignature(challenge, signatureBase64, userId, publicKeyBase64, algorithm, offload);
+    }
+
+    /**
+     * Vérifie un lot de signatures (authentification de flottes)
+     * Les vérifications s'exécutent en parallèle dans le ForkJoinPool appelant
+     * (pool commun hors d'une tâche ForkJoin), jamais sur le pool cryptoExecutor
+     *
+     * @param checks Les signatures à vérifier
+     * @return Le résultat de chaque vérification, dans l'ordre des signatures
+     */
+    public List<Boolean> verifySignatures(List<SignatureCheck> checks) {
+        return checks.parallelStream()
+                .map(this::verifySignature)
+                .toList();
+    }
+
+    /**
+     * Vérifie une signature sur le thread appelant, sans auth.crypto.offload
+     * (l'appelant choisit lui-même où s'exécute le calcul : lots, pile réactive)
+     *
+     * @param check La signature à vérifier
+     * @return true si la signature est valide, false sinon
+     */
+    public boolean verifySignature(SignatureCheck check) {
+        return verifySignature(check.challenge(), check.signature(), check.userId(),
+                check.publicKey(), check.algorithm(), false);
+    }
+
+    private boolean verifySignature(String challenge, String signatureBase64, Long userId, String publicKeyBase64,
+                                    SignatureAlgorithm algorithm, boolean offload) {
+        long start = authMetrics.start();
+        try {
+            SignatureVerifier verifier = verifier(publicKeyBase64, algorithm);
+            PublicKey publicKey = publicKeyCache.get(userId, publicKeyBase64, key -> decodePublicKey(verifier, key));
+            boolean isValid = offload
+                    ? cryptoExecutor.submit(() -> verify(verifier, challenge, signatureBase64, publicKey)).get()
+                    : verify(verifier, challenge, signatureBase64, publicKey);
+            authEvents.record(isValid ? AuthEvent.SIGNATURE_VALID : AuthEvent.SIGNATURE_INVALID, userId);
+            return isValid;
+        } catch (RejectedExecutionException e) {
+            // File du pool crypto pleine : la requête est refusée, pas calculée sur le thread appelant
+            throw new TooManyRequestsException("Server busy, retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            authEvents.record(AuthEvent.SIGNATURE_ERROR, userId, e.getCause().getMessage());
+            return false;
+        } catch (InvalidCredentialsException e) {
+            // Clé publique indécodable : déjà enregistrée par decodePublicKey
+            return false;
+        } catch (Exception e) {
+            authEvents.record(AuthEvent.SIGNATURE_ERROR, userId, e.getMessage());
+            return false;
+        } finally {
+            authMetrics.record(AuthStage.SIGNATURE_VERIFY, start);
+        }
+    }
+
     /**
      * Vérifie qu'une signature est valide
      * 
@@ -30,57 +143,79 @@ public class SignatureService {
      */
     public boolean verifySignature(String challenge, String signatureBase64, String publicKeyBase64) {
         try {
-            // 1. Décoder la clé publique depuis Base64
-            PublicKey publicKey = decodePublicKey(publicKeyBase64);
-            
-            // 2. Décoder la signature depuis Base64
-            byte[] signatureBytes = Base64.getDecoder().decode(signatureBase64);
-            
-            // 3. Créer le vérificateur de signature
-            Signature signature = Signature.getInstance("SHA256withRSA");
-            signature.initVerify(publicKey);
-            
-            // 4. Fournir les données originales (le challenge)
-            signature.update(challenge.getBytes());
-            
-            // 5. Vérifier la signature
-            boolean isValid = signature.verify(signatureBytes);
-            
-            if (isValid) {
-                log.info(" Signature valide");
-            } else {
-                log.warn(" Signature invalide");
-            }
-            
+            // Détecter le schéma puis décoder la clé publique depuis Base64
+            SignatureVerifier verifier = verifier(publicKeyBase64, null);
+            PublicKey publicKey = decodePublicKey(verifier, publicKeyBase64);
+            boolean isValid = verify(verifier, challenge, signatureBase64, publicKey);
+            authEvents.record(isValid ? AuthEvent.SIGNATURE_VALID : AuthEvent.SIGNATURE_INVALID, null);
             return isValid;
-            
+
+        } catch (InvalidCredentialsException e) {
+            return false;
         } catch (Exception e) {
-            log.error("Erreur lors de la vérification de la signature: {}", e.getMessage());
+            authEvents.record(AuthEvent.SIGNATURE_ERROR, null, e.getMessage());
             return false;
         }
     }
 
     /**
-     * Décode une clé publique RSA depuis Base64 (format SPKI)
+     * Détermine le schéma d'une clé publique et vérifie qu'elle se décode
+     * (inscription : le schéma est stocké avec la clé)
+     *
+     * @param publicKeyBase64 La clé publique en Base64 (format SPKI)
+     * @return Le schéma, ou vide si la clé est invalide ou d'un schéma non supporté
+     */
+    public Optional<SignatureAlgorithm> detectAlgorithm(String publicKeyBase64) {
+        if (publicKeyBase64 == null || publicKeyBase64.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            SignatureVerifier verifier = verifier(publicKeyBase64, null);
+            decodePublicKey(verifier, publicKeyBase64);
+            return Optional.of(verifier.algorithm());
+        } catch (InvalidCredentialsException e) {
+            return Optional.empty();
+        }
+    }
+
+    private boolean verify(SignatureVerifier verifier, String challenge, String signatureBase64, PublicKey publicKey)
+            throws Exception {
+        // Décoder la signature depuis Base64 puis la vérifier sur le challenge
+        byte[] signatureBytes = Base64.getDecoder().decode(signatureBase64);
+        return verifier.verify(publicKey, challenge.getBytes(StandardCharsets.UTF_8), signatureBytes);
+    }
+
+    private SignatureVerifier verifier(String publicKeyBase64, SignatureAlgorithm algorithm) {
+        if (algorithm != null) {
+            return verifiers.get(algorithm);
+        }
+        // Clé sans schéma enregistré : d'après son AlgorithmIdentifier
+        SignatureAlgorithm detected;
+        try {
+            detected = verifiers.detect(Base64.getDecoder().decode(publicKeyBase64)).orElse(null);
+        } catch (IllegalArgumentException e) {
+            detected = null;
+        }
+        if (detected == null) {
+            authEvents.record(AuthEvent.PUBLIC_KEY_INVALID, null, "unsupported key algorithm");
+            throw new InvalidCredentialsException(FailureReason.INVALID_PUBLIC_KEY, "Clé publique invalide");
+        }
+        return verifiers.get(detected);
+    }
+
+    /**
+     * Décode une clé publique depuis Base64 (format SPKI)
      * 
+     * @param verifier Le vérificateur du schéma de la clé
      * @param publicKeyBase64 La clé publique en Base64
      * @return L'objet PublicKey Java
      */
-    private PublicKey decodePublicKey(String publicKeyBase64) {
+    private PublicKey decodePublicKey(SignatureVerifier verifier, String publicKeyBase64) {
         try {
-            // Décoder le Base64
-            byte[] keyBytes = Base64.getDecoder().decode(publicKeyBase64);
-            
-            // Créer la spécification X.509 (format SPKI)
-            X509EncodedKeySpec spec = new X509EncodedKeySpec(keyBytes);
-            
-            // Générer la clé publique RSA
-            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-            return keyFactory.generatePublic(spec);
-            
+            return verifier.decodePublicKey(Base64.getDecoder().decode(publicKeyBase64));
         } catch (Exception e) {
-            log.error("Erreur lors du décodage de la clé publique: {}", e.getMessage());
-            throw new InvalidCredentialsException("Clé publique invalide");
+            authEvents.record(AuthEvent.PUBLIC_KEY_INVALID, null, e.getMessage());
+            throw new InvalidCredentialsException(FailureReason.INVALID_PUBLIC_KEY, "Clé publique invalide");
         }
     }
 }
@@ -1,22 +1,35 @@
 package com.indentity.identity_app.service;
 
-import org.springframework.data.redis.core.RedisTemplate;
+import com.indentity.identity_app.store.LinkedConsumption;
+import com.indentity.identity_app.store.OneTimeValueStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.security.SecureRandom;
 import java.time.Duration;
-import java.util.Base64;
+import java.util.List;
 
 @Service
 public class TemporaryTokenService {
 
-    private static final String TEMP_TOKEN_PREFIX = "temp_token:";
-    private static final Duration TOKEN_VALIDITY = Duration.ofMinutes(5); // 5 minutes pour compléter le MFA
-    private final RedisTemplate<String, String> redisTemplate;
-    private final SecureRandom secureRandom = new SecureRandom();
+    // Mêmes clés pour ReactiveTemporaryTokenStore : une instance servlet et une
+    // instance réactive peuvent traiter les étapes d'un même login
+    static final String TEMP_TOKEN_PREFIX = "temp_token:";
+    // Token émis avec son challenge : hash { value = email, linked = challenge }
+    static final String LOGIN_CHALLENGE_PREFIX = "login_challenge:";
+    static final Duration TOKEN_VALIDITY = Duration.ofMinutes(5); // 5 minutes pour compléter le MFA
+    private final OneTimeValueStore oneTimeValueStore;
+    private final RandomTokenSource randomTokenSource;
+    // true : le STEP 1 peut renvoyer le challenge avec le token (un aller-retour HTTP de moins)
+    private final boolean loginChallengeEnabled;
 
-    public TemporaryTokenService(RedisTemplate<String, String> redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    public TemporaryTokenService(
+            OneTimeValueStore oneTimeValueStore,
+            RandomTokenSource randomTokenSource,
+            @Value("${auth.mfa.login-challenge.enabled:true}") boolean loginChallengeEnabled
+    ) {
+        this.oneTimeValueStore = oneTimeValueStore;
+        this.randomTokenSource = randomTokenSource;
+        this.loginChallengeEnabled = loginChallengeEnabled;
     }
 
     /**
@@ -26,17 +39,33 @@ public class TemporaryTokenService {
      */
     public String generateTemporaryToken(String email) {
         // Générer un token aléatoire de 32 bytes
-        byte[] tokenBytes = new byte[32];
-        secureRandom.nextBytes(tokenBytes);
-        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+        String token = randomTokenSource.nextToken();
 
         // Stocker dans Redis : token → email
         String key = TEMP_TOKEN_PREFIX + token;
-        redisTemplate.opsForValue().set(key, email, TOKEN_VALIDITY);
+        oneTimeValueStore.put(key, email, TOKEN_VALIDITY);
 
         return token;
     }
 
+    /**
+     * Génère un token temporaire et le challenge à signer en une seule écriture Redis
+     * (un hash, une seule durée de vie : celle du challenge). Le client passe
+     * directement au STEP 3, sans appeler /auth/challenge.
+     * Désactivé (auth.mfa.login-challenge.enabled=false) : token seul, challenge null
+     * @param email Email de l'utilisateur
+     * @return Le token temporaire et son challenge
+     */
+    public LoginTicket generateTemporaryTokenWithChallenge(String email) {
+        if (!loginChallengeEnabled) {
+            return new LoginTicket(generateTemporaryToken(email), null);
+        }
+        String token = randomTokenSource.nextToken();
+        String challenge = randomTokenSource.nextToken();
+        oneTimeValueStore.putPair(LOGIN_CHALLENGE_PREFIX + token, email, challenge, ChallengeService.CHALLENGE_TTL);
+        return new LoginTicket(token, challenge);
+    }
+
     /**
      * Valide et récupère l'email associé au token temporaire
      * @param token Le token temporaire
@@ -44,22 +73,51 @@ public class TemporaryTokenService {
      */
     public String validateTemporaryToken(String token) {
         String key = TEMP_TOKEN_PREFIX + token;
-        return redisTemplate.opsForValue().get(key);
+        return oneTimeValueStore.get(key);
     }
 
     /**
-     * Consomme le token temporaire (suppression après usage)
+     * Consomme le token temporaire (lecture et suppression atomiques)
      * @param token Le token temporaire
      * @return L'email si valide et consommé, null sinon
      */
     public String consumeTemporaryToken(String token) {
         String key = TEMP_TOKEN_PREFIX + token;
-        String email = redisTemplate.opsForValue().get(key);
-        
-        if (email != null) {
-            redisTemplate.delete(key);
-        }
-        
-        return email;
+        return oneTimeValueStore.consume(key);
+    }
+
+    /**
+     * Consomme le token temporaire et le challenge de l'utilisateur associé
+     * en un seul aller-retour Redis (STEP 3 du MFA)
+     * Le token est toujours consommé ; le challenge seulement s'il correspond
+     * Accepte les deux formes de token : émis seul ou avec son challenge
+     * @param token Le token temporaire
+     * @param challenge Le challenge présenté par le client
+     * @return getValue() = email (null si token invalide), isLinkedMatched() = challenge valide
+     */
+    public LinkedConsumption consumeTemporaryTokenAndChallenge(String token, String challenge) {
+        return oneTimeValueStore.consumePairOrWithLinked(LOGIN_CHALLENGE_PREFIX + token, TEMP_TOKEN_PREFIX + token,
+                ChallengeService.CHALLENGE_PREFIX, challenge);
+    }
+
+    /**
+     * Valide un lot de tokens temporaires en un seul aller-retour Redis (MGET)
+     * @param tokens Les tokens temporaires
+     * @return L'email de chaque token (null si invalide), dans l'ordre des tokens
+     */
+    public List<String> validateTemporaryTokens(List<String> tokens) {
+        return oneTimeValueStore.getAll(tokens.stream().map(token -> TEMP_TOKEN_PREFIX + token).toList());
+    }
+
+    /**
+     * consumeTemporaryTokenAndChallenge pour un lot, en un seul aller-retour Redis (pipeline)
+     * @param tokens Les tokens temporaires
+     * @param challenges Le challenge présenté pour chaque token (même ordre)
+     * @return Le résultat de chaque consommation, dans l'ordre des tokens
+     */
+    public List<LinkedConsumption> consumeTemporaryTokensAndChallenges(List<String> tokens, List<String> challenges) {
+        List<String> pairKeys = tokens.stream().map(token -> LOGIN_CHALLENGE_PREFIX + token).toList();
+        List<String> keys = tokens.stream().map(token -> TEMP_TOKEN_PREFIX + token).toList();
+        return oneTimeValueStore.consumeAllPairOrWithLinked(pairKeys, keys, ChallengeService.CHALLENGE_PREFIX, challenges);
     }
 }
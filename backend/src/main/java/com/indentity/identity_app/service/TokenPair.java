@@ -0,0 +1,9 @@
+package com.indentity.identity_app.service;
+
+/**
+ * JWT d'accès et refresh token remis au client
+ *
+ * @param refreshToken null si les refresh tokens sont désactivés
+ */
+public record TokenPair(String accessToken, String refreshToken) {
+}
@@ -0,0 +1,175 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Liste de révocation des JWT (par jti)
+ *
+ * Référence dans Redis : ensemble trié jti → expiration du token, purgé à chaque
+ * écriture et supprimé avec son dernier token. Chaque instance en garde une copie
+ * locale (ensemble exact + filtre de Bloom), tenue à jour par pub/sub et resynchronisée
+ * périodiquement (démarrage, messages perdus, purge des entrées expirées).
+ *
+ * isRevoked() ne fait aucun appel réseau ni verrou : le filtre de Bloom répond
+ * "non révoqué" pour presque tous les tokens, l'ensemble exact tranche les
+ * faux positifs.
+ */
+@Component
+@Slf4j
+public class TokenRevocationList implements MessageListener {
+
+    private static final ChannelTopic CHANNEL = new ChannelTopic("jwt-revocations");
+    private static final String KEY = "revoked-jwt";
+    private static final RedisScript<Long> REVOKE =
+            RedisScript.of(new ClassPathResource("scripts/revoke_token.lua"), Long.class);
+
+    // null : copie locale seule (benchmarks)
+    private final RedisTemplate<String, String> redisTemplate;
+    private final double falsePositiveRate;
+
+    // jti → expiration du token (ms)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private volatile long filterCapacity;
+    private volatile BloomFilter building;
+
+    private final Counter falsePositives;
+
+    public TokenRevocationList(
+            RedisTemplate<String, String> redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry,
+            @Value("${auth.revocation.false-positive-rate:0.001}") double falsePositiveRate
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filterCapacity = 1024;
+        this.filter = new BloomFilter(filterCapacity, falsePositiveRate);
+        if (listenerContainer != null) {
+            listenerContainer.addMessageListener(this, CHANNEL);
+        }
+        Gauge.builder("auth.revocation.size", revoked, Map::size)
+                .description("JWT révoqués non expirés (copie locale)")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("auth.revocation.bloom.false-positives")
+                .description("Tokens non révoqués signalés par le filtre de Bloom")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param tokenId Le jti du token (null : token émis sans jti, non révocable)
+     * @return true si le token a été révoqué
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        if (revoked.containsKey(tokenId)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Révoque un token jusqu'à son expiration, sur toutes les instances
+     *
+     * @param tokenId Le jti du token
+     * @param expiresAt L'expiration du token (l'entrée disparaît ensuite)
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        long now = System.currentTimeMillis();
+        long expiry = expiresAt.toEpochMilli();
+        if (expiry <= now) {
+            return;
+        }
+        // Redis d'abord : une révocation qui n'atteint pas les autres instances doit échouer
+        if (redisTemplate != null) {
+            redisTemplate.execute(REVOKE, List.of(KEY), tokenId, String.valueOf(expiry), String.valueOf(now),
+                    CHANNEL.getTopic());
+        }
+        addLocally(tokenId, expiry);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(' ');
+        if (separator > 0) {
+            addLocally(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+        }
+    }
+
+    /**
+     * Recharge la copie locale depuis Redis et purge les entrées expirées
+     * (au démarrage puis périodiquement)
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.sync-interval-ms:60000}")
+    public void sync() {
+        long now = System.currentTimeMillis();
+        if (redisTemplate != null) {
+            try {
+                Set<TypedTuple<String>> entries = redisTemplate.opsForZSet()
+                        .rangeByScoreWithScores(KEY, now, Double.POSITIVE_INFINITY);
+                if (entries != null) {
+                    for (TypedTuple<String> entry : entries) {
+                        if (entry.getValue() != null && entry.getScore() != null) {
+                            revoked.put(entry.getValue(), entry.getScore().longValue());
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                // La copie locale reste valable ; les révocations à venir arrivent par pub/sub
+                log.warn("Synchronisation de la liste de révocation impossible: {}", e.getMessage());
+            }
+        }
+        revoked.values().removeIf(expiry -> expiry <= now);
+        rebuildFilter();
+    }
+
+    private void addLocally(String tokenId, long expiry) {
+        revoked.put(tokenId, expiry);
+        // building lu avant filter : un ajout pendant rebuildFilter() atteint toujours le nouveau filtre
+        BloomFilter next = building;
+        filter.put(tokenId);
+        if (next != null) {
+            next.put(tokenId);
+        }
+        if (revoked.size() > filterCapacity) {
+            rebuildFilter();
+        }
+    }
+
+    // Les lectures continuent sur l'ancien filtre pendant la construction du suivant
+    private synchronized void rebuildFilter() {
+        long capacity = Math.max(1024, revoked.size() * 2L);
+        BloomFilter next = new BloomFilter(capacity, falsePositiveRate);
+        building = next;
+        revoked.keySet().forEach(next::put);
+        filterCapacity = capacity;
+        filter = next;
+        building = null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.entity.Role;
+
+/**
+ * Utilisateur pour lequel émettre un JWT (émission par lot, JwtService.generateTokens)
+ */
+public record TokenSubject(String email, Role role) {
+}
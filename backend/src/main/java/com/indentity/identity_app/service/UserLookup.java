@@ -0,0 +1,107 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.AuthStage;
+import com.indentity.identity_app.repository.CredentialsView;
+import com.indentity.identity_app.repository.PublicKeyView;
+import com.indentity.identity_app.repository.RoleView;
+import com.indentity.identity_app.repository.UserRepository;
+import com.indentity.identity_app.repository.UserSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Lectures d'utilisateur du parcours MFA (step 1, step 3, filtre JWT)
+ *
+ * Avec le cache activé, les trois lectures sont servies par le même
+ * instantané (UserSnapshotCache) : une seule requête Postgres par
+ * utilisateur tant qu'il reste en cache. Sinon, chaque lecture passe par
+ * sa projection couverte par l'index du login.
+ * Les lectures par lot passent par une seule requête, sans le cache.
+ */
+@Service
+public class UserLookup {
+
+    private final UserRepository userRepository;
+    private final UserSnapshotCache userSnapshotCache;
+    private final AuthMetrics authMetrics;
+    private final boolean cacheEnabled;
+
+    public UserLookup(
+            UserRepository userRepository,
+            UserSnapshotCache userSnapshotCache,
+            AuthMetrics authMetrics,
+            @Value("${auth.user-snapshot.enabled:true}") boolean cacheEnabled
+    ) {
+        this.userRepository = userRepository;
+        this.userSnapshotCache = userSnapshotCache;
+        this.authMetrics = authMetrics;
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    public Optional<CredentialsView> credentials(String email) {
+        long start = authMetrics.start();
+        try {
+            return cacheEnabled
+                    ? userSnapshotCache.get(email).map(UserSnapshot::credentials)
+                    : userRepository.findCredentialsByEmail(email);
+        } finally {
+            authMetrics.record(AuthStage.USER_LOOKUP, start);
+        }
+    }
+
+    public Optional<PublicKeyView> publicKey(String email) {
+        long start = authMetrics.start();
+        try {
+            return cacheEnabled
+                    ? userSnapshotCache.get(email).map(UserSnapshot::publicKeyView)
+                    : userRepository.findPublicKeyByEmail(email);
+        } finally {
+            authMetrics.record(AuthStage.USER_LOOKUP, start);
+        }
+    }
+
+    /**
+     * Clés publiques d'un lot d'utilisateurs, en une seule requête
+     * (un chargement par utilisateur manquant du cache coûterait une requête chacun)
+     *
+     * @param emails Les emails (casse indifférente, doublons permis)
+     * @return Les utilisateurs trouvés, par email en minuscules
+     */
+    public Map<String, PublicKeyView> publicKeys(Collection<String> emails) {
+        long start = authMetrics.start();
+        try {
+            Set<String> keys = emails.stream()
+                    .map(email -> email.toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toSet());
+            Map<String, PublicKeyView> users = new HashMap<>();
+            if (!keys.isEmpty()) {
+                for (PublicKeyView user : userRepository.findPublicKeysByEmails(keys)) {
+                    users.put(user.email().toLowerCase(Locale.ROOT), user);
+                }
+            }
+            return users;
+        } finally {
+            authMetrics.record(AuthStage.USER_LOOKUP, start);
+        }
+    }
+
+    public Optional<RoleView> role(String email) {
+        long start = authMetrics.start();
+        try {
+            return cacheEnabled
+                    ? userSnapshotCache.get(email).map(UserSnapshot::roleView)
+                    : userRepository.findRoleByEmail(email);
+        } finally {
+            authMetrics.record(AuthStage.USER_LOOKUP, start);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.indentity.identity_app.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.repository.UserRepository;
+import com.indentity.identity_app.repository.UserSnapshot;
+import com.indentity.identity_app.signature.SignatureAlgorithm;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Cache à deux niveaux des instantanés utilisateur (email → UserSnapshot)
+ *
+ * 1. cache local borné (Caffeine), consulté en premier
+ * 2. cache partagé Redis, valeurs en binaire compact, TTL propre
+ * 3. en dernier recours une requête Postgres, dont le résultat remplit les deux niveaux
+ *
+ * Des absences simultanées pour un même email sont fusionnées : un seul
+ * chargement, les autres requêtes attendent son résultat. Le chargement
+ * s'exécute sur le thread appelant, hors de tout verrou (pas d'épinglage
+ * des threads virtuels).
+ *
+ * Les utilisateurs absents ne sont pas mis en cache. revoke() retire
+ * l'entrée des deux niveaux, à nouveau après le commit de la transaction
+ * en cours, et la propage aux autres instances via pub/sub Redis.
+ * Chaque invalidation change la génération Redis de l'email : un chargement
+ * qui a lu l'ancienne ligne avant le commit n'écrit pas son résultat dans Redis.
+ * Le niveau Redis contient le hash BCrypt et la clé publique : même
+ * exposition que la base pour qui accède à Redis.
+ */
+@Component
+@Slf4j
+public class UserSnapshotCache implements MessageListener {
+
+    private static final ChannelTopic CHANNEL = new ChannelTopic("user-snapshot-invalidation");
+    private static final String KEY_PREFIX = "user-snapshot:";
+    private static final String GENERATION_PREFIX = "user-snapshot-gen:";
+    private static final byte[] NO_GENERATION = new byte[0];
+
+    private static final RedisScript<Long> PUT_SNAPSHOT =
+            RedisScript.of(new ClassPathResource("scripts/put_snapshot.lua"), Long.class);
+
+    private static final RedisScript<Long> EVICT_SNAPSHOT =
+            RedisScript.of(new ClassPathResource("scripts/evict_snapshot.lua"), Long.class);
+    private static final String ALL = "*";
+
+    // Format binaire : version, id, rôle et algorithme de la clé (ordinaux, -1 si null),
+    // puis email, hash, clé (longueur + UTF-8, -1 si null)
+    // Une entrée d'une autre version est ignorée et rechargée depuis la base
+    private static final byte FORMAT_VERSION = 2;
+    private static final Role[] ROLES = Role.values();
+    private static final SignatureAlgorithm[] ALGORITHMS = SignatureAlgorithm.values();
+
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final AsyncCache<String, UserSnapshot> cache;
+    // Duration.ZERO : cache local seul
+    private final Duration redisTtl;
+
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter redisErrors;
+
+    public UserSnapshotCache(
+            UserRepository userRepository,
+            @Qualifier("binaryRedisTemplate") RedisTemplate<String, byte[]> binaryRedisTemplate,
+            RedisTemplate<String, String> redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry,
+            @Value("${auth.user-snapshot.max-size:10000}") long maxSize,
+            @Value("${auth.user-snapshot.ttl:1m}") Duration ttl,
+            @Value("${auth.user-snapshot.redis-ttl:10m}") Duration redisTtl
+    ) {
+        this.userRepository = userRepository;
+        this.binaryRedisTemplate = binaryRedisTemplate;
+        this.redisTemplate = redisTemplate;
+        this.redisTtl = redisTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "userSnapshots");
+
+        this.redisHits = redisCounter(meterRegistry, "hit");
+        this.redisMisses = redisCounter(meterRegistry, "miss");
+        this.redisErrors = redisCounter(meterRegistry, "error");
+
+        if (listenerContainer != null) {
+            listenerContainer.addMessageListener(this, CHANNEL);
+        }
+    }
+
+    /**
+     * Retourne l'instantané d'un utilisateur (local, puis Redis, puis base)
+     *
+     * @param email L'email de l'utilisateur (casse indifférente)
+     * @return L'instantané, ou vide si l'utilisateur n'existe pas
+     */
+    public Optional<UserSnapshot> get(String email) {
+        String key = normalize(email);
+
+        // getIfPresent alimente les statistiques hit/miss
+        CompletableFuture<UserSnapshot> cached = cache.getIfPresent(key);
+        if (cached == null) {
+            CompletableFuture<UserSnapshot> loading = new CompletableFuture<>();
+            cached = cache.asMap().putIfAbsent(key, loading);
+            if (cached == null) {
+                // Ce thread charge ; les appels concurrents attendent "loading"
+                // (un résultat null retire l'entrée du cache)
+                try {
+                    loading.complete(load(key));
+                } catch (RuntimeException e) {
+                    loading.completeExceptionally(e);
+                    cache.asMap().remove(key, loading);
+                    throw e;
+                }
+                cached = loading;
+            }
+        }
+
+        try {
+            return Optional.ofNullable(cached.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Retire l'instantané d'un utilisateur des deux niveaux, sur toutes les instances
+     * (modification, suppression, révocation)
+     *
+     * @param email L'email de l'utilisateur
+     */
+    public void revoke(String email) {
+        if (email == null) {
+            return;
+        }
+        String key = normalize(email);
+        evict(key);
+        // Une lecture concurrente pourrait remettre l'ancienne ligne en cache avant le commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(key);
+                }
+            });
+        }
+    }
+
+    /**
+     * Vide le cache local de toutes les instances (révocation globale)
+     * Le niveau Redis expire de lui-même (redis-ttl)
+     */
+    public void revokeAll() {
+        cache.synchronous().invalidateAll();
+        publish(ALL);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String key = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (ALL.equals(key)) {
+            cache.synchronous().invalidateAll();
+        } else {
+            cache.synchronous().invalidate(key);
+        }
+    }
+
+    private UserSnapshot load(String key) {
+        // Génération lue avant la requête base ; null : Redis non consulté ou indisponible
+        byte[] generation = null;
+        if (!redisTtl.isZero()) {
+            try {
+                // Un seul aller-retour : instantané et génération
+                List<byte[]> values = binaryRedisTemplate.opsForValue()
+                        .multiGet(List.of(KEY_PREFIX + key, GENERATION_PREFIX + key));
+                // Avant le décodage : une entrée d'un autre format est remplacée
+                generation = values.get(1) != null ? values.get(1) : NO_GENERATION;
+                byte[] bytes = values.get(0);
+                if (bytes != null) {
+                    redisHits.increment();
+                    return decode(bytes);
+                }
+                redisMisses.increment();
+            } catch (RuntimeException e) {
+                // Redis indisponible ou entrée illisible : la base fait foi
+                redisErrors.increment();
+                log.debug("Lecture de l'instantané {} dans Redis impossible: {}", key, e.getMessage());
+            }
+        }
+
+        UserSnapshot snapshot = userRepository.findSnapshotByEmail(key).orElse(null);
+        if (snapshot != null && generation != null) {
+            try {
+                // Refusée si une invalidation a eu lieu depuis la lecture de la génération
+                binaryRedisTemplate.execute(PUT_SNAPSHOT, List.of(KEY_PREFIX + key, GENERATION_PREFIX + key),
+                        generation, encode(snapshot), millis(redisTtl));
+            } catch (RuntimeException e) {
+                redisErrors.increment();
+                log.debug("Écriture de l'instantané {} dans Redis impossible: {}", key, e.getMessage());
+            }
+        }
+        return snapshot;
+    }
+
+    private void evict(String key) {
+        cache.synchronous().invalidate(key);
+        if (redisTtl.isZero()) {
+            return;
+        }
+        try {
+            binaryRedisTemplate.execute(EVICT_SNAPSHOT, List.of(KEY_PREFIX + key, GENERATION_PREFIX + key),
+                    millis(redisTtl));
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            log.warn("Suppression de l'instantané {} dans Redis impossible: {}", key, e.getMessage());
+        }
+        publish(key);
+    }
+
+    private void publish(String key) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL.getTopic(), key);
+        } catch (RuntimeException e) {
+            // Les autres instances garderont l'entrée au plus "ttl"
+            log.warn("Publication de l'invalidation {} impossible: {}", key, e.getMessage());
+        }
+    }
+
+    static byte[] encode(UserSnapshot snapshot) {
+        byte[] email = bytes(snapshot.email());
+        byte[] hash = bytes(snapshot.passwordHash());
+        byte[] publicKey = bytes(snapshot.publicKey());
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 2 + 3 * 4 + length(email) + length(hash) + length(publicKey));
+        buffer.put(FORMAT_VERSION);
+        buffer.putLong(snapshot.id());
+        buffer.put(ordinal(snapshot.role()));
+        buffer.put(ordinal(snapshot.publicKeyAlgorithm()));
+        put(buffer, email);
+        put(buffer, hash);
+        put(buffer, publicKey);
+        return buffer.array();
+    }
+
+    static UserSnapshot decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported user snapshot format");
+        }
+        long id = buffer.getLong();
+        byte role = buffer.get();
+        byte algorithm = buffer.get();
+        return new UserSnapshot(id, string(buffer), role >= 0 ? ROLES[role] : null, string(buffer), string(buffer),
+                algorithm >= 0 ? ALGORITHMS[algorithm] : null);
+    }
+
+    private static byte[] millis(Duration duration) {
+        return Long.toString(duration.toMillis()).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return value != null ? (byte) value.ordinal() : -1;
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] value) {
+        return value != null ? value.length : 0;
+    }
+
+    private static void put(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter redisCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.user-snapshot.redis")
+                .description("Lectures du niveau Redis des instantanés utilisateur")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,19 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.entity.Role;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Claims d'un JWT dont la signature et l'expiration ont déjà été vérifiées
+ * Immuable : peut être partagé entre requêtes via le cache de JwtService
+ */
+@Value
+public class VerifiedClaims {
+    String email;        // subject
+    String tokenId;      // jti (null pour un token émis sans jti)
+    Role role;
+    Instant issuedAt;
+    Instant expiresAt;
+}
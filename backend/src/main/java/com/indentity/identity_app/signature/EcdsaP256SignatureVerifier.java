@@ -0,0 +1,58 @@
+package com.indentity.identity_app.signature;
+
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * ECDSA sur P-256 avec SHA-256
+ *
+ * Web Crypto produit des signatures au format IEEE P1363 (r || s, 64 octets) ;
+ * les signatures DER (OpenSSL, JCA) sont aussi acceptées.
+ */
+@Component
+public class EcdsaP256SignatureVerifier implements SignatureVerifier {
+
+    private static final int P1363_LENGTH = 64;
+    private static final byte DER_SEQUENCE = 0x30;
+
+    @Override
+    public SignatureAlgorithm algorithm() {
+        return SignatureAlgorithm.ECDSA_P256_SHA256;
+    }
+
+    @Override
+    public PublicKey decodePublicKey(byte[] spki) throws GeneralSecurityException {
+        return KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(spki));
+    }
+
+    @Override
+    public boolean verify(PublicKey publicKey, byte[] data, byte[] signature) throws GeneralSecurityException {
+        if (signature.length != P1363_LENGTH) {
+            return verify("SHA256withECDSA", publicKey, data, signature);
+        }
+        // 64 octets : presque toujours P1363 ; une signature DER peut rarement avoir cette taille
+        return verify("SHA256withECDSAinP1363Format", publicKey, data, signature)
+                || (signature[0] == DER_SEQUENCE && verifyDer(publicKey, data, signature));
+    }
+
+    private static boolean verifyDer(PublicKey publicKey, byte[] data, byte[] signature) {
+        try {
+            return verify("SHA256withECDSA", publicKey, data, signature);
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static boolean verify(String algorithm, PublicKey publicKey, byte[] data, byte[] signature)
+            throws GeneralSecurityException {
+        Signature verifier = Signature.getInstance(algorithm);
+        verifier.initVerify(publicKey);
+        verifier.update(data);
+        return verifier.verify(signature);
+    }
+}
@@ -0,0 +1,34 @@
+package com.indentity.identity_app.signature;
+
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * Ed25519 (RFC 8032) : clé de 32 octets, signature de 64 octets, pas de hachage préalable
+ */
+@Component
+public class Ed25519SignatureVerifier implements SignatureVerifier {
+
+    @Override
+    public SignatureAlgorithm algorithm() {
+        return SignatureAlgorithm.ED25519;
+    }
+
+    @Override
+    public PublicKey decodePublicKey(byte[] spki) throws GeneralSecurityException {
+        return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(spki));
+    }
+
+    @Override
+    public boolean verify(PublicKey publicKey, byte[] data, byte[] signature) throws GeneralSecurityException {
+        Signature verifier = Signature.getInstance("Ed25519");
+        verifier.initVerify(publicKey);
+        verifier.update(data);
+        return verifier.verify(signature);
+    }
+}
@@ -0,0 +1,34 @@
+package com.indentity.identity_app.signature;
+
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * RSASSA-PKCS1-v1_5 avec SHA-256 (clés générées par le frontend via Web Crypto)
+ */
+@Component
+public class RsaSignatureVerifier implements SignatureVerifier {
+
+    @Override
+    public SignatureAlgorithm algorithm() {
+        return SignatureAlgorithm.RSA_SHA256;
+    }
+
+    @Override
+    public PublicKey decodePublicKey(byte[] spki) throws GeneralSecurityException {
+        return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(spki));
+    }
+
+    @Override
+    public boolean verify(PublicKey publicKey, byte[] data, byte[] signature) throws GeneralSecurityException {
+        Signature verifier = Signature.getInstance("SHA256withRSA");
+        verifier.initVerify(publicKey);
+        verifier.update(data);
+        return verifier.verify(signature);
+    }
+}
@@ -0,0 +1,27 @@
+package com.indentity.identity_app.signature;
+
+/**
+ * Schémas de signature des challenges, stockés avec la clé publique (users.public_key_algorithm)
+ *
+ * Chaque schéma est reconnu d'après l'AlgorithmIdentifier de la clé SPKI :
+ * OID de l'algorithme et, pour les courbes elliptiques, OID de la courbe.
+ */
+public enum SignatureAlgorithm {
+    RSA_SHA256("1.2.840.113549.1.1.1", null),             // rsaEncryption
+    ECDSA_P256_SHA256("1.2.840.10045.2.1", "1.2.840.10045.3.1.7"), // id-ecPublicKey, prime256v1
+    ED25519("1.3.101.112", null);                         // id-Ed25519
+
+    private final String keyOid;
+    // null : paramètres ignorés (NULL pour RSA, absents pour Ed25519)
+    private final String curveOid;
+
+    SignatureAlgorithm(String keyOid, String curveOid) {
+        this.keyOid = keyOid;
+        this.curveOid = curveOid;
+    }
+
+    boolean matches(SubjectPublicKeyInfo spki) {
+        return keyOid.equals(spki.algorithmOid())
+                && (curveOid == null || curveOid.equals(spki.parametersOid()));
+    }
+}
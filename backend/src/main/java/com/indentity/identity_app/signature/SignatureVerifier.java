@@ -0,0 +1,27 @@
+package com.indentity.identity_app.signature;
+
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+
+/**
+ * Vérification des signatures de challenge pour un schéma donné
+ * Les implémentations sont des beans : SignatureVerifierRegistry les indexe par algorithme.
+ */
+public interface SignatureVerifier {
+
+    SignatureAlgorithm algorithm();
+
+    /**
+     * @param spki La clé publique encodée (SPKI, DER)
+     * @return La clé décodée, réutilisable entre vérifications
+     */
+    PublicKey decodePublicKey(byte[] spki) throws GeneralSecurityException;
+
+    /**
+     * @param publicKey Une clé issue de decodePublicKey
+     * @param data Les données signées (le challenge)
+     * @param signature La signature reçue du client
+     * @return true si la signature est valide
+     */
+    boolean verify(PublicKey publicKey, byte[] data, byte[] signature) throws GeneralSecurityException;
+}
@@ -0,0 +1,61 @@
+package com.indentity.identity_app.signature;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Vérificateurs de signature disponibles, indexés par algorithme
+ * Un nouveau schéma = une valeur de SignatureAlgorithm + un bean SignatureVerifier.
+ */
+@Component
+public class SignatureVerifierRegistry {
+
+    private final Map<SignatureAlgorithm, SignatureVerifier> verifiers;
+
+    public SignatureVerifierRegistry(List<SignatureVerifier> verifiers) {
+        Map<SignatureAlgorithm, SignatureVerifier> byAlgorithm = new EnumMap<>(SignatureAlgorithm.class);
+        for (SignatureVerifier verifier : verifiers) {
+            if (byAlgorithm.put(verifier.algorithm(), verifier) != null) {
+                throw new IllegalStateException("Several verifiers for " + verifier.algorithm());
+            }
+        }
+        this.verifiers = Collections.unmodifiableMap(byAlgorithm);
+    }
+
+    /**
+     * Détermine l'algorithme d'une clé d'après son AlgorithmIdentifier, sans la décoder
+     *
+     * @param spki La clé publique encodée (SPKI, DER)
+     * @return L'algorithme, ou vide si la clé n'est pas une SPKI d'un schéma supporté
+     */
+    public Optional<SignatureAlgorithm> detect(byte[] spki) {
+        SubjectPublicKeyInfo info;
+        try {
+            info = SubjectPublicKeyInfo.parse(spki);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        for (SignatureAlgorithm algorithm : verifiers.keySet()) {
+            if (algorithm.matches(info)) {
+                return Optional.of(algorithm);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @throws IllegalArgumentException Si aucun vérificateur n'est enregistré pour cet algorithme
+     */
+    public SignatureVerifier get(SignatureAlgorithm algorithm) {
+        SignatureVerifier verifier = verifiers.get(algorithm);
+        if (verifier == null) {
+            throw new IllegalArgumentException("No verifier for " + algorithm);
+        }
+        return verifier;
+    }
+}
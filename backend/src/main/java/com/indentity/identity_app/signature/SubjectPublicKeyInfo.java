@@ -0,0 +1,96 @@
+package com.indentity.identity_app.signature;
+
+/**
+ * AlgorithmIdentifier d'une clé publique SPKI (X.509), lu sans décoder la clé
+ *
+ * SubjectPublicKeyInfo ::= SEQUENCE { SEQUENCE { OID algorithme, paramètres }, BIT STRING }
+ * Seuls l'OID de l'algorithme et un éventuel OID en paramètre (courbe) sont extraits.
+ */
+record SubjectPublicKeyInfo(String algorithmOid, String parametersOid) {
+
+    private static final int SEQUENCE = 0x30;
+    private static final int OBJECT_IDENTIFIER = 0x06;
+
+    /**
+     * @param der La clé encodée (DER)
+     * @return L'identifiant d'algorithme
+     * @throws IllegalArgumentException Si l'encodage n'est pas une SPKI
+     */
+    static SubjectPublicKeyInfo parse(byte[] der) {
+        Reader reader = new Reader(der);
+        reader.enter(SEQUENCE);
+        reader.enter(SEQUENCE);
+        String algorithm = reader.oid();
+        String parameters = reader.peek() == OBJECT_IDENTIFIER ? reader.oid() : null;
+        return new SubjectPublicKeyInfo(algorithm, parameters);
+    }
+
+    private static final class Reader {
+
+        private final byte[] der;
+        private int position;
+
+        private Reader(byte[] der) {
+            this.der = der;
+        }
+
+        int peek() {
+            return position < der.length ? der[position] & 0xFF : -1;
+        }
+
+        // Entre dans une structure : la suite de la lecture porte sur son contenu
+        void enter(int tag) {
+            expect(tag);
+            length();
+        }
+
+        String oid() {
+            expect(OBJECT_IDENTIFIER);
+            int length = length();
+            int end = position + length;
+            if (end > der.length || end == position) {
+                throw new IllegalArgumentException("Truncated OID");
+            }
+            // Premier octet : 40 * premier arc (0, 1 ou 2) + second arc
+            int first = der[position++] & 0xFF;
+            int root = Math.min(first / 40, 2);
+            StringBuilder oid = new StringBuilder().append(root).append('.').append(first - 40 * root);
+            long arc = 0;
+            while (position < end) {
+                int b = der[position++] & 0xFF;
+                arc = (arc << 7) | (b & 0x7F);
+                if ((b & 0x80) == 0) {
+                    oid.append('.').append(arc);
+                    arc = 0;
+                }
+            }
+            return oid.toString();
+        }
+
+        private void expect(int tag) {
+            if (peek() != tag) {
+                throw new IllegalArgumentException("Not a SubjectPublicKeyInfo");
+            }
+            position++;
+        }
+
+        private int length() {
+            if (position >= der.length) {
+                throw new IllegalArgumentException("Truncated length");
+            }
+            int first = der[position++] & 0xFF;
+            if (first < 0x80) {
+                return first;
+            }
+            int bytes = first & 0x7F;
+            if (bytes == 0 || bytes > 3 || position + bytes > der.length) {
+                throw new IllegalArgumentException("Unsupported length");
+            }
+            int length = 0;
+            for (int i = 0; i < bytes; i++) {
+                length = (length << 8) | (der[position++] & 0xFF);
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.indentity.identity_app.store;
+
+/**
+ * Stockage des valeurs à usage unique (auth.ephemeral-store.mode)
+ */
+public enum EphemeralStoreMode {
+    // Redis partagé par toutes les instances
+    REDIS,
+    // En mémoire de l'instance, sans aller-retour Redis par étape : déploiement à une seule instance
+    // (Redis reste requis pour refresh tokens, révocation, limites de débit et pub/sub)
+    LOCAL,
+    // Redis, avec bascule en mémoire locale quand Redis est lent ou indisponible
+    HYBRID
+}
@@ -0,0 +1,234 @@
+package com.indentity.identity_app.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Redis, avec bascule en mémoire locale quand Redis est lent ou indisponible
+ *
+ * Après failure-threshold appels consécutifs en erreur ou plus lents que slow-call,
+ * toutes les opérations passent par la mémoire locale pendant cooldown ; l'appel
+ * suivant retente Redis (un échec de plus suffit à rebasculer). Un appel Redis en
+ * erreur est rejoué en local.
+ *
+ * Une valeur écrite en local pendant la bascule n'existe que sur cette instance :
+ * une valeur absente de Redis est aussi cherchée en local tant qu'il en reste.
+ * Les étapes d'un même flux traitées par une autre instance pendant la bascule
+ * échouent (401), comme avec Redis indisponible.
+ */
+@Slf4j
+public class HybridOneTimeValueStore implements OneTimeValueStore {
+
+    private final OneTimeValueStore remote;
+    private final LocalOneTimeValueStore local;
+    private final long slowCallNanos;
+    private final int failureThreshold;
+    private final long cooldownNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    // Fin de la bascule (System.nanoTime()), 0 : Redis
+    private volatile long degradedUntil;
+    private final Counter failovers;
+
+    public HybridOneTimeValueStore(OneTimeValueStore remote, LocalOneTimeValueStore local,
+                                   MeterRegistry meterRegistry, Duration slowCall,
+                                   int failureThreshold, Duration cooldown) {
+        this.remote = remote;
+        this.local = local;
+        this.slowCallNanos = slowCall.toNanos();
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.cooldownNanos = cooldown.toNanos();
+        Gauge.builder("auth.ephemeral-store.degraded", this, store -> store.degraded() ? 1 : 0)
+                .description("1 si les valeurs à usage unique sont en mémoire locale (Redis lent ou indisponible)")
+                .register(meterRegistry);
+        this.failovers = Counter.builder("auth.ephemeral-store.failovers")
+                .description("Bascules de Redis vers la mémoire locale")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        call(() -> {
+            remote.put(key, value, ttl);
+            return null;
+        }, () -> {
+            local.put(key, value, ttl);
+            return null;
+        });
+    }
+
+    @Override
+    public String get(String key) {
+        return read(() -> remote.get(key), () -> local.get(key), value -> value == null, null);
+    }
+
+    @Override
+    public String consume(String key) {
+        return read(() -> remote.consume(key), () -> local.consume(key), value -> value == null,
+                () -> local.consume(key));
+    }
+
+    @Override
+    public boolean consumeIfMatches(String key, String expected) {
+        return read(() -> remote.consumeIfMatches(key, expected),
+                () -> local.consumeIfMatches(key, expected), consumed -> !consumed, () -> local.consume(key));
+    }
+
+    @Override
+    public LinkedConsumption consumeWithLinked(String key, String linkedKeyPrefix, String expectedLinked) {
+        return read(() -> remote.consumeWithLinked(key, linkedKeyPrefix, expectedLinked),
+                () -> local.consumeWithLinked(key, linkedKeyPrefix, expectedLinked),
+                result -> result.getValue() == null, () -> local.consume(key));
+    }
+
+    @Override
+    public void putPair(String key, String value, String linkedValue, Duration ttl) {
+        call(() -> {
+            remote.putPair(key, value, linkedValue, ttl);
+            return null;
+        }, () -> {
+            local.putPair(key, value, linkedValue, ttl);
+            return null;
+        });
+    }
+
+    @Override
+    public LinkedConsumption consumePairOrWithLinked(String pairKey, String key, String linkedKeyPrefix,
+                                                     String expectedLinked) {
+        return read(() -> remote.consumePairOrWithLinked(pairKey, key, linkedKeyPrefix, expectedLinked),
+                () -> local.consumePairOrWithLinked(pairKey, key, linkedKeyPrefix, expectedLinked),
+                result -> result.getValue() == null, () -> {
+                    local.consume(pairKey);
+                    local.consume(key);
+                });
+    }
+
+    @Override
+    public void putAll(Map<String, String> values, Duration ttl) {
+        call(() -> {
+            remote.putAll(values, ttl);
+            return null;
+        }, () -> {
+            local.putAll(values, ttl);
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> getAll(List<String> keys) {
+        List<String> values = call(() -> remote.getAll(keys), () -> local.getAll(keys));
+        if (local.isEmpty()) {
+            return values;
+        }
+        List<String> merged = new ArrayList<>(values);
+        for (int i = 0; i < keys.size(); i++) {
+            if (merged.get(i) == null) {
+                merged.set(i, local.get(keys.get(i)));
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public List<LinkedConsumption> consumeAllPairOrWithLinked(List<String> pairKeys, List<String> keys,
+                                                              String linkedKeyPrefix, List<String> expectedLinked) {
+        List<LinkedConsumption> results = call(
+                () -> remote.consumeAllPairOrWithLinked(pairKeys, keys, linkedKeyPrefix, expectedLinked),
+                () -> local.consumeAllPairOrWithLinked(pairKeys, keys, linkedKeyPrefix, expectedLinked));
+        if (local.isEmpty()) {
+            return results;
+        }
+        List<LinkedConsumption> merged = new ArrayList<>(results);
+        for (int i = 0; i < keys.size(); i++) {
+            if (merged.get(i).getValue() == null) {
+                merged.set(i, local.consumePairOrWithLinked(pairKeys.get(i), keys.get(i),
+                        linkedKeyPrefix, expectedLinked.get(i)));
+            } else {
+                // Consommée dans Redis : copie locale éventuelle retirée (voir read)
+                local.consume(pairKeys.get(i));
+                local.consume(keys.get(i));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Arrête le stockage local (fin du contexte Spring)
+     */
+    public void close() {
+        local.close();
+    }
+
+    // Lecture ou consommation : une valeur absente de Redis peut avoir été écrite en local pendant une bascule.
+    // Une écriture en erreur (timeout) a pu être appliquée par Redis avant d'être rejouée en local : une
+    // consommation trouvée dans Redis retire aussi la copie locale (dropLocal), sinon la suivante l'obtiendrait.
+    private <T> T read(Supplier<T> remoteCall, Supplier<T> localCall, Predicate<T> missing, Runnable dropLocal) {
+        T result = call(remoteCall, localCall);
+        if (local.isEmpty()) {
+            return result;
+        }
+        if (missing.test(result)) {
+            return localCall.get();
+        }
+        if (dropLocal != null) {
+            dropLocal.run();
+        }
+        return result;
+    }
+
+    private <T> T call(Supplier<T> remoteCall, Supplier<T> localCall) {
+        if (degraded()) {
+            return localCall.get();
+        }
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = remoteCall.get();
+        } catch (DataAccessException e) {
+            failed("erreur " + e.getMessage());
+            return localCall.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (elapsed > slowCallNanos) {
+            failed("appel de " + elapsed / 1_000_000 + " ms");
+        } else {
+            succeeded();
+        }
+        return result;
+    }
+
+    private boolean degraded() {
+        long until = degradedUntil;
+        return until != 0 && until - System.nanoTime() > 0;
+    }
+
+    private void failed(String reason) {
+        // Compteur laissé au seuil pendant la bascule : un échec après cooldown rebascule aussitôt
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold && !degraded()) {
+            degradedUntil = System.nanoTime() + cooldownNanos;
+            failovers.increment();
+            log.warn("Redis lent ou indisponible ({}), valeurs à usage unique en mémoire locale pendant {} s",
+                    reason, cooldownNanos / 1_000_000_000);
+        }
+    }
+
+    private void succeeded() {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+        if (degradedUntil != 0) {
+            degradedUntil = 0;
+            log.info("Redis rétabli, valeurs à usage unique de nouveau dans Redis");
+        }
+    }
+}
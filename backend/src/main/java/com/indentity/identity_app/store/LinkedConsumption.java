@@ -0,0 +1,12 @@
+package com.indentity.identity_app.store;
+
+import lombok.Value;
+
+/**
+ * Résultat de OneTimeValueStore.consumeWithLinked
+ */
+@Value
+public class LinkedConsumption {
+    String value;           // valeur consommée (null si absente ou expirée)
+    boolean linkedMatched;  // true si la valeur liée correspondait et a été consommée
+}
@@ -0,0 +1,246 @@
+package com.indentity.identity_app.store;
+
+import com.indentity.identity_app.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implémentation en mémoire de l'instance, sans verrou : pas d'aller-retour réseau
+ * par étape du MFA (instance unique, ou secours de HybridOneTimeValueStore). Redis reste
+ * requis pour le reste (refresh tokens, révocation, limites de débit, pub/sub).
+ *
+ * - Consommation atomique par ConcurrentHashMap.remove : une seule requête
+ *   obtient la valeur ; la comparaison (consumeIfMatches) se fait par remove(clé, entrée)
+ * - Expiration par roue temporelle (timing wheel) : chaque entrée est rangée dans
+ *   la case de son échéance, un thread avance d'une case par tick et ne parcourt que
+ *   les entrées qui y arrivent. Une entrée lue après son échéance est ignorée, même
+ *   si sa case n'a pas encore été traitée.
+ * - Mémoire bornée (nombre d'entrées et taille estimée) : au-delà, une écriture est
+ *   refusée (429) plutôt que d'évincer un token encore valide. La case de la roue ne
+ *   garde que la clé et l'échéance ; elle reste comptée jusqu'à son passage, même
+ *   si la valeur a été consommée ou remplacée entre-temps.
+ */
+@Slf4j
+public class LocalOneTimeValueStore implements OneTimeValueStore {
+
+    // 512 cases : avec un tick d'une seconde, un tour couvre la durée de vie d'un token temporaire (5 min)
+    private static final int WHEEL_SIZE = 512;
+    // Nœud de la table, entrée, en-têtes des chaînes de la valeur (estimation)
+    private static final int ENTRY_OVERHEAD = 96;
+    // Enregistrement de la roue, nœud de la file, en-tête de la clé (estimation)
+    private static final int EXPIRY_OVERHEAD = 64;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    @SuppressWarnings("unchecked")
+    private final Queue<Expiry>[] wheel = new Queue[WHEEL_SIZE];
+    private final long origin = System.nanoTime();
+    private final long tickNanos;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final AtomicLong bytes = new AtomicLong();
+    private final Counter rejected;
+    private final ScheduledExecutorService expiryThread;
+    // Dernier tick traité (thread d'expiration uniquement)
+    private long processedTick;
+
+    public LocalOneTimeValueStore(MeterRegistry meterRegistry, int maxEntries, long maxBytes, Duration tick) {
+        this.tickNanos = tick.toNanos();
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        Gauge.builder("auth.ephemeral-store.local.entries", entries, Map::size)
+                .description("Valeurs à usage unique en mémoire locale")
+                .register(meterRegistry);
+        Gauge.builder("auth.ephemeral-store.local.bytes", bytes, AtomicLong::get)
+                .description("Taille estimée des valeurs en mémoire locale")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.ephemeral-store.local.rejected")
+                .description("Écritures refusées, mémoire locale pleine")
+                .register(meterRegistry);
+
+        this.expiryThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ephemeral-store-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiryThread.scheduleWithFixedDelay(this::expire, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        store(key, new Entry(value, null, ttl));
+    }
+
+    @Override
+    public String get(String key) {
+        Entry entry = live(key, entries.get(key));
+        return entry != null ? entry.value : null;
+    }
+
+    @Override
+    public String consume(String key) {
+        Entry entry = take(key);
+        return entry != null ? entry.value : null;
+    }
+
+    @Override
+    public boolean consumeIfMatches(String key, String expected) {
+        Entry entry = live(key, entries.get(key));
+        return entry != null && expected != null && expected.equals(entry.value) && remove(key, entry);
+    }
+
+    @Override
+    public LinkedConsumption consumeWithLinked(String key, String linkedKeyPrefix, String expectedLinked) {
+        String value = consume(key);
+        if (value == null) {
+            return new LinkedConsumption(null, false);
+        }
+        // Seul le consommateur de la valeur principale tente la valeur liée
+        return new LinkedConsumption(value, consumeIfMatches(linkedKeyPrefix + value, expectedLinked));
+    }
+
+    @Override
+    public void putPair(String key, String value, String linkedValue, Duration ttl) {
+        store(key, new Entry(value, linkedValue, ttl));
+    }
+
+    @Override
+    public LinkedConsumption consumePairOrWithLinked(String pairKey, String key, String linkedKeyPrefix,
+                                                     String expectedLinked) {
+        Entry pair = take(pairKey);
+        if (pair != null) {
+            return new LinkedConsumption(pair.value, pair.linked != null && pair.linked.equals(expectedLinked));
+        }
+        return consumeWithLinked(key, linkedKeyPrefix, expectedLinked);
+    }
+
+    /**
+     * @return true si aucune valeur n'est stockée (entrées expirées non encore retirées comprises)
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Arrête le thread d'expiration (fin du contexte Spring)
+     */
+    public void close() {
+        expiryThread.shutdownNow();
+    }
+
+    private void store(String key, Entry entry) {
+        Expiry expiry = new Expiry(key, entry.expiresAt);
+        if (entries.size() >= maxEntries || bytes.get() + entry.size + expiry.size() > maxBytes) {
+            rejected.increment();
+            throw new TooManyRequestsException("Server busy, retry later");
+        }
+        Entry previous = entries.put(key, entry);
+        bytes.addAndGet((previous != null ? entry.size - previous.size : entry.size) + expiry.size());
+        // Case du premier tick qui suit l'échéance
+        long tick = (entry.expiresAt - origin) / tickNanos + 1;
+        wheel[(int) (tick & (WHEEL_SIZE - 1))].add(expiry);
+    }
+
+    private Entry take(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        bytes.addAndGet(-entry.size);
+        return entry.isExpired(System.nanoTime()) ? null : entry;
+    }
+
+    // L'entrée si elle n'a pas expiré ; sinon retirée au passage
+    private Entry live(String key, Entry entry) {
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    // Retire exactement cette entrée (pas une valeur réécrite depuis sous la même clé)
+    private boolean remove(String key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            bytes.addAndGet(-entry.size);
+            return true;
+        }
+        return false;
+    }
+
+    // Traite les cases des ticks écoulés depuis le dernier passage (au plus un tour complet)
+    private void expire() {
+        try {
+            long now = System.nanoTime();
+            long currentTick = (now - origin) / tickNanos;
+            long first = Math.max(processedTick + 1, currentTick - WHEEL_SIZE + 1);
+            for (long tick = first; tick <= currentTick; tick++) {
+                Iterator<Expiry> slot = wheel[(int) (tick & (WHEEL_SIZE - 1))].iterator();
+                while (slot.hasNext()) {
+                    Expiry expiry = slot.next();
+                    Entry entry = entries.get(expiry.key);
+                    boolean current = entry != null && entry.expiresAt == expiry.expiresAt;
+                    if (current && !entry.isExpired(now)) {
+                        // Échéance dans un tour suivant de la roue
+                        continue;
+                    }
+                    if (current) {
+                        remove(expiry.key, entry);
+                    }
+                    // Expirée, ou déjà consommée ou remplacée : l'enregistrement est libéré
+                    slot.remove();
+                    bytes.addAndGet(-expiry.size());
+                }
+            }
+            processedTick = currentTick;
+        } catch (RuntimeException e) {
+            log.warn("Expiration des valeurs locales interrompue: {}", e.getMessage());
+        }
+    }
+
+    private static final class Entry {
+
+        private final String value;
+        private final String linked; // non null : paire écrite par putPair
+        private final long expiresAt; // System.nanoTime()
+        private final int size;
+
+        private Entry(String value, String linked, Duration ttl) {
+            this.value = value;
+            this.linked = linked;
+            this.expiresAt = System.nanoTime() + ttl.toNanos();
+            this.size = ENTRY_OVERHEAD + 2 * (value.length() + (linked != null ? linked.length() : 0));
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    // Échéance d'une entrée : sans référence à l'entrée, retrouvée par sa clé et son échéance
+    private record Expiry(String key, long expiresAt) {
+
+        private int size() {
+            return EXPIRY_OVERHEAD + 2 * key.length();
+        }
+    }
+}
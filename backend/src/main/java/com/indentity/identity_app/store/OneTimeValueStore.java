@@ -0,0 +1,107 @@
+package com.indentity.identity_app.store;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stockage de valeurs temporaires à usage unique (tokens, challenges)
+ *
+ * Les opérations de consommation sont atomiques : une valeur ne peut être
+ * consommée qu'une seule fois, même par des requêtes concurrentes.
+ */
+public interface OneTimeValueStore {
+
+    /**
+     * Stocke une valeur avec une durée de vie
+     */
+    void put(String key, String value, Duration ttl);
+
+    /**
+     * Lit une valeur sans la consommer
+     *
+     * @return La valeur, ou null si absente ou expirée
+     */
+    String get(String key);
+
+    /**
+     * Lit et supprime une valeur en une seule opération atomique
+     *
+     * @return La valeur consommée, ou null si absente ou expirée
+     */
+    String consume(String key);
+
+    /**
+     * Supprime la valeur uniquement si elle est égale à la valeur attendue
+     * Une valeur différente est laissée intacte
+     *
+     * @return true si la valeur correspondait et a été consommée
+     */
+    boolean consumeIfMatches(String key, String expected);
+
+    /**
+     * Consomme une valeur puis, dans la même opération atomique, la valeur liée
+     * stockée sous linkedKeyPrefix + valeur si elle vaut expectedLinked.
+     * La valeur principale est consommée même si la valeur liée ne correspond pas.
+     *
+     * @return Le résultat ; getValue() est null si la valeur principale est absente
+     */
+    LinkedConsumption consumeWithLinked(String key, String linkedKeyPrefix, String expectedLinked);
+
+    /**
+     * Stocke une valeur et sa valeur liée sous une seule clé, avec une seule durée de vie
+     * (une écriture au lieu de deux ; consommées ensemble par consumePairOrWithLinked)
+     */
+    void putPair(String key, String value, String linkedValue, Duration ttl);
+
+    /**
+     * Consomme la paire stockée sous pairKey et compare sa valeur liée à expectedLinked.
+     * Si pairKey est absente, se comporte comme consumeWithLinked(key, linkedKeyPrefix, expectedLinked),
+     * dans la même opération atomique.
+     *
+     * @return Le résultat ; getValue() est null si ni la paire ni la valeur simple n'existent
+     */
+    LinkedConsumption consumePairOrWithLinked(String pairKey, String key, String linkedKeyPrefix, String expectedLinked);
+
+    // ========== OPÉRATIONS PAR LOT (authentification de flottes) ==========
+    // Implémentations par défaut : une opération par élément. Un store distant
+    // les redéfinit pour tout envoyer en un seul aller-retour.
+
+    /**
+     * Stocke plusieurs valeurs avec la même durée de vie
+     */
+    default void putAll(Map<String, String> values, Duration ttl) {
+        values.forEach((key, value) -> put(key, value, ttl));
+    }
+
+    /**
+     * Lit plusieurs valeurs sans les consommer
+     *
+     * @return Les valeurs dans l'ordre des clés (null si absente ou expirée)
+     */
+    default List<String> getAll(List<String> keys) {
+        List<String> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
+    /**
+     * consumePairOrWithLinked pour chaque élément ; chaque consommation reste atomique
+     *
+     * @param pairKeys Clé de la paire de chaque élément
+     * @param keys Clé de la valeur simple de chaque élément (même ordre)
+     * @param expectedLinked Valeur liée attendue pour chaque élément (même ordre)
+     * @return Les résultats dans l'ordre des éléments
+     */
+    default List<LinkedConsumption> consumeAllPairOrWithLinked(List<String> pairKeys, List<String> keys,
+                                                               String linkedKeyPrefix, List<String> expectedLinked) {
+        List<LinkedConsumption> results = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            results.add(consumePairOrWithLinked(pairKeys.get(i), keys.get(i), linkedKeyPrefix, expectedLinked.get(i)));
+        }
+        return results;
+    }
+}
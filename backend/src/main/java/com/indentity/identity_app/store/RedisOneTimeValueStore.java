@@ -0,0 +1,250 @@
+package com.indentity.identity_app.store;
+
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.RedisOperation;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implémentation Redis : GETDEL pour la consommation simple et un script Lua
+ * (exécuté par EVALSHA) pour la consommation conditionnelle.
+ * Chaque consommation coûte un seul aller-retour Redis.
+ * Les opérations par lot sont envoyées en pipeline (ou MGET) : un aller-retour par lot.
+ * Chaque opération est chronométrée (auth.redis.duration, tag op).
+ */
+@Component
+public class RedisOneTimeValueStore implements OneTimeValueStore {
+
+    private static final RedisScript<Long> COMPARE_AND_DELETE =
+            RedisScript.of(new ClassPathResource("scripts/compare_and_delete.lua"), Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CONSUME_WITH_LINKED =
+            RedisScript.of(new ClassPathResource("scripts/consume_with_linked.lua"), List.class);
+
+    private static final RedisScript<Long> PUT_PAIR =
+            RedisScript.of(new ClassPathResource("scripts/put_pair.lua"), Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CONSUME_PAIR_OR_LINKED =
+            RedisScript.of(new ClassPathResource("scripts/consume_pair_or_linked.lua"), List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final AuthMetrics authMetrics;
+
+    // EVALSHA en pipeline : le script doit être chargé avant (pas de repli EVAL par commande)
+    private volatile boolean consumePairOrLinkedLoaded;
+
+    public RedisOneTimeValueStore(RedisTemplate<String, String> redisTemplate, AuthMetrics authMetrics) {
+        this.redisTemplate = redisTemplate;
+        this.authMetrics = authMetrics;
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        long start = authMetrics.start();
+        try {
+            redisTemplate.opsForValue().set(key, value, ttl);
+        } finally {
+            authMetrics.record(RedisOperation.PUT, start);
+        }
+    }
+
+    @Override
+    public String get(String key) {
+        long start = authMetrics.start();
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } finally {
+            authMetrics.record(RedisOperation.GET, start);
+        }
+    }
+
+    @Override
+    public String consume(String key) {
+        long start = authMetrics.start();
+        try {
+            // GETDEL (Redis >= 6.2)
+            return redisTemplate.opsForValue().getAndDelete(key);
+        } finally {
+            authMetrics.record(RedisOperation.CONSUME, start);
+        }
+    }
+
+    @Override
+    public boolean consumeIfMatches(String key, String expected) {
+        long start = authMetrics.start();
+        try {
+            Long deleted = redisTemplate.execute(COMPARE_AND_DELETE, List.of(key), expected);
+            return deleted != null && deleted == 1L;
+        } finally {
+            authMetrics.record(RedisOperation.CONSUME_IF_MATCHES, start);
+        }
+    }
+
+    @Override
+    public LinkedConsumption consumeWithLinked(String key, String linkedKeyPrefix, String expectedLinked) {
+        long start = authMetrics.start();
+        List<?> result;
+        try {
+            result = redisTemplate.execute(CONSUME_WITH_LINKED, List.of(key),
+                    linkedKeyPrefix, expectedLinked != null ? expectedLinked : "");
+        } finally {
+            authMetrics.record(RedisOperation.CONSUME_WITH_LINKED, start);
+        }
+        return toLinkedConsumption(result);
+    }
+
+    @Override
+    public void putPair(String key, String value, String linkedValue, Duration ttl) {
+        long start = authMetrics.start();
+        try {
+            redisTemplate.execute(PUT_PAIR, List.of(key), value, linkedValue, String.valueOf(ttl.toMillis()));
+        } finally {
+            authMetrics.record(RedisOperation.PUT_PAIR, start);
+        }
+    }
+
+    @Override
+    public LinkedConsumption consumePairOrWithLinked(String pairKey, String key, String linkedKeyPrefix,
+                                                     String expectedLinked) {
+        long start = authMetrics.start();
+        List<?> result;
+        try {
+            result = redisTemplate.execute(CONSUME_PAIR_OR_LINKED, List.of(pairKey, key),
+                    linkedKeyPrefix, expectedLinked != null ? expectedLinked : "");
+        } finally {
+            authMetrics.record(RedisOperation.CONSUME_PAIR_OR_LINKED, start);
+        }
+        return toLinkedConsumption(result);
+    }
+
+    @Override
+    public void putAll(Map<String, String> values, Duration ttl) {
+        if (values.isEmpty()) {
+            return;
+        }
+        long start = authMetrics.start();
+        try {
+            Expiration expiration = Expiration.from(ttl);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                values.forEach((key, value) ->
+                        connection.stringCommands().set(bytes(key), bytes(value), expiration, SetOption.upsert()));
+                return null;
+            });
+        } finally {
+            authMetrics.record(RedisOperation.PUT_ALL, start);
+        }
+    }
+
+    @Override
+    public List<String> getAll(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        long start = authMetrics.start();
+        try {
+            // MGET : null pour chaque clé absente
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            return values != null ? values : new ArrayList<>(Collections.nCopies(keys.size(), null));
+        } finally {
+            authMetrics.record(RedisOperation.GET_ALL, start);
+        }
+    }
+
+    @Override
+    public List<LinkedConsumption> consumeAllPairOrWithLinked(List<String> pairKeys, List<String> keys,
+                                                              String linkedKeyPrefix, List<String> expectedLinked) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        long start = authMetrics.start();
+        List<Object> raw;
+        try {
+            if (!consumePairOrLinkedLoaded) {
+                loadConsumePairOrLinked();
+            }
+            try {
+                raw = pipelineConsumePairOrLinked(pairKeys, keys, linkedKeyPrefix, expectedLinked);
+            } catch (RedisPipelineException e) {
+                if (!isNoScript(e)) {
+                    throw e;
+                }
+                // Cache de scripts vidé (redémarrage, SCRIPT FLUSH) : aucun script n'a été exécuté
+                loadConsumePairOrLinked();
+                raw = pipelineConsumePairOrLinked(pairKeys, keys, linkedKeyPrefix, expectedLinked);
+            }
+        } finally {
+            authMetrics.record(RedisOperation.CONSUME_ALL_PAIR_OR_LINKED, start);
+        }
+
+        List<LinkedConsumption> results = new ArrayList<>(keys.size());
+        for (Object result : raw) {
+            results.add(toLinkedConsumption(result instanceof List<?> list ? list : null));
+        }
+        return results;
+    }
+
+    private List<Object> pipelineConsumePairOrLinked(List<String> pairKeys, List<String> keys,
+                                                     String linkedKeyPrefix, List<String> expectedLinked) {
+        String sha = CONSUME_PAIR_OR_LINKED.getSha1();
+        byte[] prefix = bytes(linkedKeyPrefix);
+        return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < keys.size(); i++) {
+                String expected = expectedLinked.get(i);
+                connection.scriptingCommands().evalSha(sha, ReturnType.MULTI, 2,
+                        bytes(pairKeys.get(i)), bytes(keys.get(i)), prefix, bytes(expected != null ? expected : ""));
+            }
+            return null;
+        });
+    }
+
+    private void loadConsumePairOrLinked() {
+        byte[] script = bytes(CONSUME_PAIR_OR_LINKED.getScriptAsString());
+        redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(script));
+        consumePairOrLinkedLoaded = true;
+    }
+
+    private static LinkedConsumption toLinkedConsumption(List<?> result) {
+        if (result == null || result.size() < 2) {
+            return new LinkedConsumption(null, false);
+        }
+        return new LinkedConsumption((String) result.get(0), "1".equals(result.get(1)));
+    }
+
+    private static boolean isNoScript(RedisPipelineException e) {
+        for (Object result : e.getPipelineResult()) {
+            if (result instanceof Throwable error && isNoScript(error)) {
+                return true;
+            }
+        }
+        return isNoScript((Throwable) e);
+    }
+
+    private static boolean isNoScript(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
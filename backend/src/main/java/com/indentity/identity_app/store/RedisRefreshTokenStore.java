@@ -0,0 +1,155 @@
+package com.indentity.identity_app.store;
+
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.metrics.RedisOperation;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Implémentation Redis : une famille = un petit hash (4 champs courts, encodage listpack)
+ * Création et rotation sont chacune un seul script Lua (EVALSHA) ; les créations
+ * d'un lot partent en pipeline.
+ */
+@Component
+public class RedisRefreshTokenStore implements RefreshTokenStore {
+
+    private static final String FAMILY_PREFIX = "refresh:";
+
+    private static final RedisScript<Long> CREATE_FAMILY =
+            RedisScript.of(new ClassPathResource("scripts/create_refresh_family.lua"), Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ROTATE =
+            RedisScript.of(new ClassPathResource("scripts/rotate_refresh_token.lua"), List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final AuthMetrics authMetrics;
+    // EVALSHA en pipeline : le script doit être chargé avant (pas de repli EVAL par commande)
+    private volatile boolean createFamilyLoaded;
+
+    public RedisRefreshTokenStore(RedisTemplate<String, String> redisTemplate, AuthMetrics authMetrics) {
+        this.redisTemplate = redisTemplate;
+        this.authMetrics = authMetrics;
+    }
+
+    @Override
+    public void create(String familyId, String tokenHash, String email, String role, Duration idleTtl,
+                       Instant expiresAt) {
+        long start = authMetrics.start();
+        try {
+            redisTemplate.execute(CREATE_FAMILY, List.of(FAMILY_PREFIX + familyId),
+                    tokenHash, email, role,
+                    String.valueOf(expiresAt.toEpochMilli()), String.valueOf(idleTtl.toMillis()));
+        } finally {
+            authMetrics.record(RedisOperation.REFRESH_CREATE, start);
+        }
+    }
+
+    @Override
+    public void createAll(List<NewFamily> families, Duration idleTtl, Instant expiresAt) {
+        if (families.isEmpty()) {
+            return;
+        }
+        long start = authMetrics.start();
+        try {
+            if (!createFamilyLoaded) {
+                loadCreateFamily();
+            }
+            try {
+                pipelineCreate(families, idleTtl, expiresAt);
+            } catch (RedisPipelineException e) {
+                if (!isNoScript(e)) {
+                    throw e;
+                }
+                // Cache de scripts vidé : la création est idempotente, le lot est renvoyé entier
+                loadCreateFamily();
+                pipelineCreate(families, idleTtl, expiresAt);
+            }
+        } finally {
+            authMetrics.record(RedisOperation.REFRESH_CREATE_ALL, start);
+        }
+    }
+
+    private void pipelineCreate(List<NewFamily> families, Duration idleTtl, Instant expiresAt) {
+        String sha = CREATE_FAMILY.getSha1();
+        byte[] expires = bytes(String.valueOf(expiresAt.toEpochMilli()));
+        byte[] idle = bytes(String.valueOf(idleTtl.toMillis()));
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (NewFamily family : families) {
+                connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 1,
+                        bytes(FAMILY_PREFIX + family.familyId()), bytes(family.tokenHash()),
+                        bytes(family.email()), bytes(family.role()), expires, idle);
+            }
+            return null;
+        });
+    }
+
+    private void loadCreateFamily() {
+        byte[] script = bytes(CREATE_FAMILY.getScriptAsString());
+        redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(script));
+        createFamilyLoaded = true;
+    }
+
+    @Override
+    public RefreshRotation rotate(String familyId, String presentedHash, String nextHash, Duration idleTtl,
+                                  Instant now) {
+        long start = authMetrics.start();
+        List<?> result;
+        try {
+            result = redisTemplate.execute(ROTATE, List.of(FAMILY_PREFIX + familyId),
+                    presentedHash, nextHash,
+                    String.valueOf(now.toEpochMilli()), String.valueOf(idleTtl.toMillis()));
+        } finally {
+            authMetrics.record(RedisOperation.REFRESH_ROTATE, start);
+        }
+        if (result == null || result.isEmpty()) {
+            return new RefreshRotation(RefreshRotation.Status.UNKNOWN, null, null);
+        }
+        if ("reused".equals(result.get(0))) {
+            return new RefreshRotation(RefreshRotation.Status.REUSED, (String) result.get(1), null);
+        }
+        return new RefreshRotation(RefreshRotation.Status.ROTATED, (String) result.get(1), (String) result.get(2));
+    }
+
+    @Override
+    public void revoke(String familyId) {
+        long start = authMetrics.start();
+        try {
+            redisTemplate.delete(FAMILY_PREFIX + familyId);
+        } finally {
+            authMetrics.record(RedisOperation.REFRESH_REVOKE, start);
+        }
+    }
+
+    private static boolean isNoScript(RedisPipelineException e) {
+        for (Object result : e.getPipelineResult()) {
+            if (result instanceof Throwable error && isNoScript(error)) {
+                return true;
+            }
+        }
+        return isNoScript((Throwable) e);
+    }
+
+    private static boolean isNoScript(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,19 @@
+package com.indentity.identity_app.store;
+
+import lombok.Value;
+
+/**
+ * Résultat de RefreshTokenStore.rotate
+ */
+@Value
+public class RefreshRotation {
+    Status status;
+    String email;   // null si la famille est inconnue
+    String role;    // renseigné seulement après une rotation
+
+    public enum Status {
+        ROTATED,    // token courant : remplacé par le nouveau
+        REUSED,     // token déjà remplacé : famille révoquée
+        UNKNOWN     // famille absente, expirée ou révoquée
+    }
+}
@@ -0,0 +1,52 @@
+package com.indentity.identity_app.store;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Familles de refresh tokens
+ *
+ * Une famille naît à chaque authentification MFA complète et ne contient qu'un
+ * token valide à la fois : chaque utilisation le remplace. Présenter un token
+ * déjà remplacé révoque toute la famille (vol probable). Seule l'empreinte du
+ * token courant est stockée.
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * Crée une famille
+     *
+     * @param tokenHash Empreinte du premier token
+     * @param idleTtl Durée de vie sans utilisation
+     * @param expiresAt Fin de vie de la famille, quelles que soient les rotations
+     */
+    void create(String familyId, String tokenHash, String email, String role, Duration idleTtl, Instant expiresAt);
+
+    /**
+     * Crée plusieurs familles en un seul aller-retour (authentification par lot)
+     *
+     * @param idleTtl Durée de vie sans utilisation, commune aux familles
+     * @param expiresAt Fin de vie commune aux familles
+     */
+    void createAll(List<NewFamily> families, Duration idleTtl, Instant expiresAt);
+
+    /**
+     * Remplace le token courant si presentedHash est son empreinte, sinon révoque la famille,
+     * en une seule opération atomique
+     *
+     * @return Le résultat de la rotation
+     */
+    RefreshRotation rotate(String familyId, String presentedHash, String nextHash, Duration idleTtl, Instant now);
+
+    /**
+     * Révoque une famille (déconnexion) ; sans effet si elle n'existe plus
+     */
+    void revoke(String familyId);
+
+    /**
+     * Famille à créer par createAll
+     */
+    record NewFamily(String familyId, String tokenHash, String email, String role) {
+    }
+}
@@ -0,0 +1,9 @@
+-- Schéma initial, identique à celui généré jusqu'ici par ddl-auto=update
+-- (bases existantes : marqué comme appliqué par baseline-on-migrate)
+create table if not exists users (
+    id         bigint generated by default as identity primary key,
+    email      varchar(255) not null unique,
+    password   varchar(255) not null,
+    public_key text,
+    role       varchar(255) check (role in ('USER', 'ADMIN'))
+);
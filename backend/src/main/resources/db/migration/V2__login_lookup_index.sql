@@ -0,0 +1,11 @@
+-- Présence de la clé publique, calculée par la base : le login n'a plus à lire la colonne TEXT
+alter table users
+    add column has_public_key boolean generated always as (public_key is not null and public_key <> '') stored;
+
+-- Email normalisé en minuscules, unique, et index couvrant pour le login et le filtre JWT :
+-- (id, email, password, role, has_public_key) sont lus depuis l'index (index-only scan ;
+-- email doit y figurer pour que PostgreSQL l'autorise sur un index d'expression)
+-- Échoue si deux comptes ne diffèrent que par la casse : à dédoublonner avant migration
+create unique index users_email_lower_idx
+    on users (lower(email))
+    include (id, email, password, role, has_public_key);
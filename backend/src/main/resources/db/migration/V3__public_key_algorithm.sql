@@ -0,0 +1,9 @@
+-- Schéma de signature de la clé publique, détecté depuis la SPKI à l'inscription
+alter table users
+    add column public_key_algorithm varchar(32)
+        check (public_key_algorithm in ('RSA_SHA256', 'ECDSA_P256_SHA256', 'ED25519'));
+
+-- Jusqu'ici seules des clés RSA étaient acceptées
+update users
+set public_key_algorithm = 'RSA_SHA256'
+where public_key is not null and public_key <> '';
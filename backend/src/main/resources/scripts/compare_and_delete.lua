@@ -0,0 +1,6 @@
+-- Supprime KEYS[1] seulement si sa valeur vaut ARGV[1]
+-- Retourne 1 si la valeur a été consommée, 0 sinon
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,25 @@
+-- Consomme le hash KEYS[1] { value, linked } écrit par put_pair.lua ;
+-- la valeur liée est comparée à ARGV[2] et consommée avec lui
+-- Si KEYS[1] est absente : même comportement que consume_with_linked.lua sur KEYS[2]
+-- (valeur liée stockée sous ARGV[1] .. valeur)
+-- Retourne {} si aucune valeur n'est présente, sinon { valeur, '1' | '0' }
+local pair = redis.call('HMGET', KEYS[1], 'value', 'linked')
+if pair[1] then
+    redis.call('DEL', KEYS[1])
+    if pair[2] == ARGV[2] then
+        return { pair[1], '1' }
+    end
+    return { pair[1], '0' }
+end
+
+local value = redis.call('GETDEL', KEYS[2])
+if not value then
+    return {}
+end
+
+local linkedKey = ARGV[1] .. value
+if redis.call('GET', linkedKey) == ARGV[2] then
+    redis.call('DEL', linkedKey)
+    return { value, '1' }
+end
+return { value, '0' }
@@ -0,0 +1,14 @@
+-- Consomme KEYS[1] puis la valeur liée ARGV[1] .. valeur si elle vaut ARGV[2]
+-- Retourne {} si KEYS[1] est absente, sinon { valeur, '1' | '0' }
+-- La clé liée est calculée dans le script : non compatible Redis Cluster
+local value = redis.call('GETDEL', KEYS[1])
+if not value then
+    return {}
+end
+
+local linkedKey = ARGV[1] .. value
+if redis.call('GET', linkedKey) == ARGV[2] then
+    redis.call('DEL', linkedKey)
+    return { value, '1' }
+end
+return { value, '0' }
@@ -0,0 +1,5 @@
+-- Crée une famille de refresh tokens : hash KEYS[1]
+-- { s = empreinte du token courant, u = email, r = rôle, e = fin de vie absolue (ms) }
+-- ARGV[1..4] : s, u, r, e ; ARGV[5] : durée d'inactivité maximale (ms)
+redis.call('HSET', KEYS[1], 's', ARGV[1], 'u', ARGV[2], 'r', ARGV[3], 'e', ARGV[4])
+return redis.call('PEXPIRE', KEYS[1], ARGV[5])
@@ -0,0 +1,7 @@
+-- Supprime l'instantané KEYS[1] et change sa génération KEYS[2] (heure Redis, jamais réutilisée)
+-- ARGV[1] : durée de vie de la génération en millisecondes
+-- Un chargement en cours qui a lu l'ancienne génération n'écrira pas sa ligne périmée
+redis.call('DEL', KEYS[1])
+local now = redis.call('TIME')
+redis.call('SET', KEYS[2], now[1] .. '.' .. now[2], 'PX', ARGV[1])
+return 1
@@ -0,0 +1,4 @@
+-- Stocke une valeur et sa valeur liée dans le hash KEYS[1] avec une seule durée de vie
+-- ARGV[1] : valeur, ARGV[2] : valeur liée, ARGV[3] : durée de vie en millisecondes
+redis.call('HSET', KEYS[1], 'value', ARGV[1], 'linked', ARGV[2])
+return redis.call('PEXPIRE', KEYS[1], ARGV[3])
@@ -0,0 +1,9 @@
+-- Écrit l'instantané KEYS[1] seulement si aucune invalidation n'a eu lieu depuis sa lecture en base
+-- KEYS[2] : génération (posée par evict_snapshot.lua), ARGV[1] : génération lue avant la requête ('' si absente)
+-- ARGV[2] : instantané encodé, ARGV[3] : durée de vie en millisecondes
+-- Retourne 1 si l'instantané a été écrit, 0 s'il est peut-être périmé
+if (redis.call('GET', KEYS[2]) or '') ~= ARGV[1] then
+    return 0
+end
+redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+return 1
@@ -0,0 +1,9 @@
+-- Révoque un JWT : KEYS[1] = ensemble trié des jti révoqués (score = expiration du token, ms)
+-- ARGV[1] : jti, ARGV[2] : expiration du token (ms), ARGV[3] : maintenant (ms), ARGV[4] : canal pub/sub
+-- Les entrées expirées sont purgées à chaque écriture ; l'ensemble disparaît avec son dernier token
+redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[3])
+local last = redis.call('ZRANGE', KEYS[1], -1, -1, 'WITHSCORES')
+redis.call('PEXPIREAT', KEYS[1], last[2])
+redis.call('PUBLISH', ARGV[4], ARGV[1] .. ' ' .. ARGV[2])
+return 1
@@ -0,0 +1,26 @@
+-- Rotation du refresh token de la famille KEYS[1] (cf. create_refresh_family.lua)
+-- ARGV[1] : empreinte présentée, ARGV[2] : empreinte du nouveau token,
+-- ARGV[3] : maintenant (ms), ARGV[4] : durée d'inactivité maximale (ms)
+-- Retourne {} si la famille est inconnue ou expirée,
+-- { 'reused', email } si le token présenté a déjà servi (la famille est révoquée),
+-- sinon { 'rotated', email, rôle }
+local family = redis.call('HMGET', KEYS[1], 's', 'u', 'r', 'e')
+if not family[1] then
+    return {}
+end
+
+local now = tonumber(ARGV[3])
+local expires = tonumber(family[4])
+if now >= expires then
+    redis.call('DEL', KEYS[1])
+    return {}
+end
+
+if family[1] ~= ARGV[1] then
+    redis.call('DEL', KEYS[1])
+    return { 'reused', family[2] }
+end
+
+redis.call('HSET', KEYS[1], 's', ARGV[2])
+redis.call('PEXPIRE', KEYS[1], math.min(tonumber(ARGV[4]), expires - now))
+return { 'rotated', family[2], family[3] }
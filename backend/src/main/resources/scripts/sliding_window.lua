@@ -0,0 +1,33 @@
+-- Limites en fenêtre glissante approximée : compteur de la fenêtre courante
+-- + compteur de la précédente pondéré par la part de celle-ci encore couverte
+-- Limite i : KEYS[2i-1] = compteur de la fenêtre courante, KEYS[2i] = de la précédente
+-- ARGV[1] : maintenant (ms), puis pour chaque limite : maximum, durée de la fenêtre (ms)
+-- Les limites passent toutes ou la requête n'est comptée nulle part
+-- Retourne { 0 } si la requête est admise, sinon { i, attente en ms } pour la première limite dépassée
+-- Clés de plusieurs slots : non compatible Redis Cluster
+local now = tonumber(ARGV[1])
+local count = #KEYS / 2
+
+for i = 1, count do
+    local max = tonumber(ARGV[2 * i])
+    local window = tonumber(ARGV[2 * i + 1])
+    local elapsed = now % window
+    local current = tonumber(redis.call('GET', KEYS[2 * i - 1]) or '0')
+    local previous = tonumber(redis.call('GET', KEYS[2 * i]) or '0')
+    if previous * (window - elapsed) / window + current + 1 > max then
+        local wait
+        if current + 1 > max then
+            -- Fenêtre courante pleine : elle devient la précédente et doit assez décroître
+            wait = window - elapsed + window * (1 - (max - 1) / current)
+        else
+            wait = window - elapsed - (max - current - 1) * window / previous
+        end
+        return { i, math.max(math.ceil(wait), 1) }
+    end
+end
+
+for i = 1, count do
+    redis.call('INCR', KEYS[2 * i - 1])
+    redis.call('PEXPIRE', KEYS[2 * i - 1], 2 * tonumber(ARGV[2 * i + 1]))
+end
+return { 0 }
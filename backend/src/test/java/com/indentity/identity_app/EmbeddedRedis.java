@@ -0,0 +1,85 @@
+package com.indentity.identity_app;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * redis-server embarqué partagé par les tests (démarré au premier usage, arrêté avec la JVM)
+ *
+ * Usage :
+ *   RedisTemplate<String, String> redis = EmbeddedRedis.template();
+ *   EmbeddedRedis.flush(); // avant chaque test
+ */
+public final class EmbeddedRedis {
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, String> template;
+
+    private EmbeddedRedis() {
+    }
+
+    public static synchronized LettuceConnectionFactory connectionFactory() {
+        if (connectionFactory == null) {
+            start();
+        }
+        return connectionFactory;
+    }
+
+    /**
+     * @return Un RedisTemplate String/String configuré comme RedisConfig
+     */
+    public static synchronized RedisTemplate<String, String> template() {
+        if (template == null) {
+            template = new RedisTemplate<>();
+            template.setConnectionFactory(connectionFactory());
+            template.setKeySerializer(new StringRedisSerializer());
+            template.setValueSerializer(new StringRedisSerializer());
+            template.setHashKeySerializer(new StringRedisSerializer());
+            template.setHashValueSerializer(new StringRedisSerializer());
+            template.afterPropertiesSet();
+        }
+        return template;
+    }
+
+    public static void flush() {
+        template().execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+    }
+
+    private static void start() {
+        try {
+            int port = freePort();
+            RedisServer server = new RedisServer(port);
+            server.start();
+            connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                connectionFactory.destroy();
+                try {
+                    server.stop();
+                } catch (IOException e) {
+                    // Arrêt de la JVM : le processus redis-server est tué avec elle
+                }
+            }));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
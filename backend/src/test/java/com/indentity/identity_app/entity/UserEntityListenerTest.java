@@ -0,0 +1,41 @@
+package com.indentity.identity_app.entity;
+
+import com.indentity.identity_app.service.PublicKeyCache;
+import com.indentity.identity_app.service.UserSnapshotCache;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class UserEntityListenerTest {
+
+    private final PublicKeyCache publicKeyCache = mock(PublicKeyCache.class);
+    private final UserSnapshotCache userSnapshotCache = mock(UserSnapshotCache.class);
+    private final UserEntityListener listener = new UserEntityListener(publicKeyCache, userSnapshotCache);
+
+    @Test
+    void anEmailChangeRevokesTheOldAndTheNewEmail() {
+        User user = User.builder().id(7L).email("old@example.com").build();
+        listener.onUserLoaded(user);
+
+        user.setEmail("new@example.com");
+        listener.onUserChanged(user);
+
+        verify(publicKeyCache).invalidate(7L);
+        verify(userSnapshotCache).revoke("new@example.com");
+        verify(userSnapshotCache).revoke("old@example.com");
+    }
+
+    @Test
+    void otherChangesRevokeTheCurrentEmailOnly() {
+        User user = User.builder().id(7L).email("alice@example.com").build();
+        listener.onUserLoaded(user);
+
+        user.setEmail("Alice@Example.com");
+        listener.onUserChanged(user);
+
+        verify(userSnapshotCache).revoke("Alice@Example.com");
+        verify(userSnapshotCache, never()).revoke("alice@example.com");
+    }
+}
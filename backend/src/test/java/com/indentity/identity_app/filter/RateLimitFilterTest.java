@@ -0,0 +1,129 @@
+package com.indentity.identity_app.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indentity.identity_app.EmbeddedRedis;
+import com.indentity.identity_app.event.AuthEventLogger;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.ratelimit.LocalRateLimiter;
+import com.indentity.identity_app.ratelimit.SlidingWindowRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Limites de RateLimitFilter (Redis embarqué) et relecture du corps par la suite de la chaîne
+ */
+class RateLimitFilterTest {
+
+    private static final String BODY = "{\"email\":\"Alice@X.io\",\"password\":\"pw\"}";
+
+    private final RedisTemplate<String, String> redis = EmbeddedRedis.template();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flush();
+    }
+
+    private RateLimitFilter filter(int localCapacity, long perEmail) {
+        AuthMetrics authMetrics = new AuthMetrics(registry);
+        return new RateLimitFilter(
+                new LocalRateLimiter(registry, localCapacity, 1, 1000),
+                new SlidingWindowRateLimiter(redis, authMetrics, registry, Duration.ofHours(1), 100, perEmail, 5),
+                authMetrics, new AuthEventLogger(1000, 10), new ObjectMapper(), true);
+    }
+
+    private static MockHttpServletRequest post(String path, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr("1.2.3.4");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    @Test
+    void theBodyReadByTheFilterCanBeReadAgainDownTheChain() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(50, 10).doFilter(post("/auth/login", BODY), new MockHttpServletResponse(), chain);
+
+        HttpServletRequest next = (HttpServletRequest) chain.getRequest();
+        assertThat(new String(next.getInputStream().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        // Chaque lecture repart du début
+        try (BufferedReader reader = next.getReader()) {
+            assertThat(reader.lines().collect(Collectors.joining())).isEqualTo(BODY);
+        }
+        assertThat(next.getInputStream().isFinished()).isFalse();
+    }
+
+    @Test
+    void theEmailOfTheBodyIsLimitedIgnoringCase() throws Exception {
+        RateLimitFilter filter = filter(50, 1);
+        filter.doFilter(post("/auth/login", BODY), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("/auth/login", BODY.replace("Alice@X.io", "alice@x.io")), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+        assertThat(chain.getRequest()).isNull();
+        assertThat(registry.get("auth.rate-limit.rejected").tag("scope", "email").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void aBodyWithoutTheLimitedValueIsStillPassedOn() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter(50, 10).doFilter(post("/auth/login", "not json"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(((HttpServletRequest) chain.getRequest()).getInputStream().readAllBytes())
+                .isEqualTo("not json".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void theLocalPreFilterRejectsABurstWithoutRedis() throws Exception {
+        RateLimitFilter filter = filter(1, 10);
+        filter.doFilter(post("/auth/login", BODY), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("/auth/login", BODY), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(registry.get("auth.rate-limit.rejected").tag("scope", "local").counter().count()).isEqualTo(1);
+        // Seule la première requête a été comptée dans Redis
+        assertThat(redis.keys("rate:email:*")).hasSize(1);
+    }
+
+    @Test
+    void otherRequestsAreNotWrapped() throws Exception {
+        RateLimitFilter filter = filter(50, 10);
+
+        MockHttpServletRequest me = new MockHttpServletRequest("GET", "/auth/me");
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(me, new MockHttpServletResponse(), chain);
+        assertThat(chain.getRequest()).isSameAs(me);
+
+        MockHttpServletRequest users = post("/users/1", BODY);
+        chain = new MockFilterChain();
+        filter.doFilter(users, new MockHttpServletResponse(), chain);
+        assertThat(chain.getRequest()).isSameAs(users);
+        assertThat(redis.keys("rate:*")).hasSize(1);
+    }
+}
@@ -0,0 +1,59 @@
+package com.indentity.identity_app.jwt;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyRingTest {
+
+    @TempDir
+    Path keysDir;
+
+    private JwtKeyRing keyRing(JwtAlgorithm algorithm, String dir) {
+        return new JwtKeyRing(algorithm, "", dir, Duration.ofDays(7), 2048, Duration.ofMinutes(15), 3_600_000L);
+    }
+
+    private static String token(SigningKey key) {
+        return JWT.create().withKeyId(key.kid()).withSubject("alice@example.com").sign(key.algorithm());
+    }
+
+    @Test
+    void asymmetricAlgorithmsRequireASharedKeysDirectory() {
+        assertThatThrownBy(() -> keyRing(JwtAlgorithm.RS256, ""))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("jwt.keys.dir");
+        assertThatThrownBy(() -> keyRing(JwtAlgorithm.ES256, " "))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void instancesSharingTheDirectorySignWithTheSameKey() {
+        JwtKeyRing first = keyRing(JwtAlgorithm.ES256, keysDir.toString());
+        JwtKeyRing second = keyRing(JwtAlgorithm.ES256, keysDir.toString());
+
+        assertThat(second.signingKey().kid()).isEqualTo(first.signingKey().kid());
+        JWT.require(second.verificationAlgorithm()).build().verify(token(first.signingKey()));
+    }
+
+    @Test
+    void anUnknownKidReloadsTheDirectoryOnce() {
+        JwtKeyRing first = keyRing(JwtAlgorithm.ES256, keysDir.toString());
+        JwtKeyRing second = keyRing(JwtAlgorithm.ES256, keysDir.toString());
+        SigningKey rotated = first.rotate();
+
+        // Créée par l'autre instance après la dernière relecture : trouvée sans attendre la vérification périodique
+        JWT.require(second.verificationAlgorithm()).build().verify(token(rotated));
+
+        SigningKey rotatedAgain = first.rotate();
+        // Relectures espacées : un second kid inconnu dans la même seconde est refusé
+        assertThatThrownBy(() -> JWT.require(second.verificationAlgorithm()).build().verify(token(rotatedAgain)))
+                .isInstanceOf(JWTVerificationException.class);
+    }
+}
@@ -0,0 +1,149 @@
+package com.indentity.identity_app.ratelimit;
+
+import com.indentity.identity_app.EmbeddedRedis;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * sliding_window.lua et SlidingWindowRateLimiter contre un Redis embarqué
+ */
+class SlidingWindowRateLimiterTest {
+
+    // Fenêtre longue : un test ne change pas de fenêtre en cours d'exécution
+    private static final Duration WINDOW = Duration.ofHours(1);
+
+    private final RedisTemplate<String, String> redis = EmbeddedRedis.template();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flush();
+    }
+
+    private SlidingWindowRateLimiter limiter(RedisTemplate<String, String> template,
+                                             long perIp, long perEmail, long perTemporaryToken) {
+        return new SlidingWindowRateLimiter(template, new AuthMetrics(registry), registry,
+                WINDOW, perIp, perEmail, perTemporaryToken);
+    }
+
+    private static List<RateLimitKey> keys(String ip, String email) {
+        return List.of(new RateLimitKey(RateLimitScope.IP, ip), new RateLimitKey(RateLimitScope.EMAIL, email));
+    }
+
+    private static String currentKey(RateLimitScope scope, String value) {
+        return "rate:" + scope.tag() + ":" + value + ":" + System.currentTimeMillis() / WINDOW.toMillis();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> script(long now, long max, long windowMs, String current, String previous) {
+        return (List<Long>) redis.execute(SlidingWindowRateLimiter.SLIDING_WINDOW, List.of(current, previous),
+                String.valueOf(now), String.valueOf(max), String.valueOf(windowMs));
+    }
+
+    @Test
+    void requestsAreAdmittedUpToTheMaximum() {
+        SlidingWindowRateLimiter limiter = limiter(redis, 100, 3, 5);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(keys("1.2.3.4", "a@x.io"))).isEmpty();
+        }
+        Optional<RateLimitRejection> rejection = limiter.tryAcquire(keys("1.2.3.4", "a@x.io"));
+
+        assertThat(rejection).isPresent();
+        assertThat(rejection.get().scope()).isEqualTo(RateLimitScope.EMAIL);
+        assertThat(rejection.get().retryAfterMs()).isPositive().isLessThanOrEqualTo(2 * WINDOW.toMillis());
+        // Un autre email n'est pas concerné
+        assertThat(limiter.tryAcquire(keys("1.2.3.4", "b@x.io"))).isEmpty();
+    }
+
+    @Test
+    void aRejectedRequestIsCountedInNoLimit() {
+        SlidingWindowRateLimiter limiter = limiter(redis, 100, 1, 5);
+
+        limiter.tryAcquire(keys("1.2.3.4", "a@x.io"));
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(keys("1.2.3.4", "a@x.io"))).isPresent();
+        }
+
+        assertThat(redis.opsForValue().get(currentKey(RateLimitScope.IP, "1.2.3.4"))).isEqualTo("1");
+        assertThat(redis.opsForValue().get(currentKey(RateLimitScope.EMAIL, "a@x.io"))).isEqualTo("1");
+    }
+
+    @Test
+    void theFirstExceededLimitIsReported() {
+        SlidingWindowRateLimiter limiter = limiter(redis, 1, 1, 5);
+
+        limiter.tryAcquire(keys("1.2.3.4", "a@x.io"));
+
+        assertThat(limiter.tryAcquire(keys("1.2.3.4", "a@x.io")).map(RateLimitRejection::scope))
+                .contains(RateLimitScope.IP);
+        assertThat(limiter.tryAcquire(keys("5.6.7.8", "a@x.io")).map(RateLimitRejection::scope))
+                .contains(RateLimitScope.EMAIL);
+    }
+
+    @Test
+    void countersExpireAfterTwoWindows() {
+        limiter(redis, 100, 3, 5).tryAcquire(keys("1.2.3.4", "a@x.io"));
+
+        assertThat(redis.getExpire(currentKey(RateLimitScope.IP, "1.2.3.4")))
+                .isBetween(2 * WINDOW.toSeconds() - 5, 2 * WINDOW.toSeconds());
+    }
+
+    @Test
+    void disabledLimitsAndMissingValuesSkipRedis() {
+        RedisTemplate<String, String> template = mock(RedisTemplate.class);
+        SlidingWindowRateLimiter limiter = limiter(template, 100, 0, 5);
+
+        assertThat(limiter.tryAcquire(List.of(new RateLimitKey(RateLimitScope.EMAIL, "a@x.io"),
+                new RateLimitKey(RateLimitScope.TEMPORARY_TOKEN, null)))).isEmpty();
+        verifyNoInteractions(template);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void requestsAreAdmittedWhenRedisFails() {
+        RedisTemplate<String, String> template = mock(RedisTemplate.class);
+        when(template.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(limiter(template, 100, 3, 5).tryAcquire(keys("1.2.3.4", "a@x.io"))).isEmpty();
+        assertThat(registry.get("auth.rate-limit.errors").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void thePreviousWindowIsWeightedByTheShareStillCovered() {
+        // Mi-fenêtre : 4 requêtes de la fenêtre précédente comptent pour 2
+        redis.opsForValue().set("previous", "4");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(script(10_500, 5, 1000, "current", "previous")).containsExactly(0L);
+        }
+        // 2 + 3 + 1 > 5 : il faut que la précédente décroisse d'une requête, soit 250 ms
+        assertThat(script(10_500, 5, 1000, "current", "previous")).containsExactly(1L, 250L);
+        assertThat(redis.opsForValue().get("current")).isEqualTo("3");
+    }
+
+    @Test
+    void aFullCurrentWindowWaitsForItToBecomeThePreviousOne() {
+        redis.opsForValue().set("current", "2");
+
+        // Fin de la fenêtre dans 500 ms, puis la moitié d'une fenêtre pour retomber sous le maximum
+        assertThat(script(10_500, 2, 1000, "current", "previous")).containsExactly(1L, 1000L);
+    }
+}
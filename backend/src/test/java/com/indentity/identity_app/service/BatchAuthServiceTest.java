@@ -0,0 +1,108 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.dto.Request.AuthenticateRequest;
+import com.indentity.identity_app.dto.Response.BatchAuthenticateResult;
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.event.AuthEventLogger;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.repository.PublicKeyView;
+import com.indentity.identity_app.signature.SignatureAlgorithm;
+import com.indentity.identity_app.store.LinkedConsumption;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchAuthServiceTest {
+
+    private final TemporaryTokenService temporaryTokenService = mock(TemporaryTokenService.class);
+    private final UserLookup userLookup = mock(UserLookup.class);
+    private final SignatureService signatureService = mock(SignatureService.class);
+    private final JwtService jwtService = mock(JwtService.class);
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    private final BatchAuthService service = new BatchAuthService(temporaryTokenService, mock(ChallengeService.class),
+            userLookup, signatureService, jwtService, refreshTokenService, new AuthMetrics(new SimpleMeterRegistry()),
+            new AuthEventLogger(1000, 10), pool, 10);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static AuthenticateRequest item(String token) {
+        AuthenticateRequest item = new AuthenticateRequest();
+        item.temporaryToken = token;
+        item.challenge = "challenge-" + token;
+        item.signature = "signature-" + token;
+        return item;
+    }
+
+    private static PublicKeyView user(long id, String email) {
+        return new PublicKeyView(id, email, Role.USER, "MCow", SignatureAlgorithm.ED25519);
+    }
+
+    @Test
+    void looksUpAllUsersOfTheBatchAtOnce() {
+        when(temporaryTokenService.consumeTemporaryTokensAndChallenges(anyList(), anyList())).thenReturn(List.of(
+                new LinkedConsumption("Alice@example.com", true),
+                new LinkedConsumption(null, false),
+                new LinkedConsumption("bob@example.com", false),
+                new LinkedConsumption("carol@example.com", true),
+                new LinkedConsumption("dave@example.com", true)));
+        when(userLookup.publicKeys(any())).thenReturn(Map.of(
+                "alice@example.com", user(1L, "alice@example.com"),
+                "dave@example.com", user(4L, "dave@example.com")));
+        when(signatureService.verifySignatures(anyList())).thenReturn(List.of(true, false));
+        when(jwtService.generateTokens(anyList())).thenReturn(List.of("jwt-alice"));
+        when(refreshTokenService.issueAll(anyList())).thenReturn(List.of("family.secret"));
+
+        List<BatchAuthenticateResult> results = service.authenticate(
+                List.of(item("a"), item("b"), item("c"), item("d"), item("e")));
+
+        assertThat(results).extracting(BatchAuthenticateResult::getStatus).containsExactly(
+                BatchAuthenticateResult.Status.AUTHENTICATED,
+                BatchAuthenticateResult.Status.REJECTED,
+                BatchAuthenticateResult.Status.REJECTED,
+                BatchAuthenticateResult.Status.REJECTED,
+                BatchAuthenticateResult.Status.REJECTED);
+        assertThat(results.get(0).getToken()).isEqualTo("jwt-alice");
+        assertThat(results.get(0).getRefreshToken()).isEqualTo("family.secret");
+        verify(refreshTokenService).issueAll(List.of(new TokenSubject("alice@example.com", Role.USER)));
+        assertThat(results).extracting(BatchAuthenticateResult::getMessage).containsExactly(
+                null, "Invalid or expired temporary token", "Invalid or expired challenge",
+                "Invalid credentials", "Invalid signature");
+
+        // Seuls les éléments dont le token et le challenge étaient valides, en une requête
+        verify(userLookup).publicKeys(List.of("Alice@example.com", "carol@example.com", "dave@example.com"));
+        verify(userLookup, never()).publicKey(anyString());
+    }
+
+    @Test
+    void skipsTheLookupWhenNoItemIsValid() {
+        when(temporaryTokenService.consumeTemporaryTokensAndChallenges(anyList(), anyList()))
+                .thenReturn(List.of(new LinkedConsumption(null, false)));
+        when(userLookup.publicKeys(any())).thenReturn(Map.of());
+        when(signatureService.verifySignatures(anyList())).thenReturn(List.of());
+        when(jwtService.generateTokens(anyList())).thenReturn(List.of());
+        when(refreshTokenService.issueAll(anyList())).thenReturn(List.of());
+
+        assertThat(service.authenticate(List.of(item("a"))))
+                .extracting(BatchAuthenticateResult::getStatus)
+                .containsExactly(BatchAuthenticateResult.Status.REJECTED);
+        verify(userLookup, never()).publicKey(anyString());
+    }
+}
@@ -0,0 +1,129 @@
+package com.indentity.identity_app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indentity.identity_app.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Dédoublonnage des lignes de BulkRegistrationService (base et BCrypt simulés)
+ */
+class BulkRegistrationServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Appels de batchUpdate à faire échouer (numérotés à partir de 1)
+    private final Set<Integer> failingInserts = new HashSet<>();
+    private final AtomicInteger inserts = new AtomicInteger();
+    private BulkRegistrationService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+            if ("fail".equals(invocation.getArgument(0))) {
+                throw new IllegalStateException("hashing failed");
+            }
+            return "hash";
+        });
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenAnswer(invocation ->
+                LongStream.rangeClosed(1, (Integer) invocation.getArgument(2)).boxed().toList());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            if (failingInserts.contains(inserts.incrementAndGet())) {
+                throw new QueryTimeoutException("insert timed out");
+            }
+            int[] counts = new int[((List<?>) invocation.getArgument(1)).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private List<JsonNode> register(int chunkSize, String... lines) throws Exception {
+        service = new BulkRegistrationService(userRepository, jdbcTemplate, transactionTemplate, passwordEncoder,
+                mock(KnownEmailFilter.class), mock(SignatureService.class), objectMapper, new SimpleMeterRegistry(),
+                chunkSize, 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.register(new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)), out);
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+
+    private static String row(String email, String password) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}";
+    }
+
+    private static List<String> statuses(List<JsonNode> results) {
+        return results.stream().map(result -> result.get("status").asText()).toList();
+    }
+
+    @Test
+    void aRepeatedEmailIsReportedAsADuplicate() throws Exception {
+        List<JsonNode> results = register(10,
+                row("a@x.io", "pw"), row("A@X.io", "pw"), row("b@x.io", "pw"));
+
+        assertThat(statuses(results)).containsExactly("CREATED", "DUPLICATE", "CREATED");
+        assertThat(results.get(1).get("message").asText()).isEqualTo("Duplicate email in request");
+    }
+
+    @Test
+    void aRepeatedEmailIsRetriedWhenTheFirstRowFailedToHash() throws Exception {
+        List<JsonNode> results = register(10,
+                row("a@x.io", "fail"), row("A@x.io", "pw"), row("a@x.io", "pw"));
+
+        assertThat(statuses(results)).containsExactly("ERROR", "CREATED", "DUPLICATE");
+        assertThat(results.get(0).get("message").asText()).isEqualTo("Password hashing failed");
+    }
+
+    @Test
+    void aRepeatedEmailInALaterChunkIsRetriedWhenTheInsertFailed() throws Exception {
+        failingInserts.add(1);
+
+        List<JsonNode> results = register(2,
+                row("a@x.io", "pw"), row("b@x.io", "pw"), row("a@x.io", "pw"), row("b@x.io", "pw"));
+
+        assertThat(statuses(results)).containsExactly("ERROR", "ERROR", "CREATED", "CREATED");
+        assertThat(results.get(0).get("message").asText()).isEqualTo("Insert failed");
+    }
+}
@@ -0,0 +1,99 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.EmbeddedRedis;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Filtre des emails connus : un email inscrit sur une autre instance n'est jamais refusé,
+ * même si la publication pub/sub n'est pas arrivée (abonnement neutralisé ici)
+ */
+class KnownEmailFilterTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flush();
+        List<String> registered = List.of("Alice@Example.com");
+        when(userRepository.count()).thenReturn((long) registered.size());
+        when(userRepository.streamAllEmails()).thenAnswer(invocation -> registered.stream());
+    }
+
+    private KnownEmailFilter filter(long rebuildIntervalMs) {
+        return new KnownEmailFilter(userRepository, EmbeddedRedis.template(),
+                new ReactiveStringRedisTemplate(EmbeddedRedis.connectionFactory()),
+                mock(RedisMessageListenerContainer.class),
+                new AuthMetrics(new SimpleMeterRegistry()), 0.01, rebuildIntervalMs);
+    }
+
+    @Test
+    void everyEmailMightExistBeforeTheFirstBuild() {
+        assertThat(filter(60_000).mightExist("nobody@example.com")).isTrue();
+    }
+
+    @Test
+    void rejectsUnknownEmailsOnceBuilt() {
+        KnownEmailFilter filter = filter(60_000);
+        filter.rebuild();
+
+        assertThat(filter.mightExist("alice@example.com")).isTrue();
+        assertThat(filter.mightExist("ALICE@example.com")).isTrue();
+        assertThat(filter.mightExist("nobody@example.com")).isFalse();
+        assertThat(filter.mightExistAsync("nobody@example.com").block()).isFalse();
+    }
+
+    @Test
+    void findsARegistrationWhosePublicationWasLost() {
+        KnownEmailFilter node = filter(60_000);
+        KnownEmailFilter otherNode = filter(60_000);
+        node.rebuild();
+        otherNode.rebuild();
+
+        otherNode.add("Bob@Example.com");
+
+        assertThat(node.mightExist("bob@example.com")).isTrue();
+        assertThat(node.mightExistAsync("BOB@example.com").block()).isTrue();
+    }
+
+    @Test
+    void mergesRecentRegistrationsOnRebuild() {
+        KnownEmailFilter node = filter(60_000);
+        filter(60_000).add("bob@example.com");
+        node.rebuild();
+        EmbeddedRedis.flush();
+
+        assertThat(node.mightExist("bob@example.com")).isTrue();
+    }
+
+    @Test
+    void stopsRejectingWhenTheLastRebuildIsTooOld() throws InterruptedException {
+        KnownEmailFilter filter = filter(50);
+        filter.rebuild();
+        assertThat(filter.mightExist("nobody@example.com")).isFalse();
+
+        // Plus ancienne que les inscriptions gardées dans Redis (2 périodes)
+        Thread.sleep(150);
+        assertThat(filter.mightExist("nobody@example.com")).isTrue();
+    }
+
+    @Test
+    void recentRegistrationsExpireFromRedis() {
+        filter(60_000).add("bob@example.com");
+
+        assertThat(EmbeddedRedis.template().getExpire(KnownEmailFilter.RECENT_KEY)).isBetween(1L, 120L);
+        assertThat(EmbeddedRedis.template().opsForZSet().score(KnownEmailFilter.RECENT_KEY, "bob@example.com"))
+                .isNotNull();
+    }
+}
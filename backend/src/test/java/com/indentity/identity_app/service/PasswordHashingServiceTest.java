@@ -0,0 +1,110 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.exception.TooManyRequestsException;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Limites de vérifications simultanées (par email, par IP, file du pool)
+ */
+class PasswordHashingServiceTest {
+
+    private final BlockingEncoder encoder = new BlockingEncoder();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // 1 thread, file de 1, 2 vérifications par email, 3 par IP
+    private final PasswordHashingService service = new PasswordHashingService(
+            encoder, registry, new AuthMetrics(registry), 1, 1, 2, 3);
+
+    @AfterEach
+    void shutdown() {
+        encoder.release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void limitsConcurrentChecksPerEmailWhateverTheCase() {
+        service.matchesAsync("pw", "hash", "alice@example.com", "10.0.0.1");
+        service.matchesAsync("pw", "hash", "Alice@Example.com", "10.0.0.2");
+
+        assertThatThrownBy(() -> service.matchesAsync("pw", "hash", "ALICE@EXAMPLE.COM", "10.0.0.3"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(registry.get("auth.hashing.rejected").tag("reason", "email").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void limitsConcurrentChecksPerIp() {
+        PasswordHashingService wide = new PasswordHashingService(
+                encoder, registry, new AuthMetrics(registry), 1, 10, 2, 2);
+        try {
+            wide.matchesAsync("pw", "hash", "a@example.com", "10.0.0.1");
+            wide.matchesAsync("pw", "hash", "b@example.com", "10.0.0.1");
+
+            assertThatThrownBy(() -> wide.matchesAsync("pw", "hash", "c@example.com", "10.0.0.1"))
+                    .isInstanceOf(TooManyRequestsException.class);
+            // Refus par IP : l'email refusé n'a pas gardé de place
+            wide.matchesAsync("pw", "hash", "c@example.com", "10.0.0.2");
+        } finally {
+            encoder.release.countDown();
+            wide.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsWhenThePoolQueueIsFull() {
+        service.matchesAsync("pw", "hash", "a@example.com", "10.0.0.1"); // en cours
+        service.matchesAsync("pw", "hash", "b@example.com", "10.0.0.2"); // en file
+
+        assertThatThrownBy(() -> service.matchesAsync("pw", "hash", "c@example.com", "10.0.0.3"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(registry.get("auth.hashing.rejected").tag("reason", "saturated").counter().count()).isEqualTo(1);
+        // Refus du pool : les limites prises par la requête refusée sont rendues
+        assertThatThrownBy(() -> service.matchesAsync("pw", "hash", "c@example.com", "10.0.0.3"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(registry.get("auth.hashing.rejected").tag("reason", "email").counter().count()).isZero();
+    }
+
+    @Test
+    void releasesTheSlotsOnceTheCheckCompletes() throws Exception {
+        CompletableFuture<Boolean> first = service.matchesAsync("pw", "hash", "alice@example.com", "10.0.0.1");
+        CompletableFuture<Boolean> second = service.matchesAsync("pw", "hash", "alice@example.com", "10.0.0.1");
+        encoder.release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(service.matchesAsync("pw", "hash", "ALICE@example.com", "10.0.0.1").get(5, TimeUnit.SECONDS))
+                .isTrue();
+    }
+
+    /**
+     * Encodeur dont chaque vérification attend la levée du verrou (calcul BCrypt en cours)
+     */
+    private static final class BlockingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "hash";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return encodedPassword.equals("hash");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.indentity.identity_app.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RandomTokenSourceTest {
+
+    @Test
+    void generatesDistinct256BitTokens() {
+        RandomTokenSource source = new RandomTokenSource(new SimpleMeterRegistry(), 2, false, 0, 50);
+        Set<String> tokens = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            String token = source.nextToken();
+            assertThat(Base64.getUrlDecoder().decode(token)).hasSize(32);
+            tokens.add(token);
+        }
+        assertThat(tokens).hasSize(10_000);
+    }
+
+    @Test
+    void refillsThePoolOnItsOwnThread() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RandomTokenSource source = new RandomTokenSource(registry, 2, true, 64, 5);
+        try {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (registry.get("auth.random.pool.size").gauge().value() < 64
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(registry.get("auth.random.pool.size").gauge().value()).isEqualTo(64);
+
+            for (int i = 0; i < 64; i++) {
+                source.nextToken();
+            }
+            assertThat(registry.get("auth.random.pool.underflow").counter().count()).isZero();
+        } finally {
+            source.shutdown();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.EmbeddedRedis;
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.exception.FailureReason;
+import com.indentity.identity_app.exception.InvalidCredentialsException;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.repository.RoleView;
+import com.indentity.identity_app.store.RedisRefreshTokenStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Parcours complet des refresh tokens contre un Redis embarqué
+ */
+class RefreshTokenServiceTest {
+
+    private static final String EMAIL = "alice@example.com";
+
+    private final JwtService jwtService = mock(JwtService.class);
+    private final UserLookup userLookup = mock(UserLookup.class);
+    private final RandomTokenSource randomTokenSource = new RandomTokenSource(new SimpleMeterRegistry(), 0, false, 1024, 50);
+    private final AuthMetrics authMetrics = new AuthMetrics(new SimpleMeterRegistry());
+    private final RefreshTokenService service = new RefreshTokenService(
+            new RedisRefreshTokenStore(EmbeddedRedis.template(), authMetrics), randomTokenSource, jwtService,
+            userLookup, authMetrics, true, Duration.ofDays(7), Duration.ofDays(30));
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flush();
+        when(jwtService.generateToken(anyString(), any(Role.class)))
+                .thenAnswer(invocation -> "jwt:" + invocation.getArgument(0) + ":" + invocation.getArgument(1));
+        when(userLookup.role(EMAIL)).thenReturn(Optional.of(new RoleView(1L, EMAIL, Role.USER)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        randomTokenSource.shutdown();
+    }
+
+    private static FailureReason reason(Throwable e) {
+        return ((InvalidCredentialsException) e).getReason();
+    }
+
+    @Test
+    void eachRefreshReturnsANewPair() {
+        String first = service.issue(EMAIL, Role.USER);
+
+        TokenPair second = service.refresh(first);
+        TokenPair third = service.refresh(second.refreshToken());
+
+        assertThat(second.accessToken()).isEqualTo("jwt:" + EMAIL + ":USER");
+        assertThat(List.of(first, second.refreshToken(), third.refreshToken())).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void reusingAReplacedTokenRevokesTheWholeFamily() {
+        String first = service.issue(EMAIL, Role.USER);
+        TokenPair second = service.refresh(first);
+
+        assertThatThrownBy(() -> service.refresh(first))
+                .satisfies(e -> assertThat(reason(e)).isEqualTo(FailureReason.REFRESH_TOKEN_REUSED));
+        assertThatThrownBy(() -> service.refresh(second.refreshToken()))
+                .satisfies(e -> assertThat(reason(e)).isEqualTo(FailureReason.INVALID_REFRESH_TOKEN));
+    }
+
+    @Test
+    void theNewJwtCarriesTheCurrentRole() {
+        String first = service.issue(EMAIL, Role.USER);
+        when(userLookup.role(EMAIL)).thenReturn(Optional.of(new RoleView(1L, EMAIL, Role.ADMIN)));
+
+        assertThat(service.refresh(first).accessToken()).isEqualTo("jwt:" + EMAIL + ":ADMIN");
+    }
+
+    @Test
+    void aDeletedUserCannotRefreshAnyMore() {
+        String first = service.issue(EMAIL, Role.USER);
+        TokenPair second = service.refresh(first);
+        when(userLookup.role(EMAIL)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.refresh(second.refreshToken()))
+                .satisfies(e -> assertThat(reason(e)).isEqualTo(FailureReason.INVALID_REFRESH_TOKEN));
+
+        // Famille révoquée : même si l'utilisateur réapparaît, la session est perdue
+        when(userLookup.role(EMAIL)).thenReturn(Optional.of(new RoleView(1L, EMAIL, Role.USER)));
+        assertThat(EmbeddedRedis.template().keys("refresh:*")).isEmpty();
+        assertThatThrownBy(() -> service.refresh(second.refreshToken()))
+                .isInstanceOf(InvalidCredentialsException.class);
+    }
+
+    @Test
+    void malformedAndRevokedTokensAreRejected() {
+        String first = service.issue(EMAIL, Role.USER);
+        service.revoke(first);
+
+        for (String token : new String[]{null, "", "nodot", ".secret", "family.", first}) {
+            assertThatThrownBy(() -> service.refresh(token))
+                    .satisfies(e -> assertThat(reason(e)).isEqualTo(FailureReason.INVALID_REFRESH_TOKEN));
+        }
+    }
+
+    @Test
+    void issueAllOpensOneFamilyPerSubject() {
+        List<String> tokens = service.issueAll(List.of(new TokenSubject(EMAIL, Role.USER),
+                new TokenSubject("bob@example.com", Role.USER)));
+        when(userLookup.role("bob@example.com")).thenReturn(Optional.of(new RoleView(2L, "bob@example.com", Role.USER)));
+
+        assertThat(tokens).hasSize(2).doesNotHaveDuplicates();
+        assertThat(service.refresh(tokens.get(1)).accessToken()).isEqualTo("jwt:bob@example.com:USER");
+    }
+}
@@ -0,0 +1,93 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.event.AuthEventLogger;
+import com.indentity.identity_app.exception.TooManyRequestsException;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.signature.EcdsaP256SignatureVerifier;
+import com.indentity.identity_app.signature.Ed25519SignatureVerifier;
+import com.indentity.identity_app.signature.RsaSignatureVerifier;
+import com.indentity.identity_app.signature.SignatureVerifierRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérification déportée sur le pool crypto (auth.crypto.offload, profil virtual-threads)
+ */
+class SignatureServiceTest {
+
+    private static final String CHALLENGE = "challenge-0123456789";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    // Configuré comme cryptoExecutor : 1 thread, file de 1, refus quand la file est pleine
+    private final ThreadPoolExecutor cryptoExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+
+    private SignatureService service;
+    private String publicKey;
+    private String signature;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SignatureVerifierRegistry verifiers = new SignatureVerifierRegistry(List.of(
+                new RsaSignatureVerifier(), new EcdsaP256SignatureVerifier(), new Ed25519SignatureVerifier()));
+        service = new SignatureService(new PublicKeyCache(registry, 100, Duration.ofMinutes(1)), verifiers,
+                new AuthMetrics(registry), new AuthEventLogger(1000, 10), cryptoExecutor, true);
+
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        Signature signer = Signature.getInstance("SHA256withRSA");
+        signer.initSign(keyPair.getPrivate());
+        signer.update(CHALLENGE.getBytes(StandardCharsets.UTF_8));
+        signature = Base64.getEncoder().encodeToString(signer.sign());
+        publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        cryptoExecutor.shutdownNow();
+    }
+
+    @Test
+    void verifiesOnTheCryptoPool() {
+        assertThat(service.verifySignature(CHALLENGE, signature, 1L, publicKey, null)).isTrue();
+        assertThat(service.verifySignature("other", signature, 1L, publicKey, null)).isFalse();
+        assertThat(cryptoExecutor.getCompletedTaskCount()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsInsteadOfRunningOnTheCallerWhenThePoolIsFull() {
+        cryptoExecutor.execute(this::awaitRelease); // en cours
+        cryptoExecutor.execute(this::awaitRelease); // en file
+
+        assertThatThrownBy(() -> service.verifySignature(CHALLENGE, signature, 1L, publicKey, null))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.EmbeddedRedis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Liste de révocation contre un Redis embarqué (revoke_token.lua)
+ */
+class TokenRevocationListTest {
+
+    private static final String KEY = "revoked-jwt";
+
+    private final RedisTemplate<String, String> redis = EmbeddedRedis.template();
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flush();
+    }
+
+    private TokenRevocationList list(RedisTemplate<String, String> template, RedisMessageListenerContainer container) {
+        return new TokenRevocationList(template, container, new SimpleMeterRegistry(), 0.001);
+    }
+
+    @Test
+    void aRevokedTokenStaysRevokedUntilItExpires() {
+        TokenRevocationList list = list(redis, null);
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(10));
+
+        list.revoke("jti-1", expiresAt);
+
+        assertThat(list.isRevoked("jti-1")).isTrue();
+        assertThat(list.isRevoked("jti-2")).isFalse();
+        assertThat(list.isRevoked(null)).isFalse();
+        assertThat(redis.opsForZSet().score(KEY, "jti-1")).isEqualTo((double) expiresAt.toEpochMilli());
+        // Le set disparaît avec son dernier token
+        assertThat(redis.getExpire(KEY)).isBetween(595L, 600L);
+    }
+
+    @Test
+    void eachRevocationPurgesExpiredEntries() {
+        redis.opsForZSet().add(KEY, "old", System.currentTimeMillis() - 1000);
+
+        list(redis, null).revoke("jti-1", Instant.now().plus(Duration.ofMinutes(10)));
+
+        assertThat(redis.opsForZSet().range(KEY, 0, -1)).containsExactly("jti-1");
+    }
+
+    @Test
+    void anExpiredTokenIsNotRecorded() {
+        TokenRevocationList list = list(redis, null);
+
+        list.revoke("jti-1", Instant.now().minusSeconds(1));
+
+        assertThat(redis.hasKey(KEY)).isFalse();
+        assertThat(list.isRevoked("jti-1")).isFalse();
+    }
+
+    @Test
+    void syncLoadsRevocationsMadeElsewhere() {
+        list(redis, null).revoke("jti-1", Instant.now().plus(Duration.ofMinutes(10)));
+        TokenRevocationList other = list(redis, null);
+        assertThat(other.isRevoked("jti-1")).isFalse();
+
+        other.sync();
+
+        assertThat(other.isRevoked("jti-1")).isTrue();
+    }
+
+    @Test
+    void revocationsArePublishedToOtherInstances() throws Exception {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(EmbeddedRedis.connectionFactory());
+        TokenRevocationList other = list(redis, container);
+        container.afterPropertiesSet();
+        container.start();
+        try {
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (!container.isListening() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            list(redis, null).revoke("jti-1", Instant.now().plus(Duration.ofMinutes(10)));
+
+            while (!other.isRevoked("jti-1") && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(other.isRevoked("jti-1")).isTrue();
+        } finally {
+            container.stop();
+            container.destroy();
+        }
+    }
+
+    @Test
+    void messagesCarryTheExpiry() {
+        TokenRevocationList list = list(null, null);
+        long expiry = System.currentTimeMillis() + 60_000;
+
+        list.onMessage(new DefaultMessage("jwt-revocations".getBytes(StandardCharsets.UTF_8),
+                ("jti-1 " + expiry).getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(list.isRevoked("jti-1")).isTrue();
+    }
+
+    @Test
+    void theFilterGrowsWithTheList() {
+        TokenRevocationList list = list(null, null);
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(10));
+
+        for (int i = 0; i < 5000; i++) {
+            list.revoke("jti-" + i, expiresAt);
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            assertThat(list.isRevoked("jti-" + i)).isTrue();
+        }
+        assertThat(list.isRevoked("jti-5000")).isFalse();
+    }
+}
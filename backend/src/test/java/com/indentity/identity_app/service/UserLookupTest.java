@@ -0,0 +1,46 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.repository.PublicKeyView;
+import com.indentity.identity_app.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class UserLookupTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserSnapshotCache userSnapshotCache = mock(UserSnapshotCache.class);
+    private final UserLookup lookup = new UserLookup(userRepository, userSnapshotCache,
+            new AuthMetrics(new SimpleMeterRegistry()), true);
+
+    @Test
+    void batchLookupIsASingleCaseInsensitiveQuery() {
+        PublicKeyView alice = new PublicKeyView(1L, "Alice@Example.com", Role.USER, "MCow", null);
+        when(userRepository.findPublicKeysByEmails(any())).thenReturn(List.of(alice));
+
+        assertThat(lookup.publicKeys(List.of("alice@example.com", "ALICE@example.com", "bob@example.com")))
+                .containsOnlyKeys("alice@example.com")
+                .containsEntry("alice@example.com", alice);
+
+        verify(userRepository).findPublicKeysByEmails(Set.of("alice@example.com", "bob@example.com"));
+        verifyNoInteractions(userSnapshotCache);
+    }
+
+    @Test
+    void anEmptyBatchDoesNotQuery() {
+        assertThat(lookup.publicKeys(List.of())).isEmpty();
+        verify(userRepository, never()).findPublicKeysByEmails(any());
+    }
+}
@@ -0,0 +1,112 @@
+package com.indentity.identity_app.service;
+
+import com.indentity.identity_app.EmbeddedRedis;
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.repository.UserRepository;
+import com.indentity.identity_app.repository.UserSnapshot;
+import com.indentity.identity_app.signature.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache des instantanés contre un Redis embarqué : une ligne lue avant une
+ * invalidation n'est jamais écrite dans le niveau partagé
+ */
+class UserSnapshotCacheTest {
+
+    private static final String EMAIL = "alice@example.com";
+    private static final UserSnapshot OLD =
+            new UserSnapshot(1L, EMAIL, Role.USER, "$2a$10$old", "MCow", SignatureAlgorithm.ED25519);
+    private static final UserSnapshot NEW =
+            new UserSnapshot(1L, EMAIL, Role.ADMIN, "$2a$10$new", "MCow", SignatureAlgorithm.ED25519);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private RedisTemplate<String, byte[]> binaryTemplate;
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flush();
+        binaryTemplate = new RedisTemplate<>();
+        binaryTemplate.setConnectionFactory(EmbeddedRedis.connectionFactory());
+        binaryTemplate.setKeySerializer(new StringRedisSerializer());
+        binaryTemplate.setValueSerializer(RedisSerializer.byteArray());
+        binaryTemplate.afterPropertiesSet();
+    }
+
+    private UserSnapshotCache cache() {
+        return new UserSnapshotCache(userRepository, binaryTemplate, EmbeddedRedis.template(), null,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void encodingRoundTrips() {
+        assertThat(UserSnapshotCache.decode(UserSnapshotCache.encode(OLD))).isEqualTo(OLD);
+        UserSnapshot withoutKey = new UserSnapshot(2L, "bob@example.com", null, "$2a$10$x", null, null);
+        assertThat(UserSnapshotCache.decode(UserSnapshotCache.encode(withoutKey))).isEqualTo(withoutKey);
+    }
+
+    @Test
+    void otherInstancesReadTheSharedLevel() {
+        when(userRepository.findSnapshotByEmail(EMAIL)).thenReturn(Optional.of(OLD));
+
+        assertThat(cache().get("Alice@Example.com")).contains(OLD);
+        assertThat(cache().get(EMAIL)).contains(OLD);
+
+        verify(userRepository, times(1)).findSnapshotByEmail(EMAIL);
+    }
+
+    @Test
+    void aLoadOverlappingAnInvalidationDoesNotWriteTheOldRow() {
+        UserSnapshotCache cache = cache();
+        // La ligne est lue, puis la transaction qui la modifie est validée avant l'écriture dans Redis
+        when(userRepository.findSnapshotByEmail(EMAIL))
+                .thenAnswer(invocation -> {
+                    cache.revoke(EMAIL);
+                    return Optional.of(OLD);
+                })
+                .thenReturn(Optional.of(NEW));
+
+        assertThat(cache.get(EMAIL)).contains(OLD);
+
+        assertThat(binaryTemplate.hasKey("user-snapshot:" + EMAIL)).isFalse();
+        assertThat(cache().get(EMAIL)).contains(NEW);
+        assertThat(cache().get(EMAIL)).contains(NEW);
+        verify(userRepository, times(2)).findSnapshotByEmail(EMAIL);
+    }
+
+    @Test
+    void revokeRemovesBothLevels() {
+        UserSnapshotCache cache = cache();
+        when(userRepository.findSnapshotByEmail(EMAIL)).thenReturn(Optional.of(OLD), Optional.of(NEW));
+        cache.get(EMAIL);
+
+        cache.revoke("ALICE@example.com");
+
+        assertThat(binaryTemplate.hasKey("user-snapshot:" + EMAIL)).isFalse();
+        assertThat(cache.get(EMAIL)).contains(NEW);
+    }
+
+    @Test
+    void unknownUsersAreNotCached() {
+        when(userRepository.findSnapshotByEmail(EMAIL)).thenReturn(Optional.empty());
+        UserSnapshotCache cache = cache();
+
+        assertThat(cache.get(EMAIL)).isEmpty();
+        assertThat(cache.get(EMAIL)).isEmpty();
+
+        verify(userRepository, times(2)).findSnapshotByEmail(EMAIL);
+    }
+}
@@ -0,0 +1,76 @@
+package com.indentity.identity_app.signature;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Signatures Web Crypto (P1363) et OpenSSL / JCA (DER) sur la même clé
+ */
+class EcdsaP256SignatureVerifierTest {
+
+    private static final byte[] CHALLENGE = "challenge-123".getBytes(StandardCharsets.UTF_8);
+
+    private final EcdsaP256SignatureVerifier verifier = new EcdsaP256SignatureVerifier();
+
+    private static KeyPair keyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    private static byte[] sign(String algorithm, KeyPair keyPair, byte[] data) throws Exception {
+        Signature signer = Signature.getInstance(algorithm);
+        signer.initSign(keyPair.getPrivate());
+        signer.update(data);
+        return signer.sign();
+    }
+
+    @Test
+    void acceptsP1363Signatures() throws Exception {
+        KeyPair keyPair = keyPair();
+        PublicKey publicKey = verifier.decodePublicKey(keyPair.getPublic().getEncoded());
+        byte[] signature = sign("SHA256withECDSAinP1363Format", keyPair, CHALLENGE);
+
+        assertThat(signature).hasSize(64);
+        assertThat(verifier.verify(publicKey, CHALLENGE, signature)).isTrue();
+        assertThat(verifier.verify(publicKey, "other".getBytes(StandardCharsets.UTF_8), signature)).isFalse();
+    }
+
+    @Test
+    void acceptsDerSignatures() throws Exception {
+        KeyPair keyPair = keyPair();
+        PublicKey publicKey = verifier.decodePublicKey(keyPair.getPublic().getEncoded());
+        byte[] signature = sign("SHA256withECDSA", keyPair, CHALLENGE);
+
+        assertThat(signature[0]).isEqualTo((byte) 0x30);
+        assertThat(verifier.verify(publicKey, CHALLENGE, signature)).isTrue();
+        assertThat(verifier.verify(publicKey, "other".getBytes(StandardCharsets.UTF_8), signature)).isFalse();
+    }
+
+    @Test
+    void rejectsASignatureFromAnotherKey() throws Exception {
+        PublicKey publicKey = verifier.decodePublicKey(keyPair().getPublic().getEncoded());
+
+        assertThat(verifier.verify(publicKey, CHALLENGE, sign("SHA256withECDSAinP1363Format", keyPair(), CHALLENGE)))
+                .isFalse();
+    }
+
+    @Test
+    void aSixtyFourByteSignatureThatIsNeitherFormatIsRejectedWithoutError() throws Exception {
+        PublicKey publicKey = verifier.decodePublicKey(keyPair().getPublic().getEncoded());
+        // Commence comme une séquence DER : le repli DER est tenté puis refusé
+        byte[] signature = new byte[64];
+        signature[0] = 0x30;
+        signature[1] = 62;
+
+        assertThat(verifier.verify(publicKey, CHALLENGE, signature)).isFalse();
+    }
+}
@@ -0,0 +1,71 @@
+package com.indentity.identity_app.signature;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SubjectPublicKeyInfoTest {
+
+    private final SignatureVerifierRegistry registry = new SignatureVerifierRegistry(List.of(
+            new RsaSignatureVerifier(), new EcdsaP256SignatureVerifier(), new Ed25519SignatureVerifier()));
+
+    private static byte[] spki(String algorithm, String curve) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+        if (curve != null) {
+            generator.initialize(new ECGenParameterSpec(curve));
+        }
+        return generator.generateKeyPair().getPublic().getEncoded();
+    }
+
+    @Test
+    void readsTheRsaAlgorithmBehindALongFormLength() throws Exception {
+        SubjectPublicKeyInfo info = SubjectPublicKeyInfo.parse(spki("RSA", null));
+
+        assertThat(info.algorithmOid()).isEqualTo("1.2.840.113549.1.1.1");
+        // Paramètres NULL : pas d'OID
+        assertThat(info.parametersOid()).isNull();
+    }
+
+    @Test
+    void readsTheCurveOfAnEcKey() throws Exception {
+        assertThat(SubjectPublicKeyInfo.parse(spki("EC", "secp256r1")))
+                .isEqualTo(new SubjectPublicKeyInfo("1.2.840.10045.2.1", "1.2.840.10045.3.1.7"));
+        assertThat(SubjectPublicKeyInfo.parse(spki("EC", "secp384r1")))
+                .isEqualTo(new SubjectPublicKeyInfo("1.2.840.10045.2.1", "1.3.132.0.34"));
+    }
+
+    @Test
+    void readsAnEd25519KeyWithoutParameters() throws Exception {
+        assertThat(SubjectPublicKeyInfo.parse(spki("Ed25519", null)))
+                .isEqualTo(new SubjectPublicKeyInfo("1.3.101.112", null));
+    }
+
+    @Test
+    void rejectsMalformedEncodings() throws Exception {
+        byte[] rsa = spki("RSA", null);
+
+        assertThatThrownBy(() -> SubjectPublicKeyInfo.parse(new byte[0]))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SubjectPublicKeyInfo.parse(Arrays.copyOf(rsa, 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SubjectPublicKeyInfo.parse(new byte[]{0x30, (byte) 0x84, 1, 0, 0, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SubjectPublicKeyInfo.parse("not a key".getBytes()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void registryDetectsSupportedSchemesOnly() throws Exception {
+        assertThat(registry.detect(spki("RSA", null))).contains(SignatureAlgorithm.RSA_SHA256);
+        assertThat(registry.detect(spki("EC", "secp256r1"))).contains(SignatureAlgorithm.ECDSA_P256_SHA256);
+        assertThat(registry.detect(spki("Ed25519", null))).contains(SignatureAlgorithm.ED25519);
+        assertThat(registry.detect(spki("EC", "secp384r1"))).isEmpty();
+        assertThat(registry.detect(new byte[]{1, 2, 3})).isEmpty();
+    }
+}
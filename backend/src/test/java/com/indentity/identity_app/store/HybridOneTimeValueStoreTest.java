@@ -0,0 +1,256 @@
+package com.indentity.identity_app.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * HybridOneTimeValueStore : bascule en mémoire locale et retour à Redis
+ */
+class HybridOneTimeValueStoreTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+    private static final Duration COOLDOWN = Duration.ofMillis(200);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FakeRemote remote = new FakeRemote();
+    private final LocalOneTimeValueStore local =
+            new LocalOneTimeValueStore(registry, 1000, 1 << 20, Duration.ofSeconds(1));
+    private final HybridOneTimeValueStore store =
+            new HybridOneTimeValueStore(remote, local, registry, Duration.ofMillis(50), 2, COOLDOWN);
+
+    @AfterEach
+    void close() {
+        store.close();
+    }
+
+    private double degraded() {
+        return registry.get("auth.ephemeral-store.degraded").gauge().value();
+    }
+
+    private double failovers() {
+        return registry.get("auth.ephemeral-store.failovers").counter().count();
+    }
+
+    @Test
+    void aFailedCallIsReplayedLocally() {
+        remote.down = true;
+
+        store.put("k", "v", TTL);
+
+        assertThat(remote.values).isEmpty();
+        assertThat(local.get("k")).isEqualTo("v");
+        // Sous le seuil : pas encore de bascule
+        assertThat(degraded()).isZero();
+    }
+
+    @Test
+    void consecutiveFailuresSwitchToLocalMemoryForTheCooldown() {
+        remote.down = true;
+        store.put("a", "1", TTL);
+        store.put("b", "2", TTL);
+
+        assertThat(degraded()).isEqualTo(1);
+        assertThat(failovers()).isEqualTo(1);
+
+        // Pendant la bascule, Redis n'est plus appelé
+        remote.down = false;
+        int calls = remote.calls.get();
+        store.put("c", "3", TTL);
+        assertThat(store.consume("a")).isEqualTo("1");
+        assertThat(remote.calls.get()).isEqualTo(calls);
+        assertThat(remote.values).isEmpty();
+    }
+
+    @Test
+    void redisIsUsedAgainAfterTheCooldownAndLocalValuesRemainReadable() throws InterruptedException {
+        remote.down = true;
+        store.put("a", "1", TTL);
+        store.putPair("pair", "2", "expected", TTL);
+        remote.down = false;
+        Thread.sleep(COOLDOWN.toMillis() + 50);
+
+        store.put("c", "3", TTL);
+
+        assertThat(degraded()).isZero();
+        assertThat(remote.values).containsEntry("c", "3");
+        // Absentes de Redis, trouvées en mémoire locale
+        assertThat(store.get("a")).isEqualTo("1");
+        assertThat(store.consume("a")).isEqualTo("1");
+        assertThat(store.consumePairOrWithLinked("pair", "k", "linked:", "expected"))
+                .isEqualTo(new LinkedConsumption("2", true));
+        assertThat(store.consume("c")).isEqualTo("3");
+        assertThat(store.consume("c")).isNull();
+        assertThat(local.isEmpty()).isTrue();
+    }
+
+    @Test
+    void oneFailureAfterTheCooldownSwitchesBackImmediately() throws InterruptedException {
+        remote.down = true;
+        store.put("a", "1", TTL);
+        store.put("b", "2", TTL);
+        Thread.sleep(COOLDOWN.toMillis() + 50);
+
+        store.put("c", "3", TTL);
+
+        assertThat(degraded()).isEqualTo(1);
+        assertThat(failovers()).isEqualTo(2);
+    }
+
+    @Test
+    void slowCallsCountAsFailures() {
+        remote.delayMs = 80;
+
+        store.put("a", "1", TTL);
+        assertThat(degraded()).isZero();
+        store.put("b", "2", TTL);
+
+        // Les valeurs écrites par les appels lents sont bien dans Redis
+        assertThat(remote.values).containsKeys("a", "b");
+        assertThat(degraded()).isEqualTo(1);
+    }
+
+    @Test
+    void aSuccessResetsTheFailureCount() {
+        remote.down = true;
+        store.put("a", "1", TTL);
+        remote.down = false;
+        store.put("b", "2", TTL);
+        remote.down = true;
+        store.put("c", "3", TTL);
+
+        assertThat(degraded()).isZero();
+        assertThat(failovers()).isZero();
+    }
+
+    @Test
+    void aWriteAppliedByRedisBeforeItsTimeoutIsConsumedOnce() {
+        remote.timeoutAfterWrite = true;
+        store.put("k", "v", TTL);
+        store.putPair("pair", "v2", "expected", TTL);
+        remote.timeoutAfterWrite = false;
+        assertThat(remote.values).containsKeys("k", "pair");
+        assertThat(local.get("k")).isEqualTo("v");
+
+        assertThat(store.consume("k")).isEqualTo("v");
+        assertThat(store.consume("k")).isNull();
+        assertThat(store.consumePairOrWithLinked("pair", "k", "linked:", "expected"))
+                .isEqualTo(new LinkedConsumption("v2", true));
+        assertThat(store.consumePairOrWithLinked("pair", "k", "linked:", "expected"))
+                .isEqualTo(new LinkedConsumption(null, false));
+        assertThat(local.isEmpty()).isTrue();
+    }
+
+    @Test
+    void batchOperationsMergeLocalValues() {
+        remote.down = true;
+        store.put("a", "1", TTL);
+        remote.down = false;
+        store.put("b", "2", TTL);
+
+        assertThat(store.getAll(List.of("a", "b", "c"))).containsExactly("1", "2", null);
+
+        store.put("linked:2", "e2", TTL);
+        List<LinkedConsumption> results = store.consumeAllPairOrWithLinked(
+                List.of("pair:a", "pair:b"), List.of("a", "b"), "linked:", List.of("e1", "e2"));
+        assertThat(results).containsExactly(new LinkedConsumption("1", false), new LinkedConsumption("2", true));
+        assertThat(local.isEmpty()).isTrue();
+    }
+
+    /**
+     * Redis simulé : indisponible (QueryTimeoutException) ou lent à la demande
+     */
+    private static final class FakeRemote implements OneTimeValueStore {
+
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+        private final Map<String, String> pairs = new ConcurrentHashMap<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile boolean down;
+        private volatile long delayMs;
+        // Écriture appliquée, puis timeout côté client
+        private volatile boolean timeoutAfterWrite;
+
+        private void call() {
+            calls.incrementAndGet();
+            if (down) {
+                throw new QueryTimeoutException("Redis command timed out");
+            }
+            if (delayMs > 0) {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void put(String key, String value, Duration ttl) {
+            call();
+            values.put(key, value);
+            timeoutIfRequested();
+        }
+
+        @Override
+        public String get(String key) {
+            call();
+            return values.get(key);
+        }
+
+        @Override
+        public String consume(String key) {
+            call();
+            return values.remove(key);
+        }
+
+        @Override
+        public boolean consumeIfMatches(String key, String expected) {
+            call();
+            return expected != null && values.remove(key, expected);
+        }
+
+        @Override
+        public LinkedConsumption consumeWithLinked(String key, String linkedKeyPrefix, String expectedLinked) {
+            call();
+            String value = values.remove(key);
+            return new LinkedConsumption(value,
+                    value != null && expectedLinked != null && values.remove(linkedKeyPrefix + value, expectedLinked));
+        }
+
+        @Override
+        public void putPair(String key, String value, String linkedValue, Duration ttl) {
+            call();
+            values.put(key, value);
+            pairs.put(key, linkedValue);
+            timeoutIfRequested();
+        }
+
+        private void timeoutIfRequested() {
+            if (timeoutAfterWrite) {
+                throw new QueryTimeoutException("Redis command timed out");
+            }
+        }
+
+        @Override
+        public LinkedConsumption consumePairOrWithLinked(String pairKey, String key, String linkedKeyPrefix,
+                                                         String expectedLinked) {
+            call();
+            String linked = pairs.remove(pairKey);
+            if (linked != null) {
+                return new LinkedConsumption(values.remove(pairKey), linked.equals(expectedLinked));
+            }
+            String value = values.remove(key);
+            return new LinkedConsumption(value,
+                    value != null && expectedLinked != null && values.remove(linkedKeyPrefix + value, expectedLinked));
+        }
+    }
+}
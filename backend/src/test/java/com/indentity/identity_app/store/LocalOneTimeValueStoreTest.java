@@ -0,0 +1,277 @@
+package com.indentity.identity_app.store;
+
+import com.indentity.identity_app.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * LocalOneTimeValueStore : roue temporelle, consommation atomique, mémoire bornée, paires
+ */
+class LocalOneTimeValueStoreTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<LocalOneTimeValueStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        stores.forEach(LocalOneTimeValueStore::close);
+    }
+
+    private LocalOneTimeValueStore store(int maxEntries, long maxBytes, Duration tick) {
+        LocalOneTimeValueStore store = new LocalOneTimeValueStore(registry, maxEntries, maxBytes, tick);
+        stores.add(store);
+        return store;
+    }
+
+    private LocalOneTimeValueStore store() {
+        return store(1000, 1 << 20, Duration.ofSeconds(1));
+    }
+
+    private double bytes() {
+        return registry.get("auth.ephemeral-store.local.bytes").gauge().value();
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return condition.getAsBoolean();
+    }
+
+    @Test
+    void consumeReturnsTheValueOnce() {
+        LocalOneTimeValueStore store = store();
+        store.put("k", "v", TTL);
+
+        assertThat(store.get("k")).isEqualTo("v");
+        assertThat(store.consume("k")).isEqualTo("v");
+        assertThat(store.consume("k")).isNull();
+        assertThat(store.isEmpty()).isTrue();
+    }
+
+    @Test
+    void anExpiredValueIsIgnoredBeforeItsSlotIsProcessed() throws InterruptedException {
+        // Tick long : la roue ne passe pas pendant le test
+        LocalOneTimeValueStore store = store(1000, 1 << 20, Duration.ofHours(1));
+        store.put("k", "v", Duration.ofMillis(20));
+        store.put("other", "v", Duration.ofMillis(20));
+        Thread.sleep(40);
+
+        assertThat(store.isEmpty()).isFalse();
+        assertThat(store.get("k")).isNull();
+        assertThat(store.consume("other")).isNull();
+        assertThat(store.isEmpty()).isTrue();
+        // Restent comptées les deux cases de la roue (64 octets + 2 par caractère de la clé)
+        assertThat(bytes()).isEqualTo((64 + 2 * 1) + (64 + 2 * 5));
+    }
+
+    @Test
+    void theWheelRemovesExpiredValuesWithoutAnyRead() throws InterruptedException {
+        LocalOneTimeValueStore store = store(1000, 1 << 20, Duration.ofMillis(10));
+        store.put("k", "v", Duration.ofMillis(30));
+        store.putPair("p", "v", "linked", Duration.ofMillis(30));
+
+        assertThat(waitFor(() -> store.isEmpty() && bytes() == 0)).isTrue();
+        assertThat(registry.get("auth.ephemeral-store.local.entries").gauge().value()).isZero();
+    }
+
+    @Test
+    void aValueLivingLongerThanOneTurnOfTheWheelIsKept() throws InterruptedException {
+        // 512 cases d'1 ms : la case de l'échéance est traitée une fois avant celle-ci
+        LocalOneTimeValueStore store = store(1000, 1 << 20, Duration.ofMillis(1));
+        long start = System.nanoTime();
+        store.put("k", "v", Duration.ofMillis(800));
+        Thread.sleep(600);
+
+        if (System.nanoTime() - start < Duration.ofMillis(790).toNanos()) {
+            assertThat(store.isEmpty()).isFalse();
+        }
+        assertThat(waitFor(store::isEmpty)).isTrue();
+    }
+
+    @Test
+    void aReplacedValueIsNotRemovedByTheExpiryOfThePreviousOne() throws InterruptedException {
+        LocalOneTimeValueStore store = store(1000, 1 << 20, Duration.ofMillis(10));
+        store.put("k", "old", Duration.ofMillis(20));
+        store.put("k", "new", TTL);
+        Thread.sleep(100);
+
+        assertThat(store.get("k")).isEqualTo("new");
+    }
+
+    @Test
+    void consumeIfMatchesLeavesADifferentValueIntact() {
+        LocalOneTimeValueStore store = store();
+        store.put("k", "v", TTL);
+
+        assertThat(store.consumeIfMatches("k", "other")).isFalse();
+        assertThat(store.consumeIfMatches("k", null)).isFalse();
+        assertThat(store.get("k")).isEqualTo("v");
+        assertThat(store.consumeIfMatches("k", "v")).isTrue();
+        assertThat(store.consumeIfMatches("k", "v")).isFalse();
+    }
+
+    @Test
+    void concurrentConsumersGetTheValueOnce() throws Exception {
+        LocalOneTimeValueStore store = store();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 100; round++) {
+                store.put("k", "v", TTL);
+                store.put("m", "v", TTL);
+                CountDownLatch ready = new CountDownLatch(threads);
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    boolean byMatch = i % 2 == 0;
+                    Callable<Integer> consumer = () -> {
+                        ready.countDown();
+                        ready.await();
+                        if (byMatch) {
+                            return store.consumeIfMatches("m", "v") ? 1 : 0;
+                        }
+                        return store.consume("k") != null ? 1 : 0;
+                    };
+                    results.add(executor.submit(consumer));
+                }
+                int consumed = 0;
+                for (Future<Integer> result : results) {
+                    consumed += result.get();
+                }
+                assertThat(consumed).isEqualTo(2);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(store.isEmpty()).isTrue();
+    }
+
+    @Test
+    void writesAreRejectedBeyondTheEntryLimit() {
+        LocalOneTimeValueStore store = store(2, 1 << 20, Duration.ofSeconds(1));
+        store.put("a", "1", TTL);
+        store.put("b", "2", TTL);
+
+        assertThatThrownBy(() -> store.put("c", "3", TTL)).isInstanceOf(TooManyRequestsException.class);
+        assertThat(registry.get("auth.ephemeral-store.local.rejected").counter().count()).isEqualTo(1);
+        // Aucune valeur valide n'est évincée ; une consommation libère la place
+        assertThat(store.get("a")).isEqualTo("1");
+        store.consume("a");
+        store.put("c", "3", TTL);
+        assertThat(store.get("c")).isEqualTo("3");
+    }
+
+    @Test
+    void writesAreRejectedBeyondTheMemoryLimit() {
+        // 96 + 64 octets par entrée (valeur, case de la roue) + 2 par caractère :
+        // deux entrées d'une lettre tiennent dans 400 octets
+        LocalOneTimeValueStore store = store(1000, 400, Duration.ofSeconds(1));
+        store.put("a", "1", TTL);
+        store.put("b", "2", TTL);
+
+        assertThat(bytes()).isEqualTo(328);
+        assertThatThrownBy(() -> store.put("c", "3", TTL)).isInstanceOf(TooManyRequestsException.class);
+        // La valeur consommée est libérée, sa case reste comptée jusqu'au passage de la roue
+        store.consumeIfMatches("b", "2");
+        assertThat(bytes()).isEqualTo(230);
+        store.put("c", "3", TTL);
+        assertThat(bytes()).isEqualTo(394);
+    }
+
+    @Test
+    void consumedValuesStayCountedUntilTheWheelReleasesThem() throws InterruptedException {
+        // Tick long : aucune case n'est libérée pendant la boucle
+        LocalOneTimeValueStore store = store(1000, 10_000, Duration.ofHours(1));
+        int accepted = 0;
+        for (int i = 0; i < 1000; i++) {
+            try {
+                store.put("k" + i, "value", TTL);
+            } catch (TooManyRequestsException e) {
+                break;
+            }
+            assertThat(store.consume("k" + i)).isEqualTo("value");
+            accepted++;
+        }
+
+        // Une case par écriture (64 + 2 par caractère de clé, 68 à 72 octets) : arrêt avant 10 000 octets
+        assertThat(accepted).isBetween(10_000 / 72, 10_000 / 68);
+        assertThat(bytes()).isLessThanOrEqualTo(10_000);
+        assertThat(store.isEmpty()).isTrue();
+    }
+
+    @Test
+    void writesAreAdmittedAgainOnceTheWheelReleasesItsSlots() throws InterruptedException {
+        LocalOneTimeValueStore store = store(1000, 10_000, Duration.ofMillis(10));
+        int rejections = 0;
+        for (int i = 0; i < 1000; i++) {
+            try {
+                store.put("k" + i, "value", Duration.ofMillis(20));
+            } catch (TooManyRequestsException e) {
+                rejections++;
+                assertThat(waitFor(() -> bytes() == 0)).isTrue();
+                store.put("k" + i, "value", Duration.ofMillis(20));
+            }
+            store.consume("k" + i);
+            assertThat(bytes()).isLessThanOrEqualTo(10_000);
+        }
+
+        assertThat(rejections).isPositive();
+        assertThat(waitFor(() -> bytes() == 0)).isTrue();
+    }
+
+    @Test
+    void consumeWithLinkedConsumesBothWhenTheLinkedValueMatches() {
+        LocalOneTimeValueStore store = store();
+        store.put("k", "v", TTL);
+        store.put("linked:v", "expected", TTL);
+
+        assertThat(store.consumeWithLinked("k", "linked:", "expected")).isEqualTo(new LinkedConsumption("v", true));
+        assertThat(store.isEmpty()).isTrue();
+
+        store.put("k", "v", TTL);
+        store.put("linked:v", "expected", TTL);
+        assertThat(store.consumeWithLinked("k", "linked:", "other")).isEqualTo(new LinkedConsumption("v", false));
+        assertThat(store.get("linked:v")).isEqualTo("expected");
+        assertThat(store.consumeWithLinked("k", "linked:", "expected")).isEqualTo(new LinkedConsumption(null, false));
+    }
+
+    @Test
+    void aPairIsConsumedWholeWhateverTheLinkedValue() {
+        LocalOneTimeValueStore store = store();
+        store.putPair("pair", "v", "expected", TTL);
+
+        assertThat(store.consumePairOrWithLinked("pair", "k", "linked:", "other"))
+                .isEqualTo(new LinkedConsumption("v", false));
+        assertThat(store.consumePairOrWithLinked("pair", "k", "linked:", "expected"))
+                .isEqualTo(new LinkedConsumption(null, false));
+        assertThat(store.isEmpty()).isTrue();
+    }
+
+    @Test
+    void withoutAPairTheSeparateValuesAreConsumed() {
+        LocalOneTimeValueStore store = store();
+        store.put("k", "v", TTL);
+        store.put("linked:v", "expected", TTL);
+
+        assertThat(store.consumePairOrWithLinked("pair", "k", "linked:", "expected"))
+                .isEqualTo(new LinkedConsumption("v", true));
+        assertThat(store.isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,195 @@
+package com.indentity.identity_app.store;
+
+import com.indentity.identity_app.EmbeddedRedis;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scripts Lua et commandes de RedisOneTimeValueStore sur un vrai Redis
+ */
+class RedisOneTimeValueStoreTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private final RedisTemplate<String, String> redis = EmbeddedRedis.template();
+    private final RedisOneTimeValueStore store =
+            new RedisOneTimeValueStore(redis, new AuthMetrics(new SimpleMeterRegistry()));
+
+    @BeforeEach
+    void flush() {
+        EmbeddedRedis.flush();
+    }
+
+    @Test
+    void consumeReturnsTheValueOnce() {
+        store.put("k", "v", TTL);
+
+        assertThat(store.get("k")).isEqualTo("v");
+        assertThat(store.consume("k")).isEqualTo("v");
+        assertThat(store.consume("k")).isNull();
+    }
+
+    @Test
+    void consumeIfMatchesLeavesADifferentValueIntact() {
+        store.put("k", "v", TTL);
+
+        assertThat(store.consumeIfMatches("k", "other")).isFalse();
+        assertThat(redis.hasKey("k")).isTrue();
+        assertThat(store.consumeIfMatches("k", "v")).isTrue();
+        assertThat(redis.hasKey("k")).isFalse();
+        assertThat(store.consumeIfMatches("k", "v")).isFalse();
+    }
+
+    @Test
+    void consumeWithLinkedConsumesBothWhenTheLinkedValueMatches() {
+        store.put("temp:t", "alice", TTL);
+        store.put("challenge:alice", "c1", TTL);
+
+        assertThat(store.consumeWithLinked("temp:t", "challenge:", "c1"))
+                .isEqualTo(new LinkedConsumption("alice", true));
+        assertThat(redis.hasKey("temp:t")).isFalse();
+        assertThat(redis.hasKey("challenge:alice")).isFalse();
+    }
+
+    @Test
+    void consumeWithLinkedKeepsAMismatchedLinkedValue() {
+        store.put("temp:t", "alice", TTL);
+        store.put("challenge:alice", "c1", TTL);
+
+        // Valeur principale consommée malgré tout ; challenge laissé intact
+        assertThat(store.consumeWithLinked("temp:t", "challenge:", "wrong"))
+                .isEqualTo(new LinkedConsumption("alice", false));
+        assertThat(redis.hasKey("temp:t")).isFalse();
+        assertThat(redis.opsForValue().get("challenge:alice")).isEqualTo("c1");
+    }
+
+    @Test
+    void consumeWithLinkedReportsAMissingValue() {
+        assertThat(store.consumeWithLinked("temp:t", "challenge:", "c1"))
+                .isEqualTo(new LinkedConsumption(null, false));
+        assertThat(store.consumeWithLinked("temp:t", "challenge:", null))
+                .isEqualTo(new LinkedConsumption(null, false));
+    }
+
+    @Test
+    void putPairStoresBothValuesUnderOneExpiringHash() {
+        store.putPair("pair:t", "alice", "c1", TTL);
+
+        assertThat(redis.<String, String>opsForHash().entries("pair:t"))
+                .isEqualTo(Map.of("value", "alice", "linked", "c1"));
+        assertThat(redis.getExpire("pair:t")).isBetween(TTL.toSeconds() - 5, TTL.toSeconds());
+    }
+
+    @Test
+    void consumePairConsumesTheWholeHash() {
+        store.putPair("pair:t", "alice", "c1", TTL);
+
+        assertThat(store.consumePairOrWithLinked("pair:t", "temp:t", "challenge:", "c1"))
+                .isEqualTo(new LinkedConsumption("alice", true));
+        assertThat(redis.hasKey("pair:t")).isFalse();
+        assertThat(store.consumePairOrWithLinked("pair:t", "temp:t", "challenge:", "c1"))
+                .isEqualTo(new LinkedConsumption(null, false));
+    }
+
+    @Test
+    void aMismatchedPairIsConsumedAnyway() {
+        store.putPair("pair:t", "alice", "c1", TTL);
+
+        // Un seul essai par token, comme pour les clés séparées
+        assertThat(store.consumePairOrWithLinked("pair:t", "temp:t", "challenge:", "wrong"))
+                .isEqualTo(new LinkedConsumption("alice", false));
+        assertThat(redis.hasKey("pair:t")).isFalse();
+    }
+
+    @Test
+    void consumePairFallsBackToSeparateKeys() {
+        store.put("temp:t", "alice", TTL);
+        store.put("challenge:alice", "c1", TTL);
+
+        assertThat(store.consumePairOrWithLinked("pair:t", "temp:t", "challenge:", "c1"))
+                .isEqualTo(new LinkedConsumption("alice", true));
+        assertThat(redis.hasKey("temp:t")).isFalse();
+        assertThat(redis.hasKey("challenge:alice")).isFalse();
+    }
+
+    @Test
+    void putAllAndGetAllUseOneRoundTripPerBatch() {
+        store.putAll(Map.of("challenge:alice", "c1", "challenge:bob", "c2"), TTL);
+
+        assertThat(store.getAll(List.of("challenge:bob", "challenge:carol", "challenge:alice")))
+                .containsExactly("c2", null, "c1");
+        assertThat(redis.getExpire("challenge:alice")).isBetween(TTL.toSeconds() - 5, TTL.toSeconds());
+        assertThat(store.getAll(List.of())).isEmpty();
+    }
+
+    @Test
+    void consumeAllPairOrWithLinkedAnswersEachItemInOrder() {
+        store.putPair("pair:1", "alice", "c1", TTL);
+        store.put("temp:2", "bob", TTL);
+        store.put("challenge:bob", "c2", TTL);
+        store.putPair("pair:3", "carol", "c3", TTL);
+
+        List<LinkedConsumption> results = store.consumeAllPairOrWithLinked(
+                List.of("pair:1", "pair:2", "pair:3", "pair:4"),
+                List.of("temp:1", "temp:2", "temp:3", "temp:4"),
+                "challenge:", Arrays.asList("c1", "c2", "wrong", null));
+
+        assertThat(results).containsExactly(
+                new LinkedConsumption("alice", true),
+                new LinkedConsumption("bob", true),
+                new LinkedConsumption("carol", false),
+                new LinkedConsumption(null, false));
+        assertThat(redis.keys("*")).isEmpty();
+    }
+
+    @Test
+    void consumeAllPairOrWithLinkedSurvivesAFlushedScriptCache() {
+        store.putPair("pair:1", "alice", "c1", TTL);
+        store.consumeAllPairOrWithLinked(List.of("pair:1"), List.of("temp:1"), "challenge:", List.of("c1"));
+        redis.execute((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().scriptFlush();
+            return null;
+        });
+        store.putPair("pair:2", "bob", "c2", TTL);
+
+        assertThat(store.consumeAllPairOrWithLinked(List.of("pair:2"), List.of("temp:2"), "challenge:", List.of("c2")))
+                .containsExactly(new LinkedConsumption("bob", true));
+    }
+
+    @Test
+    void concurrentConsumersGetTheValueOnlyOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; round++) {
+                store.put("k", "v", TTL);
+                List<Callable<Boolean>> attempts = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    attempts.add(() -> store.consumeIfMatches("k", "v"));
+                }
+                int consumed = 0;
+                for (Future<Boolean> attempt : pool.invokeAll(attempts)) {
+                    consumed += attempt.get() ? 1 : 0;
+                }
+                assertThat(consumed).isEqualTo(1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
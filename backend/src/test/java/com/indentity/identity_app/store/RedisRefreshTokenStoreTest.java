@@ -0,0 +1,134 @@
+package com.indentity.identity_app.store;
+
+import com.indentity.identity_app.EmbeddedRedis;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Familles de refresh tokens contre un Redis embarqué
+ * (create_refresh_family.lua, rotate_refresh_token.lua)
+ */
+class RedisRefreshTokenStoreTest {
+
+    private static final Duration IDLE_TTL = Duration.ofDays(7);
+
+    private final RedisTemplate<String, String> redis = EmbeddedRedis.template();
+    private final RedisRefreshTokenStore store =
+            new RedisRefreshTokenStore(redis, new AuthMetrics(new SimpleMeterRegistry()));
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedRedis.flush();
+    }
+
+    @Test
+    void createAllWritesEveryFamilyWithItsTtl() {
+        Instant expiresAt = Instant.now().plus(Duration.ofDays(30));
+        store.createAll(List.of(
+                new RefreshTokenStore.NewFamily("f1", "h1", "alice@example.com", "USER"),
+                new RefreshTokenStore.NewFamily("f2", "h2", "bob@example.com", "ADMIN")), IDLE_TTL, expiresAt);
+
+        assertThat(redis.<String, String>opsForHash().entries("refresh:f1")).isEqualTo(Map.of(
+                "s", "h1", "u", "alice@example.com", "r", "USER", "e", String.valueOf(expiresAt.toEpochMilli())));
+        assertThat(redis.<String, String>opsForHash().get("refresh:f2", "r")).isEqualTo("ADMIN");
+        assertThat(redis.getExpire("refresh:f2")).isBetween(IDLE_TTL.toSeconds() - 5, IDLE_TTL.toSeconds());
+    }
+
+    @Test
+    void createAllSurvivesAFlushedScriptCache() {
+        store.createAll(List.of(new RefreshTokenStore.NewFamily("f1", "h1", "alice@example.com", "USER")),
+                IDLE_TTL, Instant.now().plus(Duration.ofDays(30)));
+        redis.execute((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().scriptFlush();
+            return null;
+        });
+
+        store.createAll(List.of(new RefreshTokenStore.NewFamily("f2", "h2", "bob@example.com", "USER")),
+                IDLE_TTL, Instant.now().plus(Duration.ofDays(30)));
+
+        assertThat(redis.hasKey("refresh:f2")).isTrue();
+    }
+
+    @Test
+    void createAllFamiliesCanBeRotated() {
+        store.createAll(List.of(new RefreshTokenStore.NewFamily("f1", "h1", "alice@example.com", "USER")),
+                IDLE_TTL, Instant.now().plus(Duration.ofDays(30)));
+
+        RefreshRotation rotation = store.rotate("f1", "h1", "h2", IDLE_TTL, Instant.now());
+
+        assertThat(rotation.getStatus()).isEqualTo(RefreshRotation.Status.ROTATED);
+        assertThat(rotation.getEmail()).isEqualTo("alice@example.com");
+        assertThat(rotation.getRole()).isEqualTo("USER");
+    }
+
+    private Instant create(String familyId, String hash) {
+        Instant expiresAt = Instant.now().plus(Duration.ofDays(30));
+        store.create(familyId, hash, "alice@example.com", "USER", IDLE_TTL, expiresAt);
+        return expiresAt;
+    }
+
+    @Test
+    void rotationReplacesTheCurrentHash() {
+        create("f1", "h1");
+
+        RefreshRotation first = store.rotate("f1", "h1", "h2", IDLE_TTL, Instant.now());
+        RefreshRotation second = store.rotate("f1", "h2", "h3", IDLE_TTL, Instant.now());
+
+        assertThat(first).isEqualTo(new RefreshRotation(RefreshRotation.Status.ROTATED, "alice@example.com", "USER"));
+        assertThat(second.getStatus()).isEqualTo(RefreshRotation.Status.ROTATED);
+        assertThat(redis.<String, String>opsForHash().get("refresh:f1", "s")).isEqualTo("h3");
+    }
+
+    @Test
+    void presentingAReplacedTokenRevokesTheFamily() {
+        create("f1", "h1");
+        store.rotate("f1", "h1", "h2", IDLE_TTL, Instant.now());
+
+        // h1 a déjà servi : vol probable, le détenteur de h2 perd aussi la session
+        assertThat(store.rotate("f1", "h1", "hx", IDLE_TTL, Instant.now()))
+                .isEqualTo(new RefreshRotation(RefreshRotation.Status.REUSED, "alice@example.com", null));
+        assertThat(redis.hasKey("refresh:f1")).isFalse();
+        assertThat(store.rotate("f1", "h2", "h3", IDLE_TTL, Instant.now()).getStatus())
+                .isEqualTo(RefreshRotation.Status.UNKNOWN);
+    }
+
+    @Test
+    void aFamilyPastItsMaximumLifetimeIsUnknown() {
+        Instant expiresAt = create("f1", "h1");
+
+        assertThat(store.rotate("f1", "h1", "h2", IDLE_TTL, expiresAt).getStatus())
+                .isEqualTo(RefreshRotation.Status.UNKNOWN);
+        assertThat(redis.hasKey("refresh:f1")).isFalse();
+    }
+
+    @Test
+    void rotationNeverExtendsTheTtlPastTheMaximumLifetime() {
+        Instant expiresAt = create("f1", "h1");
+
+        store.rotate("f1", "h1", "h2", IDLE_TTL, expiresAt.minus(Duration.ofMinutes(1)));
+
+        assertThat(redis.getExpire("refresh:f1")).isBetween(55L, 60L);
+    }
+
+    @Test
+    void revokeDeletesTheFamily() {
+        create("f1", "h1");
+
+        store.revoke("f1");
+        store.revoke("f1");
+
+        assertThat(store.rotate("f1", "h1", "h2", IDLE_TTL, Instant.now()).getStatus())
+                .isEqualTo(RefreshRotation.Status.UNKNOWN);
+    }
+}
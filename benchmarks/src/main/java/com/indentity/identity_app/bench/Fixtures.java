@@ -0,0 +1,142 @@
+package com.indentity.identity_app.bench;
+
+import com.indentity.identity_app.event.AuthEventLogger;
+import com.indentity.identity_app.jwt.JwtAlgorithm;
+import com.indentity.identity_app.jwt.JwtKeyRing;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.service.RandomTokenSource;
+import com.indentity.identity_app.service.TokenRevocationList;
+import com.indentity.identity_app.signature.EcdsaP256SignatureVerifier;
+import com.indentity.identity_app.signature.Ed25519SignatureVerifier;
+import com.indentity.identity_app.signature.RsaSignatureVerifier;
+import com.indentity.identity_app.signature.SignatureVerifierRegistry;
+import com.indentity.identity_app.store.LinkedConsumption;
+import com.indentity.identity_app.store.OneTimeValueStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Objets partagés par les benchmarks
+ */
+final class Fixtures {
+
+    static final String JWT_SECRET = "benchmark-secret-benchmark-secret-benchmark";
+    static final long JWT_EXPIRATION_MS = 3_600_000L;
+
+    private Fixtures() {
+    }
+
+    /**
+     * Métriques réelles (timers inclus dans la mesure), sur un registre en mémoire
+     */
+    static AuthMetrics authMetrics() {
+        return new AuthMetrics(new SimpleMeterRegistry());
+    }
+
+    /**
+     * Journal d'événements avec l'échantillonnage par défaut (les lignes sont filtrées par logback.xml)
+     */
+    static AuthEventLogger authEvents() {
+        return new AuthEventLogger(1000, 10);
+    }
+
+    /**
+     * Trousseau JWT (pas de rotation pendant la mesure)
+     * Le répertoire exigé en RS256 / ES256 est supprimé une fois la clé chargée en mémoire.
+     */
+    static JwtKeyRing jwtKeyRing(JwtAlgorithm algorithm) {
+        if (!algorithm.isAsymmetric()) {
+            return jwtKeyRing(algorithm, "");
+        }
+        try {
+            Path keysDir = Files.createTempDirectory("bench-jwt-keys");
+            JwtKeyRing keyRing = jwtKeyRing(algorithm, keysDir.toString());
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(keysDir)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(keysDir);
+            return keyRing;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JwtKeyRing jwtKeyRing(JwtAlgorithm algorithm, String keysDir) {
+        return new JwtKeyRing(algorithm, JWT_SECRET, keysDir, Duration.ofDays(7), 2048,
+                Duration.ofMinutes(15), JWT_EXPIRATION_MS);
+    }
+
+    /**
+     * Source de jti sans pool (tirage SecureRandom à chaque token)
+     */
+    static RandomTokenSource randomTokenSource() {
+        return new RandomTokenSource(new SimpleMeterRegistry(), 0, false, 1024, 50);
+    }
+
+    /**
+     * Liste de révocation vide, sans Redis : mesure le coût du filtre de Bloom sur le chemin de vérification
+     */
+    static TokenRevocationList revocationList() {
+        return new TokenRevocationList(null, null, new SimpleMeterRegistry(), 0.001);
+    }
+
+    /**
+     * Registre avec les vérificateurs de l'application (RSA, ECDSA P-256, Ed25519)
+     */
+    static SignatureVerifierRegistry signatureVerifiers() {
+        return new SignatureVerifierRegistry(List.of(
+                new RsaSignatureVerifier(),
+                new EcdsaP256SignatureVerifier(),
+                new Ed25519SignatureVerifier()
+        ));
+    }
+
+    /**
+     * Store qui ne conserve rien : isole le coût de génération des tokens
+     */
+    static final class DiscardingStore implements OneTimeValueStore {
+
+        @Override
+        public void put(String key, String value, Duration ttl) {
+        }
+
+        @Override
+        public String get(String key) {
+            return null;
+        }
+
+        @Override
+        public String consume(String key) {
+            return null;
+        }
+
+        @Override
+        public boolean consumeIfMatches(String key, String expected) {
+            return false;
+        }
+
+        @Override
+        public LinkedConsumption consumeWithLinked(String key, String linkedKeyPrefix, String expectedLinked) {
+            return new LinkedConsumption(null, false);
+        }
+
+        @Override
+        public void putPair(String key, String value, String linkedValue, Duration ttl) {
+        }
+
+        @Override
+        public LinkedConsumption consumePairOrWithLinked(String pairKey, String key, String linkedKeyPrefix,
+                                                         String expectedLinked) {
+            return new LinkedConsumption(null, false);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.indentity.identity_app.bench;
+
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.jwt.JwtAlgorithm;
+import com.indentity.identity_app.service.JwtService;
+import com.indentity.identity_app.service.VerifiedClaims;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtService : signature et vérification (directe ou via le cache) par algorithme
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    @Param({"HS256", "RS256", "ES256"})
+    public JwtAlgorithm algorithm;
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService(Fixtures.jwtKeyRing(algorithm), Fixtures.randomTokenSource(),
+                Fixtures.revocationList(), Fixtures.JWT_EXPIRATION_MS,
+                10_000, Duration.ofMinutes(5), new SimpleMeterRegistry(), Fixtures.authMetrics());
+        token = jwtService.generateToken("bench@example.com", Role.USER);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("bench@example.com", Role.USER);
+    }
+
+    // Vérification complète : parsing + signature à chaque appel
+    @Benchmark
+    public DecodedJWT verifyToken() {
+        return jwtService.verifyToken(token);
+    }
+
+    // Vérification via le cache des tokens déjà vérifiés
+    @Benchmark
+    public VerifiedClaims verifyCached() {
+        return jwtService.verify(token);
+    }
+}
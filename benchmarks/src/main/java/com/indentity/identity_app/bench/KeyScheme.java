@@ -0,0 +1,54 @@
+package com.indentity.identity_app.bench;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+
+/**
+ * Schémas de clé client comparés par les benchmarks de signature
+ * Signatures au format produit par Web Crypto (P1363 pour ECDSA)
+ */
+public enum KeyScheme {
+    RSA_2048("RSA", 2048, "SHA256withRSA"),
+    RSA_4096("RSA", 4096, "SHA256withRSA"),
+    P256("EC", 256, "SHA256withECDSAinP1363Format"),
+    ED25519("Ed25519", 0, "Ed25519");
+
+    private final String keyAlgorithm;
+    private final int keySize;
+    private final String signatureAlgorithm;
+
+    KeyScheme(String keyAlgorithm, int keySize, String signatureAlgorithm) {
+        this.keyAlgorithm = keyAlgorithm;
+        this.keySize = keySize;
+        this.signatureAlgorithm = signatureAlgorithm;
+    }
+
+    KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(keyAlgorithm);
+            if (this == P256) {
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            } else if (keySize > 0) {
+                generator.initialize(keySize);
+            }
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    byte[] sign(PrivateKey privateKey, byte[] data) {
+        try {
+            Signature signer = Signature.getInstance(signatureAlgorithm);
+            signer.initSign(privateKey);
+            signer.update(data);
+            return signer.sign();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.indentity.identity_app.bench;
+
+import com.indentity.identity_app.service.LoginTicket;
+import com.indentity.identity_app.service.RandomTokenSource;
+import com.indentity.identity_app.service.TemporaryTokenService;
+import com.indentity.identity_app.store.LinkedConsumption;
+import com.indentity.identity_app.store.LocalOneTimeValueStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login avec challenge puis authentification sur le stockage local (auth.ephemeral-store.mode=LOCAL) :
+ * écriture de la paire et consommation atomique, sans Redis
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalStoreBenchmark {
+
+    private LocalOneTimeValueStore store;
+    private TemporaryTokenService temporaryTokenService;
+
+    @Setup
+    public void setup() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        store = new LocalOneTimeValueStore(meterRegistry, 1_000_000, 512L * 1024 * 1024, Duration.ofSeconds(1));
+        temporaryTokenService = new TemporaryTokenService(store,
+                new RandomTokenSource(meterRegistry, 0, false, 0, 50), true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public LinkedConsumption loginAndAuthenticate() {
+        LoginTicket ticket = temporaryTokenService.generateTemporaryTokenWithChallenge("bench@example.com");
+        return temporaryTokenService.consumeTemporaryTokenAndChallenge(ticket.temporaryToken(), ticket.challenge());
+    }
+}
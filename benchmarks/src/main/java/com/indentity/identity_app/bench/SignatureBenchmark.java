@@ -0,0 +1,73 @@
+package com.indentity.identity_app.bench;
+
+import com.indentity.identity_app.service.PublicKeyCache;
+import com.indentity.identity_app.service.SignatureService;
+import com.indentity.identity_app.signature.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SignatureService.verifySignature par schéma (RSA-2048, RSA-4096, ECDSA P-256, Ed25519),
+ * avec détection + décodage de la clé à chaque appel ou clé décodée en cache
+ * Tailles des clés et signatures : SignatureSizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureBenchmark {
+
+    @Param({"RSA_2048", "RSA_4096", "P256", "ED25519"})
+    public KeyScheme scheme;
+
+    private ExecutorService executor;
+    private SignatureService signatureService;
+    private String challenge;
+    private String signature;
+    private String publicKey;
+    private SignatureAlgorithm algorithm;
+
+    @Setup
+    public void setup() throws Exception {
+        executor = Executors.newSingleThreadExecutor();
+        PublicKeyCache cache = new PublicKeyCache(new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(30));
+        signatureService = new SignatureService(cache, Fixtures.signatureVerifiers(), Fixtures.authMetrics(),
+                Fixtures.authEvents(), executor, false);
+
+        KeyPair keyPair = scheme.generateKeyPair();
+        challenge = "bench-challenge-0123456789abcdef0123456789abcdef";
+        signature = Base64.getEncoder().encodeToString(
+                scheme.sign(keyPair.getPrivate(), challenge.getBytes(StandardCharsets.UTF_8)));
+        publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        // Schéma tel que stocké à l'inscription
+        algorithm = signatureService.detectAlgorithm(publicKey).orElseThrow();
+        if (!verifyCachedKey()) {
+            throw new IllegalStateException("Signature " + scheme + " rejetée");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public boolean verifyDecodingKey() {
+        return signatureService.verifySignature(challenge, signature, publicKey);
+    }
+
+    @Benchmark
+    public boolean verifyCachedKey() {
+        return signatureService.verifySignature(challenge, signature, 1L, publicKey, algorithm);
+    }
+}
@@ -0,0 +1,31 @@
+package com.indentity.identity_app.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.Base64;
+
+/**
+ * Taille de stockage et de transfert par schéma : clé publique SPKI (DER et Base64,
+ * telle que stockée dans users.public_key) et signature d'un challenge
+ *
+ * java -cp target/benchmarks.jar com.indentity.identity_app.bench.SignatureSizes
+ */
+public final class SignatureSizes {
+
+    private SignatureSizes() {
+    }
+
+    public static void main(String[] args) {
+        byte[] challenge = "bench-challenge-0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+        System.out.printf("%-10s %14s %17s %16s %19s%n",
+                "scheme", "spki (octets)", "spki (car. b64)", "sig. (octets)", "sig. (car. b64)");
+        for (KeyScheme scheme : KeyScheme.values()) {
+            KeyPair keyPair = scheme.generateKeyPair();
+            byte[] spki = keyPair.getPublic().getEncoded();
+            byte[] signature = scheme.sign(keyPair.getPrivate(), challenge);
+            System.out.printf("%-10s %14d %17d %16d %19d%n", scheme,
+                    spki.length, Base64.getEncoder().encodeToString(spki).length(),
+                    signature.length, Base64.getEncoder().encodeToString(signature).length());
+        }
+    }
+}
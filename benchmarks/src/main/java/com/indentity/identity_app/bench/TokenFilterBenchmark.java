@@ -0,0 +1,86 @@
+package com.indentity.identity_app.bench;
+
+import com.indentity.identity_app.entity.Role;
+import com.indentity.identity_app.entity.User;
+import com.indentity.identity_app.filter.PrincipalMode;
+import com.indentity.identity_app.filter.TokenAuthenticationFilter;
+import com.indentity.identity_app.jwt.JwtAlgorithm;
+import com.indentity.identity_app.metrics.AuthMetrics;
+import com.indentity.identity_app.repository.RoleView;
+import com.indentity.identity_app.repository.UserRepository;
+import com.indentity.identity_app.repository.UserSnapshot;
+import com.indentity.identity_app.service.JwtService;
+import com.indentity.identity_app.service.UserLookup;
+import com.indentity.identity_app.service.UserSnapshotCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût par requête de TokenAuthenticationFilter pour chaque mode de principal
+ * Le repository est mocké : le coût d'un vrai aller-retour Postgres n'est pas inclus,
+ * seule l'hydratation côté filtre l'est. SNAPSHOT n'utilise que le niveau local du cache
+ * (pas de Redis). Inclut la création de la requête simulée.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenFilterBenchmark {
+
+    @Param({"DATABASE", "CLAIMS", "SNAPSHOT"})
+    public PrincipalMode mode;
+
+    private TokenAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setup() {
+        User user = User.builder()
+                .id(1L)
+                .email("bench@example.com")
+                .password("$2a$10$hash")
+                .role(Role.USER)
+                .publicKey("key")
+                .build();
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findByEmail("bench@example.com")).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.findRoleByEmail("bench@example.com"))
+                .thenReturn(Optional.of(new RoleView(1L, "bench@example.com", Role.USER)));
+        Mockito.when(userRepository.findSnapshotByEmail("bench@example.com"))
+                .thenReturn(Optional.of(new UserSnapshot(1L, "bench@example.com", Role.USER, "$2a$10$hash", "key", null)));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuthMetrics authMetrics = new AuthMetrics(registry);
+        JwtService jwtService = new JwtService(Fixtures.jwtKeyRing(JwtAlgorithm.RS256), Fixtures.randomTokenSource(),
+                Fixtures.revocationList(), Fixtures.JWT_EXPIRATION_MS,
+                10_000, Duration.ofMinutes(5), registry, authMetrics);
+        UserSnapshotCache snapshotCache = new UserSnapshotCache(userRepository, null, null, null, registry,
+                10_000, Duration.ofMinutes(1), Duration.ZERO);
+        UserLookup userLookup = new UserLookup(userRepository, snapshotCache, authMetrics, true);
+
+        filter = new TokenAuthenticationFilter(jwtService, userRepository, userLookup, authMetrics, mode);
+        authorization = "Bearer " + jwtService.generateToken("bench@example.com", Role.USER);
+    }
+
+    @Benchmark
+    public int doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/me");
+        request.addHeader("Authorization", authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,62 @@
+package com.indentity.identity_app.bench;
+
+import com.indentity.identity_app.service.ChallengeService;
+import com.indentity.identity_app.service.LoginTicket;
+import com.indentity.identity_app.service.RandomTokenSource;
+import com.indentity.identity_app.service.TemporaryTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération des challenges et tokens temporaires, seuls ou ensemble (stockage neutralisé)
+ * avec et sans pool de tokens pré-générés
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenGenerationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean pool;
+
+    private RandomTokenSource randomTokenSource;
+    private ChallengeService challengeService;
+    private TemporaryTokenService temporaryTokenService;
+
+    @Setup
+    public void setup() {
+        // Pool rempli par son propre thread, toutes les millisecondes
+        randomTokenSource = new RandomTokenSource(new SimpleMeterRegistry(), 0, pool, 1024, 1);
+        Fixtures.DiscardingStore store = new Fixtures.DiscardingStore();
+        challengeService = new ChallengeService(store, randomTokenSource, Fixtures.authMetrics());
+        temporaryTokenService = new TemporaryTokenService(store, randomTokenSource, true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        randomTokenSource.shutdown();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateChallenge() {
+        return challengeService.generateChallenge("bench@example.com");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateTemporaryToken() {
+        return temporaryTokenService.generateTemporaryToken("bench@example.com");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public LoginTicket generateTemporaryTokenWithChallenge() {
+        return temporaryTokenService.generateTemporaryTokenWithChallenge("bench@example.com");
+    }
+}
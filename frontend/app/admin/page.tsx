@@ -2,7 +2,7 @@
 
 import { useEffect, useState } from "react";
 import { useRouter } from "next/navigation";
-import { getCurrentUser } from "@/lib/api";
+import { getCurrentUser, logout } from "@/lib/api";
 import Link from "next/link";
 
 export default function AdminPage() {
@@ -45,6 +45,10 @@ export default function AdminPage() {
     }, [router]);
 
     const handleLogout = () => {
+        const token = localStorage.getItem("token");
+        if (token) {
+            logout(token);
+        }
         localStorage.removeItem("token");
         localStorage.removeItem("tokenExpiry");
         router.push("/login");
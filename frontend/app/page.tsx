@@ -115,7 +115,7 @@ export default function Home() {
                     <WorkflowStep
                         number="04"
                         title="Authentification Complète"
-                        description="Les deux facteurs sont validés : password  (connaissance) et signature RSA (possession). Le serveur génère un JWT signé avec HMAC256 contenant email, rôle et expiration (24h). Le JWT est envoyé au client qui l'utilise pour accéder aux APIs protégées. Le serveur valide chaque requête en vérifiant la signature JWT sans accès à la base de données (stateless)."
+                        description="Les deux facteurs sont validés : password  (connaissance) et signature RSA (possession). Le serveur génère un JWT signé en RS256 contenant email, rôle et expiration (24h). Le JWT est envoyé au client qui l'utilise pour accéder aux APIs protégées. Le serveur valide chaque requête en vérifiant la signature JWT sans accès à la base de données (stateless)."
                     />
                 </div>
             </section>
@@ -2,7 +2,7 @@
 
 import { useEffect, useState } from "react";
 import { useRouter } from "next/navigation";
-import { getCurrentUser } from "@/lib/api";
+import { getCurrentUser, logout } from "@/lib/api";
 import Link from "next/link";
 
 export default function UserPage() {
@@ -38,6 +38,10 @@ export default function UserPage() {
     }, [router]);
 
     const handleLogout = () => {
+        const token = localStorage.getItem("token");
+        if (token) {
+            logout(token);
+        }
         localStorage.removeItem("token");
         localStorage.removeItem("tokenExpiry");
         router.push("/login");
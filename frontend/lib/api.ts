@@ -17,6 +17,7 @@ interface ChallengeResponse {
 
 interface TempTokenResponse {
     temporaryToken: string;
+    challenge?: string; // renvoyé si withChallenge est demandé au login
 }
 
 /**
@@ -52,8 +53,8 @@ export async function register(email: string, password: string) {
 
 /**
  * Connexion avec MFA (Multi-Factor Authentication)
- * STEP 1 : Validation du mot de passe → temporaryToken
- * STEP 2 : Challenge avec temporaryToken → challenge
+ * STEP 1 : Validation du mot de passe → temporaryToken (+ challenge, withChallenge)
+ * STEP 2 : Challenge avec temporaryToken → challenge (seulement si le login ne l'a pas renvoyé)
  * STEP 3 : Signature du challenge → authentification complète avec JWT
  */
 export async function loginWithMFA(email: string, password: string): Promise<JwtResponse> {
@@ -61,7 +62,8 @@ export async function loginWithMFA(email: string, password: string): Promise<Jwt
     const step1Res = await fetch(`${API_URL}/login`, {
         method: "POST",
         headers: { "Content-Type": "application/json" },
-        body: JSON.stringify({ email, password }),
+        // Challenge renvoyé avec le token : un aller-retour de moins
+        body: JSON.stringify({ email, password, withChallenge: true }),
     });
 
     if (!step1Res.ok) {
@@ -69,26 +71,30 @@ export async function loginWithMFA(email: string, password: string): Promise<Jwt
         throw new Error(text || "Invalid email or password");
     }
 
-    const { temporaryToken }: TempTokenResponse = await step1Res.json();
+    const step1: TempTokenResponse = await step1Res.json();
+    const { temporaryToken } = step1;
 
-    // STEP 2 : Récupérer la clé privée et demander un challenge
+    // STEP 2 : Récupérer la clé privée et, si le serveur ne l'a pas renvoyé, demander un challenge
     const privateKey = await getPrivateKey(email);
     if (!privateKey) {
         throw new Error("Clé privée non trouvée. Veuillez vous réinscrire.");
     }
 
-    const challengeRes = await fetch(`${API_URL}/challenge`, {
-        method: "POST",
-        headers: { "Content-Type": "application/json" },
-        body: JSON.stringify({ temporaryToken }),
-    });
+    let challenge = step1.challenge;
+    if (!challenge) {
+        const challengeRes = await fetch(`${API_URL}/challenge`, {
+            method: "POST",
+            headers: { "Content-Type": "application/json" },
+            body: JSON.stringify({ temporaryToken }),
+        });
 
-    if (!challengeRes.ok) {
-        const text = await challengeRes.text();
-        throw new Error(text || "Failed to get challenge");
-    }
+        if (!challengeRes.ok) {
+            const text = await challengeRes.text();
+            throw new Error(text || "Failed to get challenge");
+        }
 
-    const { challenge }: ChallengeResponse = await challengeRes.json();
+        ({ challenge } = (await challengeRes.json()) as ChallengeResponse);
+    }
 
     // STEP 3 : Signer le challenge et s'authentifier
     const signature = await signChallenge(challenge, privateKey);
@@ -124,4 +130,14 @@ export async function getCurrentUser(token: string): Promise<UserResponse> {
     }
 
     return res.json();
-}
\ No newline at end of file
+}
+/**
+ * Déconnexion côté serveur : le JWT est révoqué jusqu'à son expiration
+ * Un échec (token déjà expiré, réseau) n'empêche pas la déconnexion locale
+ */
+export async function logout(token: string): Promise<void> {
+    await fetch(`${API_URL}/logout`, {
+        method: "POST",
+        headers: { "Authorization": `Bearer ${token}` },
+    }).catch(() => undefined);
+}
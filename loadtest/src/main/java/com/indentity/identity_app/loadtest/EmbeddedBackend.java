@@ -0,0 +1,102 @@
+package com.indentity.identity_app.loadtest;
+
+import com.indentity.identity_app.IdentityAppApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Backend lancé dans le même processus que les clients
+ *
+ * Postgres est remplacé par H2 (mode PostgreSQL), Redis par le binaire
+ * redis-server embarqué (6.2) ou par un Redis local (--redis=host:port).
+ * Les clés JWT vont dans un répertoire temporaire, supprimé à l'arrêt.
+ */
+final class EmbeddedBackend implements AutoCloseable {
+
+    private RedisServer redisServer;
+    private ConfigurableApplicationContext context;
+    private Path jwtKeysDir;
+
+    /**
+     * @return L'URL de base du backend (ex: http://localhost:41234)
+     */
+    String start(LoadTestConfig config) throws IOException {
+        String redisHost = "localhost";
+        int redisPort;
+        if ("embedded".equals(config.redis)) {
+            redisPort = freePort();
+            redisServer = new RedisServer(redisPort);
+            redisServer.start();
+        } else {
+            String[] hostPort = config.redis.split(":");
+            redisHost = hostPort[0];
+            redisPort = Integer.parseInt(hostPort[1]);
+        }
+        jwtKeysDir = Files.createTempDirectory("loadtest-jwt-keys");
+
+        // Arguments de ligne de commande : priorité sur application.properties
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                // Actuator non consulté : pas de port de gestion (8081 par défaut)
+                "--management.server.port=-1",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                // Migrations écrites pour PostgreSQL : schéma H2 généré par Hibernate
+                "--spring.flyway.enabled=false",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                // application.properties fixe le dialecte PostgreSQL
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.data.redis.host=" + redisHost,
+                "--spring.data.redis.port=" + redisPort,
+                "--jwt.secret=loadtest-secret-loadtest-secret-loadtest",
+                "--jwt.keys.dir=" + jwtKeysDir,
+                // Tous les clients partagent l'IP de loopback
+                "--auth.hashing.max-in-flight-per-ip=" + Math.max(8, config.concurrency),
+                "--auth.rate-limit.enabled=false",
+                "--logging.level.root=WARN"
+        ));
+        if (!config.profiles.isBlank()) {
+            args.add("--spring.profiles.active=" + config.profiles);
+        }
+
+        context = new SpringApplicationBuilder(IdentityAppApplication.class).run(args.toArray(String[]::new));
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return "http://localhost:" + port;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+        if (jwtKeysDir != null) {
+            try (Stream<Path> files = Files.walk(jwtKeysDir)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.indentity.identity_app.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latences (HdrHistogram, en microsecondes) et erreurs par étape du parcours
+ *
+ * Rien n'est enregistré pendant le warm-up : {@link #startRecording()} ouvre
+ * la fenêtre de mesure.
+ */
+final class LoadStats {
+
+    static final List<String> STEPS = List.of(
+            MfaClient.LOGIN, MfaClient.CHALLENGE, MfaClient.AUTHENTICATE, MfaClient.ME);
+
+    // 1 µs → 60 s, 3 chiffres significatifs
+    private static final long MAX_LATENCY_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final Map<String, Histogram> latencies = new LinkedHashMap<>();
+    private final Map<String, LongAdder> errors = new LinkedHashMap<>();
+    private final Map<String, LongAdder> errorsByStatus = new ConcurrentHashMap<>();
+    private final LongAdder completedFlows = new LongAdder();
+    private final LongAdder failedFlows = new LongAdder();
+    private final LongAdder transportErrors = new LongAdder();
+
+    private volatile boolean recording;
+    private volatile long recordingStartNanos;
+    private volatile long recordingEndNanos;
+
+    LoadStats() {
+        for (String step : STEPS) {
+            latencies.put(step, new ConcurrentHistogram(1, MAX_LATENCY_MICROS, 3));
+            errors.put(step, new LongAdder());
+        }
+    }
+
+    void startRecording() {
+        recordingStartNanos = System.nanoTime();
+        recording = true;
+    }
+
+    void stopRecording() {
+        recording = false;
+        recordingEndNanos = System.nanoTime();
+    }
+
+    /**
+     * @return true si le statut HTTP est un succès (2xx)
+     */
+    boolean record(String step, long startNanos, int status) {
+        boolean success = status >= 200 && status < 300;
+        if (recording) {
+            long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos), MAX_LATENCY_MICROS);
+            latencies.get(step).recordValue(Math.max(1, micros));
+            if (!success) {
+                errors.get(step).increment();
+                errorsByStatus.computeIfAbsent(step + ":" + status, k -> new LongAdder()).increment();
+            }
+        }
+        return success;
+    }
+
+    void recordTransportError() {
+        if (recording) {
+            transportErrors.increment();
+        }
+    }
+
+    void recordFlow(boolean success) {
+        if (recording) {
+            (success ? completedFlows : failedFlows).increment();
+        }
+    }
+
+    Map<String, Object> toReport() {
+        double seconds = (recordingEndNanos - recordingStartNanos) / 1e9;
+
+        Map<String, Object> flows = new LinkedHashMap<>();
+        flows.put("completed", completedFlows.sum());
+        flows.put("failed", failedFlows.sum());
+        flows.put("transportErrors", transportErrors.sum());
+        flows.put("throughputPerSecond", round(completedFlows.sum() / seconds));
+
+        Map<String, Object> steps = new LinkedHashMap<>();
+        for (String step : STEPS) {
+            Histogram histogram = latencies.get(step);
+            long count = histogram.getTotalCount();
+            long stepErrors = errors.get(step).sum();
+
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("mean", round(histogram.getMean() / 1000.0));
+            for (double percentile : new double[]{50, 90, 99, 99.9}) {
+                latency.put("p" + (percentile == 99.9 ? "999" : String.valueOf((int) percentile)),
+                        round(histogram.getValueAtPercentile(percentile) / 1000.0));
+            }
+            latency.put("max", round(histogram.getMaxValue() / 1000.0));
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", count);
+            stats.put("errors", stepErrors);
+            stats.put("errorRate", count == 0 ? 0.0 : round((double) stepErrors / count));
+            stats.put("throughputPerSecond", round(count / seconds));
+            stats.put("latencyMs", latency);
+            // Histogramme complet (format compressé HdrHistogram, Base64) pour fusion / tracé ultérieur
+            stats.put("histogram", encode(histogram));
+            steps.put(step, stats);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("measuredSeconds", round(seconds));
+        report.put("flows", flows);
+        report.put("steps", steps);
+        Map<String, Long> byStatus = new TreeMap<>();
+        errorsByStatus.forEach((key, value) -> byStatus.put(key, value.sum()));
+        report.put("errorsByStatus", byStatus);
+        return report;
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
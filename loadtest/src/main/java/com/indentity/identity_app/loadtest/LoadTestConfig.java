@@ -0,0 +1,58 @@
+package com.indentity.identity_app.loadtest;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Paramètres du test de charge, lus depuis des arguments --cle=valeur
+ */
+final class LoadTestConfig {
+
+    final int users;              // comptes enregistrés avant la mesure
+    final int concurrency;        // clients simultanés
+    final int warmupSeconds;
+    final int durationSeconds;
+    final int keySize;            // taille des clés RSA clientes
+    final String target;          // URL d'un backend déjà lancé, sinon backend embarqué
+    final String redis;           // "embedded" ou host:port d'un Redis local
+    final String profiles;        // profils Spring du backend embarqué (ex: virtual-threads)
+    final String output;          // fichier JSON de résultats
+
+    private LoadTestConfig(Map<String, String> args) {
+        this.users = Integer.parseInt(args.getOrDefault("users", "50"));
+        this.concurrency = Integer.parseInt(args.getOrDefault("concurrency", "16"));
+        this.warmupSeconds = Integer.parseInt(args.getOrDefault("warmup", "10"));
+        this.durationSeconds = Integer.parseInt(args.getOrDefault("duration", "60"));
+        this.keySize = Integer.parseInt(args.getOrDefault("key-size", "2048"));
+        this.target = args.get("target");
+        this.redis = args.getOrDefault("redis", "embedded");
+        this.profiles = args.getOrDefault("profiles", "");
+        this.output = args.getOrDefault("output", "loadtest-result.json");
+    }
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argument attendu sous la forme --cle=valeur : " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestConfig(values);
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("users", users);
+        map.put("concurrency", concurrency);
+        map.put("warmupSeconds", warmupSeconds);
+        map.put("durationSeconds", durationSeconds);
+        map.put("keySize", keySize);
+        map.put("target", target != null ? target : "embedded");
+        map.put("redis", target != null ? "n/a" : redis);
+        map.put("profiles", profiles);
+        return map;
+    }
+}
@@ -0,0 +1,125 @@
+package com.indentity.identity_app.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Test de charge du parcours MFA complet (login → challenge → authenticate → me)
+ *
+ * Exemple :
+ *   java -jar target/loadtest.jar --users=100 --concurrency=64 --duration=60
+ *   java -jar target/loadtest.jar --profiles=virtual-threads --output=vt.json
+ *   java -jar target/loadtest.jar --target=http://localhost:8080
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+
+        int exitCode;
+        try (EmbeddedBackend backend = new EmbeddedBackend()) {
+            String baseUrl = config.target != null ? config.target : backend.start(config);
+            exitCode = run(config, baseUrl);
+        }
+        // Le client HTTP et Lettuce laissent des threads non-daemon
+        System.exit(exitCode);
+    }
+
+    private static int run(LoadTestConfig config, String baseUrl) throws Exception {
+        System.out.printf("Backend: %s (profils: %s, java %s, %d CPU)%n", baseUrl,
+                config.profiles.isBlank() ? "défaut" : config.profiles,
+                Runtime.version(), Runtime.getRuntime().availableProcessors());
+
+        MfaClient client = new MfaClient(baseUrl);
+
+        // Comptes : génération des paires RSA puis inscription, hors mesure
+        System.out.printf("Inscription de %d comptes...%n", config.users);
+        List<MfaClient.Account> accounts = IntStream.range(0, config.users).parallel()
+                .mapToObj(i -> {
+                    try {
+                        MfaClient.Account account = MfaClient.newAccount(i, config.keySize);
+                        client.register(account);
+                        return account;
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Inscription impossible", e);
+                    }
+                })
+                .toList();
+
+        LoadStats stats = new LoadStats();
+        long deadline = System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(config.warmupSeconds + config.durationSeconds);
+
+        // Clients : un thread plateforme par client, chacun bouclant sur le parcours
+        ExecutorService workers = Executors.newFixedThreadPool(config.concurrency);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < config.concurrency; w++) {
+            int offset = w;
+            futures.add(workers.submit(() -> {
+                for (int i = offset; System.nanoTime() < deadline; i += config.concurrency) {
+                    MfaClient.Account account = accounts.get(i % accounts.size());
+                    stats.recordFlow(client.runFlow(account, stats));
+                }
+                return null;
+            }));
+        }
+
+        System.out.printf("Warm-up %d s...%n", config.warmupSeconds);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(config.warmupSeconds));
+        stats.startRecording();
+        System.out.printf("Mesure %d s avec %d clients...%n", config.durationSeconds, config.concurrency);
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        stats.stopRecording();
+        workers.shutdown();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("javaVersion", Runtime.version().toString());
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("config", config.toMap());
+        report.putAll(stats.toReport());
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.writerWithDefaultPrettyPrinter().writeValue(new File(config.output), report);
+        printSummary(report);
+        System.out.printf("Résultats écrits dans %s%n", config.output);
+        return 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printSummary(Map<String, Object> report) {
+        Map<String, Object> flows = (Map<String, Object>) report.get("flows");
+        System.out.printf("%nParcours: %s réussis, %s échoués, %s/s%n",
+                flows.get("completed"), flows.get("failed"), flows.get("throughputPerSecond"));
+        System.out.printf("%-14s %8s %8s %9s %9s %9s %9s %9s%n",
+                "étape", "requêtes", "erreurs", "moy (ms)", "p50", "p90", "p99", "p99.9");
+        Map<String, Object> steps = (Map<String, Object>) report.get("steps");
+        steps.forEach((step, value) -> {
+            Map<String, Object> stepStats = (Map<String, Object>) value;
+            Map<String, Object> latency = (Map<String, Object>) stepStats.get("latencyMs");
+            System.out.printf("%-14s %8s %8s %9s %9s %9s %9s %9s%n", step,
+                    stepStats.get("count"), stepStats.get("errors"), latency.get("mean"),
+                    latency.get("p50"), latency.get("p90"), latency.get("p99"), latency.get("p999"));
+        });
+        Map<String, Object> byStatus = (Map<String, Object>) report.get("errorsByStatus");
+        if (!byStatus.isEmpty()) {
+            System.out.println("Erreurs par statut: " + byStatus);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.indentity.identity_app.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Client HTTP qui rejoue le parcours du frontend :
+ * inscription, puis login → challenge → authenticate → me
+ */
+final class MfaClient {
+
+    static final String LOGIN = "login";
+    static final String CHALLENGE = "challenge";
+    static final String AUTHENTICATE = "authenticate";
+    static final String ME = "me";
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String baseUrl;
+
+    MfaClient(String baseUrl) {
+        this.baseUrl = baseUrl + "/auth";
+    }
+
+    record Account(String email, String password, PrivateKey privateKey, String publicKey) {
+    }
+
+    static Account newAccount(int index, int keySize) throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(keySize);
+        KeyPair keyPair = generator.generateKeyPair();
+        return new Account(
+                "load-" + index + "-" + System.nanoTime() + "@loadtest.local",
+                "LoadTest-Pass-" + index,
+                keyPair.getPrivate(),
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded())
+        );
+    }
+
+    void register(Account account) throws IOException, InterruptedException {
+        ObjectNode body = mapper.createObjectNode()
+                .put("email", account.email())
+                .put("password", account.password())
+                .put("publicKey", account.publicKey());
+        HttpResponse<String> response = post("/register", body);
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Inscription refusée (" + response.statusCode() + "): " + response.body());
+        }
+    }
+
+    /**
+     * Exécute un parcours MFA complet en enregistrant la latence de chaque étape
+     *
+     * @return true si toutes les étapes ont réussi
+     */
+    boolean runFlow(Account account, LoadStats stats) throws GeneralSecurityException {
+        try {
+            long start = System.nanoTime();
+            HttpResponse<String> login = post("/login", mapper.createObjectNode()
+                    .put("email", account.email())
+                    .put("password", account.password()));
+            if (!stats.record(LOGIN, start, login.statusCode())) {
+                return false;
+            }
+            String temporaryToken = mapper.readTree(login.body()).get("temporaryToken").asText();
+
+            start = System.nanoTime();
+            HttpResponse<String> challengeResponse = post("/challenge", mapper.createObjectNode()
+                    .put("temporaryToken", temporaryToken));
+            if (!stats.record(CHALLENGE, start, challengeResponse.statusCode())) {
+                return false;
+            }
+            String challenge = mapper.readTree(challengeResponse.body()).get("challenge").asText();
+
+            // Signature côté client, hors mesure (comme dans le navigateur)
+            Signature signer = Signature.getInstance("SHA256withRSA");
+            signer.initSign(account.privateKey());
+            signer.update(challenge.getBytes(StandardCharsets.UTF_8));
+            String signature = Base64.getEncoder().encodeToString(signer.sign());
+
+            start = System.nanoTime();
+            HttpResponse<String> authenticate = post("/authenticate", mapper.createObjectNode()
+                    .put("temporaryToken", temporaryToken)
+                    .put("challenge", challenge)
+                    .put("signature", signature));
+            if (!stats.record(AUTHENTICATE, start, authenticate.statusCode())) {
+                return false;
+            }
+            String jwt = mapper.readTree(authenticate.body()).get("token").asText();
+
+            start = System.nanoTime();
+            HttpResponse<String> me = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/me"))
+                    .header("Authorization", "Bearer " + jwt)
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            return stats.record(ME, start, me.statusCode());
+
+        } catch (IOException e) {
+            stats.recordTransportError();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private HttpResponse<String> post(String path, ObjectNode body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}